@@ -0,0 +1,318 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+/**
+ * Benchmark inputs: the C/C++ sources of the integration test projects and synthetic sources.
+ *
+ * The location of the integration test projects can be set with the system property {@link #TESTDATA_PROPERTY}, by
+ * default 'integration-tests/testdata' is searched in the current and in the parent directory.
+ */
+public final class Corpus {
+
+  public static final String TESTDATA_PROPERTY = "cxx.benchmark.testdata";
+
+  private static final String TESTDATA = "integration-tests/testdata";
+  private static final List<String> SUFFIXES = List.of(".c", ".cc", ".cpp", ".cxx", ".h", ".hh", ".hpp", ".hxx");
+
+  private Corpus() {
+  }
+
+  /**
+   * Directory containing the integration test projects.
+   */
+  public static Path testdataDir() {
+    var property = System.getProperty(TESTDATA_PROPERTY);
+    if (property != null) {
+      return Path.of(property).toAbsolutePath();
+    }
+    var dir = Path.of(TESTDATA).toAbsolutePath();
+    if (!Files.isDirectory(dir)) {
+      dir = Path.of("..", TESTDATA).toAbsolutePath().normalize();
+    }
+    return dir;
+  }
+
+  /**
+   * All C/C++ sources of the integration test projects, sorted by path.
+   */
+  public static List<Source> testdata() {
+    var dir = testdataDir();
+    if (!Files.isDirectory(dir)) {
+      throw new IllegalStateException("Test data not found: '" + dir + "', set -D" + TESTDATA_PROPERTY);
+    }
+    try (var paths = Files.walk(dir)) {
+      var result = new ArrayList<Source>();
+      for (var path : paths.filter(Corpus::isSource).sorted().collect(Collectors.toList())) {
+        result.add(new Source(path, read(path)));
+      }
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Source using object-like, function-like, nested and stringizing/concatenating macros and conditional groups.
+   *
+   * @param count number of macro groups
+   */
+  public static String macroHeavy(int count) {
+    var sb = new StringBuilder(count * 320);
+    sb.append("#define CONCAT_(a, b) a ## b\n")
+      .append("#define CONCAT(a, b) CONCAT_(a, b)\n")
+      .append("#define STR_(x) #x\n")
+      .append("#define STR(x) STR_(x)\n")
+      .append("#define MAX(a, b) ((a) > (b) ? (a) : (b))\n")
+      .append("#define SQUARE(x) ((x) * (x))\n")
+      .append("#define LOG(fmt, ...) log_message(__FILE__, __LINE__, fmt, __VA_ARGS__)\n");
+    for (var i = 0; i < count; i++) {
+      sb.append("#define VALUE_").append(i).append(' ');
+      if (i % 8 == 0) {
+        sb.append(i).append('\n');
+      } else {
+        sb.append("(VALUE_").append(i - 1).append(" + 1)\n");
+      }
+      sb.append("#if MAX(VALUE_").append(i).append(", ").append(i % 5).append(") >= ").append(i / 2)
+        .append(" && defined(CONCAT_)\n")
+        .append("int CONCAT(value_, ").append(i).append(") = SQUARE(VALUE_").append(i).append(");\n")
+        .append("#elif VALUE_").append(i).append(" == 0\n")
+        .append("int CONCAT(zero_, ").append(i).append(") = 0;\n")
+        .append("#else\n")
+        .append("int CONCAT(other_, ").append(i).append(") = -1;\n")
+        .append("#endif\n")
+        .append("#ifdef VALUE_").append(i).append('\n')
+        .append("const char* CONCAT(name_, ").append(i).append(") = STR(VALUE_").append(i).append(");\n")
+        .append("void CONCAT(trace_, ").append(i).append(")() { LOG(\"%d %d\", VALUE_").append(i)
+        .append(", SQUARE(").append(i).append(")); }\n")
+        .append("#endif\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Translation unit with namespaces, templates, classes and functions with nested control flow.
+   *
+   * @param count number of classes
+   */
+  public static String translationUnit(int count) {
+    var sb = new StringBuilder(count * 640);
+    sb.append("#include <vector>\n")
+      .append("namespace bench {\n")
+      .append("template<typename T>\n")
+      .append("class Container {\n")
+      .append("public:\n")
+      .append("  explicit Container(T v) : value_(v) {}\n")
+      .append("  virtual ~Container() = default;\n")
+      .append("  T get() const { return value_; }\n")
+      .append("private:\n")
+      .append("  T value_;\n")
+      .append("};\n");
+    for (var i = 0; i < count; i++) {
+      sb.append("/**\n * Class ").append(i).append(".\n */\n")
+        .append("class Class").append(i).append(" : public Container<int> {\n")
+        .append("public:\n")
+        .append("  Class").append(i).append("() : Container<int>(").append(i).append(") {}\n")
+        .append("  int compute(int a, int b) const;\n")
+        .append("  static std::vector<int> values(const Class").append(i).append("& c);\n")
+        .append("};\n")
+        .append("int Class").append(i).append("::compute(int a, int b) const {\n")
+        .append("  int result = 0;\n")
+        .append("  for (int k = 0; k < a; ++k) {\n")
+        .append("    if (k % 2 == 0 && b > k) {\n")
+        .append("      result += k * b;\n")
+        .append("    } else if (k % 3 == 0) {\n")
+        .append("      result -= get();\n")
+        .append("    } else {\n")
+        .append("      switch (k) {\n")
+        .append("        case 1: result++; break;\n")
+        .append("        default: break;\n")
+        .append("      }\n")
+        .append("    }\n")
+        .append("  }\n")
+        .append("  while (result > 1000) { result /= 2; }\n")
+        .append("  auto f = [&](int x) { return x * result; };\n")
+        .append("  return result > 0 ? f(result) : -result;\n")
+        .append("}\n")
+        .append("std::vector<int> Class").append(i).append("::values(const Class").append(i).append("& c) {\n")
+        .append("  std::vector<int> v;\n")
+        .append("  for (auto i : {1, 2, 3}) { v.push_back(c.compute(i, ").append(i).append(")); }\n")
+        .append("  return v;\n")
+        .append("}\n");
+    }
+    sb.append("} // namespace bench\n");
+    return sb.toString();
+  }
+
+  /**
+   * Generate a project with a deep include tree into a directory.
+   *
+   * Each header of level n includes two headers of level n + 1 (protected by include guards), each unit includes
+   * the headers of level 0. All headers are found via the include directory 'include'.
+   *
+   * @param dir directory to write the project to
+   * @param units number of translation units
+   * @param depth depth of the include tree
+   * @return the translation units
+   */
+  public static List<Source> generateProject(Path dir, int units, int depth) {
+    try {
+      var include = Files.createDirectories(dir.resolve("include"));
+      for (var level = 0; level < depth; level++) {
+        var width = 1 << level;
+        for (var k = 0; k < width; k++) {
+          Files.writeString(include.resolve(header(level, k)), headerContent(level, k, depth),
+                            StandardCharsets.UTF_8);
+        }
+      }
+
+      var sources = Files.createDirectories(dir.resolve("src"));
+      var result = new ArrayList<Source>(units);
+      for (var i = 0; i < units; i++) {
+        var content = "#include \"" + header(0, 0) + "\"\n" + macroHeavy(10) + translationUnit(10);
+        var file = sources.resolve("unit" + i + ".cpp");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        result.add(new Source(file, content));
+      }
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String header(int level, int index) {
+    return "level" + level + "_" + index + ".h";
+  }
+
+  private static String headerContent(int level, int index, int depth) {
+    var guard = "LEVEL" + level + "_" + index + "_H";
+    var sb = new StringBuilder(1024);
+    sb.append("#ifndef ").append(guard).append('\n')
+      .append("#define ").append(guard).append('\n');
+    if (level + 1 < depth) {
+      sb.append("#include \"").append(header(level + 1, 2 * index)).append("\"\n")
+        .append("#include \"").append(header(level + 1, 2 * index + 1)).append("\"\n");
+    }
+    sb.append("#define ").append(guard).append("_VALUE ").append(level * 100 + index).append('\n')
+      .append("#if ").append(guard).append("_VALUE > 50 && defined(").append(guard).append(")\n")
+      .append("struct Level").append(level).append('_').append(index).append(" {\n")
+      .append("  int value = ").append(guard).append("_VALUE;\n")
+      .append("  int get() const { return value; }\n")
+      .append("};\n")
+      .append("#else\n")
+      .append("typedef int Level").append(level).append('_').append(index).append(";\n")
+      .append("#endif\n")
+      .append("#endif\n");
+    return sb.toString();
+  }
+
+  /**
+   * Macro definitions used by {@link #expressions()}.
+   */
+  public static List<String> expressionDefines() {
+    return List.of("BENCH_A 3", "BENCH_B(x, y) ((x) + (y))", "BENCH_C BENCH_B(BENCH_A, 1)");
+  }
+
+  /**
+   * Constant expressions as they appear in #if and #elif directives.
+   */
+  public static List<String> expressions() {
+    return List.of(
+      "1 + 2 * 3 == 7",
+      "(0x10 << 2) | 0b101",
+      "defined(BENCH_A) && BENCH_A > 2",
+      "BENCH_B(3, 4) == 7",
+      "BENCH_C == 4 && !defined(UNDEFINED)",
+      "100000000ULL / 7 % 13 > 5 ? 1 : 0",
+      "'a' + 1 == 'b'",
+      "(BENCH_A * BENCH_A - 1) >= 0x7fffffff",
+      "defined BENCH_A || (1 && 0) || ~0 != -1",
+      "__has_include(<missing.h>) || 017 == 15"
+    );
+  }
+
+  /**
+   * Create an input file for the scanner.
+   */
+  public static InputFile inputFile(Source source) {
+    return TestInputFileBuilder.create("benchmark", source.file().getParentFile(), source.file())
+      .setContents(source.content())
+      .setCharset(StandardCharsets.UTF_8)
+      .setLanguage("cxx")
+      .setType(InputFile.Type.MAIN)
+      .build();
+  }
+
+  private static boolean isSource(Path path) {
+    var name = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+    return Files.isRegularFile(path) && SUFFIXES.stream().anyMatch(name::endsWith);
+  }
+
+  private static String read(Path path) throws IOException {
+    var bytes = Files.readAllBytes(path);
+    if (bytes.length >= 2 && (bytes[0] & 0xff) == 0xfe && (bytes[1] & 0xff) == 0xff) {
+      return new String(bytes, StandardCharsets.UTF_16BE).substring(1);
+    } else if (bytes.length >= 2 && (bytes[0] & 0xff) == 0xff && (bytes[1] & 0xff) == 0xfe) {
+      return new String(bytes, StandardCharsets.UTF_16LE).substring(1);
+    }
+    var content = new String(bytes, StandardCharsets.UTF_8);
+    return content.startsWith("\uFEFF") ? content.substring(1) : content;
+  }
+
+  /**
+   * Source file and its content. The file is not required to exist.
+   */
+  public static final class Source {
+
+    private final File file;
+    private final String content;
+
+    public Source(Path file, String content) {
+      this.file = file.toFile();
+      this.content = content;
+    }
+
+    public File file() {
+      return file;
+    }
+
+    public String content() {
+      return content;
+    }
+
+    public int size() {
+      return content.length();
+    }
+  }
+
+}
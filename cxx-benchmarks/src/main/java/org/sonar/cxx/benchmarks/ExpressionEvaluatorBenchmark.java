@@ -0,0 +1,87 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.benchmarks;
+
+import com.sonar.sslr.api.Grammar;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.preprocessor.ExpressionEvaluator;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContextImpl;
+import org.sonar.cxx.squidbridge.api.SourceProject;
+
+/**
+ * Evaluation of #if/#elif constant expressions and decoding of number literals.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionEvaluatorBenchmark {
+
+  private static final List<String> NUMBERS = List.of(
+    "0", "42", "0x7fffffff", "0XDEADBEEFULL", "0b1010'1010", "0777", "1'000'000", "18446744073709551615ull"
+  );
+
+  private CxxPreprocessor preprocessor;
+  private List<String> expressions;
+
+  @Setup
+  public void setup() {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.DEFINES, Corpus.expressionDefines());
+    var context = new SquidAstVisitorContextImpl<Grammar>(new SourceProject("Benchmark"));
+    context.setFile(Path.of("expressions.cpp").toAbsolutePath().toFile(), CxxMetric.FILES);
+    preprocessor = new CxxPreprocessor(context, squidConfig);
+    preprocessor.init();
+    expressions = Corpus.expressions();
+  }
+
+  @Benchmark
+  public void eval(Blackhole blackhole) {
+    for (var expression : expressions) {
+      blackhole.consume(ExpressionEvaluator.eval(preprocessor, expression));
+    }
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) {
+    for (var number : NUMBERS) {
+      blackhole.consume(ExpressionEvaluator.decode(number));
+    }
+  }
+
+}
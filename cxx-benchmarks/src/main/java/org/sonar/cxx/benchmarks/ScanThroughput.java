@@ -0,0 +1,262 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.cxx.CxxAstScanner;
+import org.sonar.cxx.benchmarks.Corpus.Source;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+
+/**
+ * End-to-end scan throughput of {@link CxxAstScanner} with the default visitors and all checks, without a SonarQube
+ * server.
+ *
+ * The corpus consists of the C/C++ sources of the integration test projects and of a generated project with a deep
+ * include tree. The runner reports files/s, tokens/s, MB/s, peak heap and GC time of the median iteration as JSON. With
+ * a baseline (a JSON file written by an earlier run) the runner fails with exit code 1 if one of the throughput values
+ * drops by more than the threshold.
+ *
+ * <pre>
+ * java -cp cxx-benchmarks.jar org.sonar.cxx.benchmarks.ScanThroughput
+ *   [--output scan-throughput.json] [--baseline file.json] [--threshold 10]
+ *   [--warmup 1] [--iterations 3] [--units 50] [--depth 8]
+ * </pre>
+ */
+public final class ScanThroughput {
+
+  private static final String FILES_PER_SECOND = "filesPerSecond";
+  private static final String TOKENS_PER_SECOND = "tokensPerSecond";
+  private static final String MB_PER_SECOND = "mbPerSecond";
+  private static final List<String> THROUGHPUT = List.of(FILES_PER_SECOND, TOKENS_PER_SECOND, MB_PER_SECOND);
+
+  private Path output = Path.of("scan-throughput.json");
+  private Path baseline = null;
+  private double threshold = 10.0;
+  private int warmup = 1;
+  private int iterations = 3;
+  private int units = 50;
+  private int depth = 8;
+
+  private ScanThroughput() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    var runner = new ScanThroughput();
+    runner.parseArgs(args);
+    if (!runner.run()) {
+      System.exit(1);
+    }
+  }
+
+  private void parseArgs(String[] args) {
+    for (var i = 0; i < args.length; i++) {
+      var option = args[i];
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for option '" + option + "'");
+      }
+      var value = args[++i];
+      switch (option) {
+        case "--output":
+          output = Path.of(value);
+          break;
+        case "--baseline":
+          baseline = Path.of(value);
+          break;
+        case "--threshold":
+          threshold = Double.parseDouble(value);
+          break;
+        case "--warmup":
+          warmup = Integer.parseInt(value);
+          break;
+        case "--iterations":
+          iterations = Integer.parseInt(value);
+          break;
+        case "--units":
+          units = Integer.parseInt(value);
+          break;
+        case "--depth":
+          depth = Integer.parseInt(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option '" + option + "'");
+      }
+    }
+  }
+
+  private boolean run() throws IOException {
+    var project = Files.createTempDirectory("cxx-throughput");
+    try {
+      return run(project);
+    } finally {
+      delete(project);
+    }
+  }
+
+  private boolean run(Path project) throws IOException {
+    var sources = new ArrayList<Source>(Corpus.testdata());
+    sources.addAll(Corpus.generateProject(project, units, depth));
+    var inputFiles = sources.stream().map(Corpus::inputFile).collect(Collectors.toList());
+    long bytes = 0;
+    for (var source : sources) {
+      bytes += source.content().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    var squidConfig = new CxxSquidConfiguration(project.toString(), StandardCharsets.UTF_8);
+    squidConfig.add(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
+                    project.resolve("include").toString());
+
+    for (var i = 0; i < warmup; i++) {
+      scan(squidConfig, inputFiles);
+    }
+    var runs = new ArrayList<Run>(iterations);
+    for (var i = 0; i < iterations; i++) {
+      runs.add(scan(squidConfig, inputFiles));
+    }
+    runs.sort((a, b) -> Long.compare(a.nanos, b.nanos));
+    var median = runs.get(runs.size() / 2);
+
+    var mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    var result = mapper.createObjectNode();
+    result.put("files", inputFiles.size());
+    result.put("bytes", bytes);
+    result.put("tokens", median.tokens);
+    result.put("iterations", iterations);
+    result.put("durationMs", median.nanos / 1_000_000);
+    var seconds = median.nanos / 1e9;
+    result.put(FILES_PER_SECOND, inputFiles.size() / seconds);
+    result.put(TOKENS_PER_SECOND, median.tokens / seconds);
+    result.put(MB_PER_SECOND, bytes / (1024.0 * 1024.0) / seconds);
+    result.put("peakHeapBytes", median.peakHeap);
+    result.put("gcTimeMs", median.gcMillis);
+    result.put("gcCount", median.gcCount);
+    result.put("jdkVersion", System.getProperty("java.version"));
+    result.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+    mapper.writeValue(output.toFile(), result);
+    System.out.println(mapper.writeValueAsString(result));
+
+    return baseline == null || compare(result, (ObjectNode) mapper.readTree(baseline.toFile()));
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (var paths = Files.walk(dir)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private boolean compare(ObjectNode result, ObjectNode reference) {
+    var passed = true;
+    for (var key : THROUGHPUT) {
+      var expected = reference.path(key).asDouble(0);
+      var actual = result.path(key).asDouble(0);
+      if (expected <= 0) {
+        continue;
+      }
+      var change = (actual - expected) / expected * 100.0;
+      System.out.printf("%s: %.2f (baseline %.2f, %+.1f%%)%n", key, actual, expected, change);
+      if (change < -threshold) {
+        System.err.printf("Throughput regression: %s dropped by %.1f%% (threshold %.1f%%)%n", key, -change,
+                          threshold);
+        passed = false;
+      }
+    }
+    return passed;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Run scan(CxxSquidConfiguration squidConfig, List<InputFile> inputFiles) {
+    var counter = new TokenCounter();
+    var visitors = new ArrayList<SquidAstVisitor<Grammar>>(ScannerBenchmark.createChecks());
+    visitors.add(counter);
+
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(p -> p.getType() == MemoryType.HEAP)
+      .collect(Collectors.toList());
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    var gcMillis = gcMillis();
+    var gcCount = gcCount();
+
+    var start = System.nanoTime();
+    var scanner = CxxAstScanner.create(squidConfig, visitors.toArray(new SquidAstVisitor[0]));
+    scanner.scanInputFiles(inputFiles);
+    var run = new Run();
+    run.nanos = System.nanoTime() - start;
+
+    run.tokens = counter.tokens;
+    run.peakHeap = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+    run.gcMillis = gcMillis() - gcMillis;
+    run.gcCount = gcCount() - gcCount;
+    return run;
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+      .mapToLong(b -> Math.max(0, b.getCollectionTime())).sum();
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+      .mapToLong(b -> Math.max(0, b.getCollectionCount())).sum();
+  }
+
+  private static class Run {
+
+    private long nanos;
+    private long tokens;
+    private long peakHeap;
+    private long gcMillis;
+    private long gcCount;
+  }
+
+  /**
+   * Counts the tokens of all files (after preprocessing).
+   */
+  private static class TokenCounter extends SquidAstVisitor<Grammar> implements AstAndTokenVisitor {
+
+    private long tokens;
+
+    @Override
+    public void visitToken(Token token) {
+      tokens++;
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.benchmarks;
+
+import com.sonar.sslr.api.Grammar;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.cxx.CxxAstScanner;
+import org.sonar.cxx.checks.CheckList;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.annotations.RuleTemplate;
+import org.sonar.cxx.squidbridge.api.SourceCodeSearchEngine;
+
+/**
+ * Complete visitor pipeline of {@link CxxAstScanner#create}: parsing, metrics, highlighting, CPD and (optionally) all
+ * checks of {@link CheckList} with their default parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScannerBenchmark {
+
+  @Param({"false", "true"})
+  public boolean checks;
+
+  private List<InputFile> inputFiles;
+
+  @Setup
+  public void setup(SourcesState state) {
+    inputFiles = state.sources.stream().map(Corpus::inputFile).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public SourceCodeSearchEngine scan() {
+    var scanner = CxxAstScanner.create(new CxxSquidConfiguration(), visitors());
+    scanner.scanInputFiles(inputFiles);
+    return scanner.getIndex();
+  }
+
+  @SuppressWarnings("unchecked")
+  private SquidAstVisitor<Grammar>[] visitors() {
+    var result = new ArrayList<SquidAstVisitor<Grammar>>();
+    if (checks) {
+      result.addAll(createChecks());
+    }
+    return result.toArray(new SquidAstVisitor[0]);
+  }
+
+  /**
+   * Instances of all checks with default parameters. Rule templates are skipped, they have no useful default.
+   */
+  @SuppressWarnings("unchecked")
+  static List<SquidAstVisitor<Grammar>> createChecks() {
+    var result = new ArrayList<SquidAstVisitor<Grammar>>();
+    for (Class<?> check : CheckList.getChecks()) {
+      if (check.isAnnotationPresent(RuleTemplate.class)) {
+        continue;
+      }
+      try {
+        result.add((SquidAstVisitor<Grammar>) check.getDeclaredConstructor().newInstance());
+      } catch (InstantiationException | IllegalAccessException | InvocationTargetException
+                 | NoSuchMethodException e) {
+        throw new IllegalStateException("Cannot create check '" + check.getName() + "'", e);
+      }
+    }
+    return result;
+  }
+
+}
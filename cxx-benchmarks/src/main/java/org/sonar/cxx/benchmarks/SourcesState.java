@@ -0,0 +1,71 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.benchmarks;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonar.cxx.benchmarks.Corpus.Source;
+
+/**
+ * Benchmark input shared by the lexer, preprocessor, parser and scanner benchmarks.
+ *
+ * <ul>
+ * <li>testdata: all C/C++ sources of the integration test projects</li>
+ * <li>macros: synthetic macro heavy source, see {@link Corpus#macroHeavy(int)}</li>
+ * <li>unit: synthetic translation unit, see {@link Corpus#translationUnit(int)}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class SourcesState {
+
+  @Param({"testdata", "macros", "unit"})
+  public String corpus;
+
+  /**
+   * Size of the synthetic sources.
+   */
+  @Param({"200"})
+  public int size;
+
+  List<Source> sources;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    switch (corpus) {
+      case "testdata":
+        sources = Corpus.testdata();
+        break;
+      case "macros":
+        sources = List.of(new Source(Path.of("macros.cpp").toAbsolutePath(), Corpus.macroHeavy(size)));
+        break;
+      case "unit":
+        sources = List.of(new Source(Path.of("unit.cpp").toAbsolutePath(), Corpus.translationUnit(size)));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown corpus '" + corpus + "'");
+    }
+  }
+
+}
@@ -22,6 +22,7 @@ package org.sonar.cxx.checks.file;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -53,7 +54,8 @@ public class FileEncodingCheck extends SquidCheck<Grammar> implements CxxCharset
   @Override
   public void visitFile(AstNode astNode) {
     try {
-      Files.readAllLines(getContext().getInputFile().file().toPath(), charset);
+      // the shared content is decoded leniently (and honors a BOM): check the raw bytes, without creating lines
+      charset.newDecoder().decode(ByteBuffer.wrap(Files.readAllBytes(getContext().getInputFile().file().toPath())));
     } catch (IOException e) {
       getContext().createFileViolation(this,
                                        "Not all characters of the file can be encoded with the predefined charset "
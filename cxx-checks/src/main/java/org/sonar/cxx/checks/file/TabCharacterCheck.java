@@ -56,9 +56,9 @@ public class TabCharacterCheck extends SquidCheck<Grammar> {
   @Override
   public void visitFile(AstNode astNode) {
     var nr = 0;
-    for (var line : getContext().getInputFileLines()) {
+    for (var line : getContext().getInputFileLineIndex()) {
       ++nr;
-      if (line.contains("\t")) {
+      if (line.chars().anyMatch(c -> c == '\t')) {
         if (createLineViolation) {
           getContext().createLineViolation(
             this,
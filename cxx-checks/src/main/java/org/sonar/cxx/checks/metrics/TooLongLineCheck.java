@@ -66,7 +66,7 @@ public class TooLongLineCheck extends SquidCheck<Grammar> {
   @Override
   public void visitFile(AstNode astNode) {
     var nr = 0;
-    for (var line : getContext().getInputFileLines()) {
+    for (var line : getContext().getInputFileLineIndex()) {
       ++nr;
       long length = line.chars().filter(c -> c == '\t').count();
       length = line.length() + length * (tabWidth - 1);
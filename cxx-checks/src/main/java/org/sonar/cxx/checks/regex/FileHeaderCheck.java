@@ -87,7 +87,7 @@ public class FileHeaderCheck extends SquidCheck<Grammar> {
       String fileContent = getContext().getInputFileContent();
       checkRegularExpression(fileContent);
     } else {
-      if (!matches(expectedLines, getContext().getInputFileLines())) {
+      if (!matches(expectedLines, getContext().getInputFileLineIndex())) {
         getContext().createFileViolation(this, MESSAGE);
       }
     }
@@ -108,16 +108,16 @@ public class FileHeaderCheck extends SquidCheck<Grammar> {
     }
   }
 
-  private static boolean matches(String[] expectedLines, List<String> lines) {
+  private static boolean matches(String[] expectedLines, List<CharSequence> lines) {
     var result = false;
 
     if (expectedLines.length <= lines.size()) {
       result = true;
 
-      Iterator<String> it = lines.iterator();
+      Iterator<CharSequence> it = lines.iterator();
       for (var i = 0; i < expectedLines.length; i++) {
-        String line = it.next();
-        if (!line.equals(expectedLines[i])) {
+        CharSequence line = it.next();
+        if (!expectedLines[i].contentEquals(line)) {
           result = false;
           break;
         }
@@ -30,6 +30,7 @@ import org.sonar.check.RuleProperty;
 import org.sonar.cxx.checks.utils.CheckUtils;
 import org.sonar.cxx.squidbridge.annotations.NoSqale;
 import org.sonar.cxx.squidbridge.annotations.RuleTemplate;
+import org.sonar.cxx.squidbridge.checks.MultiPatternMatcher;
 import org.sonar.cxx.squidbridge.checks.SquidCheck;
 
 /**
@@ -95,6 +96,8 @@ public class FileRegularExpressionCheck extends SquidCheck<Grammar> {
     defaultValue = DEFAULT_MESSAGE)
   public String message = DEFAULT_MESSAGE;
   private Pattern pattern = null;
+  private MultiPatternMatcher matcher;
+  private int patternId;
 
   private static boolean compare(boolean invert, boolean condition) {
     return invert ? !condition : condition;
@@ -103,6 +106,8 @@ public class FileRegularExpressionCheck extends SquidCheck<Grammar> {
   @Override
   public void init() {
     pattern = CheckUtils.compileUserRegexp(regularExpression);
+    matcher = MultiPatternMatcher.of(getContext());
+    patternId = matcher.register(pattern);
   }
 
   @Override
@@ -112,9 +117,9 @@ public class FileRegularExpressionCheck extends SquidCheck<Grammar> {
     }
 
     String fileContent = getContext().getInputFileContent();
-    var matcher = pattern.matcher(fileContent);
+    var found = matcher.mayMatch(patternId, fileContent) && pattern.matcher(fileContent).find();
 
-    if (compare(invertRegularExpression, matcher.find())) {
+    if (compare(invertRegularExpression, found)) {
       getContext().createFileViolation(this, message);
     }
   }
@@ -30,6 +30,7 @@ import org.sonar.check.RuleProperty;
 import org.sonar.cxx.checks.utils.CheckUtils;
 import org.sonar.cxx.squidbridge.annotations.NoSqale;
 import org.sonar.cxx.squidbridge.annotations.RuleTemplate;
+import org.sonar.cxx.squidbridge.checks.MultiPatternMatcher;
 import org.sonar.cxx.squidbridge.checks.SquidCheck;
 
 /**
@@ -95,6 +96,8 @@ public class LineRegularExpressionCheck extends SquidCheck<Grammar> {
     defaultValue = DEFAULT_MESSAGE)
   public String message = DEFAULT_MESSAGE;
   private Pattern pattern = null;
+  private MultiPatternMatcher matcher;
+  private int patternId;
 
   private static boolean compare(boolean invert, boolean condition) {
     return invert ? !condition : condition;
@@ -103,17 +106,19 @@ public class LineRegularExpressionCheck extends SquidCheck<Grammar> {
   @Override
   public void init() {
     pattern = CheckUtils.compileUserRegexp(regularExpression);
+    matcher = MultiPatternMatcher.of(getContext());
+    patternId = matcher.register(pattern);
   }
 
   @Override
   public void visitFile(AstNode fileNode) {
     if (compare(invertFilePattern, matchFile())) {
-      var nr = 0;
-      for (var line : getContext().getInputFileLines()) {
-        var matcher = pattern.matcher(line);
-        ++nr;
-        if (compare(invertRegularExpression, matcher.find())) {
-          getContext().createLineViolation(this, message, nr);
+      var lines = getContext().getInputFileLineIndex();
+      var candidates = matcher.candidateLines(patternId, lines.getContent());
+      for (int i = 0; i < lines.size(); i++) {
+        var found = (candidates == null || candidates.get(i)) && pattern.matcher(lines.get(i)).find();
+        if (compare(invertRegularExpression, found)) {
+          getContext().createLineViolation(this, message, i + 1);
         }
       }
     }
@@ -25,6 +25,7 @@ import org.sonar.api.batch.postjob.PostJobDescriptor;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.squidbridge.AnalysisProfile;
 import org.sonar.cxx.visitors.CxxParseErrorLoggerVisitor;
 
 public class FinalReport implements PostJob {
@@ -42,6 +43,7 @@ public class FinalReport implements PostJob {
   public void execute(PostJobContext context) {
     CxxPreprocessor.finalReport();
     CxxParseErrorLoggerVisitor.finalReport();
+    AnalysisProfile.finalReport();
 
     if (!LOG.isDebugEnabled()) {
       LOG.info(DEBUG_INFO_MSG);
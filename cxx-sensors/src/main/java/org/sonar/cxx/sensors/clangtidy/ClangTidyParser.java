@@ -21,14 +21,20 @@ package org.sonar.cxx.sensors.clangtidy;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.TextScanner;
 import org.sonar.cxx.utils.CxxReportIssue;
 
+/**
+ * Parser for Clang-Tidy reports. Diagnostics already seen by this instance (in the same or in a previous report) are
+ * skipped without creating an issue.
+ */
 public class ClangTidyParser {
 
   private static final Logger LOG = Loggers.get(ClangTidyParser.class);
@@ -37,6 +43,8 @@ public class ClangTidyParser {
   private static final Pattern PATTERN = Pattern.compile(REGEX);
 
   private final CxxClangTidySensor sensor;
+  private final Set<String> fingerprints = new HashSet<>();
+  private int skippedDiagnostics = 0;
   private Issue issue = null;
 
   public ClangTidyParser(CxxClangTidySensor sensor) {
@@ -59,10 +67,16 @@ public class ClangTidyParser {
         } else {
           if (currentIssue != null) {
             sensor.saveUniqueViolation(currentIssue);
+            currentIssue = null;
           }
-          currentIssue = new CxxReportIssue(issue.ruleId, issue.path, issue.line, issue.column, issue.info);
-          for (var aliasRuleId : issue.aliasRuleIds) {
-            currentIssue.addAliasRuleId(aliasRuleId);
+          // the same diagnostic (e.g. in a header) is reported once per translation unit: build it only once
+          if (fingerprints.add(fingerprint())) {
+            currentIssue = new CxxReportIssue(issue.ruleId, issue.path, issue.line, issue.column, issue.info);
+            for (var aliasRuleId : issue.aliasRuleIds) {
+              currentIssue.addAliasRuleId(aliasRuleId);
+            }
+          } else {
+            skippedDiagnostics++;
           }
         }
       }
@@ -131,6 +145,22 @@ public class ClangTidyParser {
     }
   }
 
+  /**
+   * Key of a diagnostic: location, rule ids and message. The notes belonging to a diagnostic are not part of the key,
+   * the notes of a repeated diagnostic are dropped.
+   */
+  private String fingerprint() {
+    return issue.path + '\n' + issue.line + '\n' + issue.column + '\n' + issue.ruleId + '\n' + issue.aliasRuleIds
+             + '\n' + issue.info;
+  }
+
+  /**
+   * Number of diagnostics skipped so far because they were already seen.
+   */
+  public int getSkippedDiagnostics() {
+    return skippedDiagnostics;
+  }
+
   String getDefaultRuleId() {
     Map<String, String> map = Map.of(
       "note", "",
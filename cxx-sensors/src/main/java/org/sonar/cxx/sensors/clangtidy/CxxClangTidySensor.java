@@ -27,6 +27,8 @@ import java.util.List;
 import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.CxxIssuesReportSensor;
 import org.sonar.cxx.sensors.utils.InvalidReportException;
 
@@ -39,6 +41,11 @@ public class CxxClangTidySensor extends CxxIssuesReportSensor {
   public static final String REPORT_ENCODING_DEF = "sonar.cxx.clangtidy.encoding";
   public static final String DEFAULT_ENCODING_DEF = StandardCharsets.UTF_8.name();
 
+  private static final Logger LOG = Loggers.get(CxxClangTidySensor.class);
+
+  // one parser for all reports of an analysis: remembers the diagnostics already seen
+  private ClangTidyParser parser;
+
   public static List<PropertyDefinition> properties() {
     return Collections.unmodifiableList(Arrays.asList(
       PropertyDefinition.builder(REPORT_PATH_KEY)
@@ -73,9 +80,15 @@ public class CxxClangTidySensor extends CxxIssuesReportSensor {
       .onlyWhenConfiguration(conf -> conf.hasKey(getReportPathsKey()));
   }
 
+  @Override
+  public void executeImpl() {
+    parser = new ClangTidyParser(this);
+    super.executeImpl();
+    LOG.debug("Skipped repeated diagnostics={}", parser.getSkippedDiagnostics());
+  }
+
   @Override
   protected void processReport(File report) {
-    var parser = new ClangTidyParser(this);
     try {
       String defaultEncoding = context.config().get(REPORT_ENCODING_DEF).orElse(DEFAULT_ENCODING_DEF);
       parser.parse(report, defaultEncoding);
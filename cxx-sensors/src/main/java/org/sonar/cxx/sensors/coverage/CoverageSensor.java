@@ -30,6 +30,7 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.CxxUtils;
 import org.sonar.cxx.sensors.utils.EmptyReportException;
+import org.sonar.cxx.sensors.utils.ReportEvent;
 import org.sonar.cxx.sensors.utils.ReportException;
 
 /**
@@ -41,6 +42,7 @@ public abstract class CoverageSensor extends CxxReportSensor {
 
   private final CoverageParser parser;
   private final String reportPathsKey;
+  private int savedFiles = 0;
 
   protected CoverageSensor(String reportPathsKey, CoverageParser parser) {
     this.reportPathsKey = reportPathsKey;
@@ -64,7 +66,11 @@ public abstract class CoverageSensor extends CxxReportSensor {
   protected void executeReport(File report) {
     try {
       LOG.info("Processing report '{}'", report);
+      var event = new ReportEvent();
+      event.begin();
+      savedFiles = 0;
       processReport(report);
+      event.commit(this, report, 0, savedFiles);
     } catch (EmptyReportException e) {
       LOG.warn(e.getMessage());
     } catch (ReportException e) {
@@ -94,6 +100,7 @@ public abstract class CoverageSensor extends CxxReportSensor {
 
           try {
             newCoverage.save();
+            savedFiles++;
             LOG.debug("Saved '{}' coverage measures for file '{}'", measures.size(), filePath);
           } catch (RuntimeException e) {
             var msg = "Cannot save coverage measures for file '" + filePath + "'";
@@ -23,6 +23,10 @@ package org.sonar.cxx.sensors.tests.dotnet;
 // SonarQube .NET Tests Library
 // Copyright (C) 2014-2017 SonarSource SA
 // mailto:info AT sonarsource DOT com
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.sonar.api.scanner.ScannerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -54,16 +58,30 @@ public class CxxUnitTestResultsAggregator {
     this.nunitTestResultsFileParser = nunitTestResultsFileParser;
   }
 
+  /**
+   * The report files are parsed concurrently, each into its own UnitTestResults. The results are added to
+   * unitTestResults afterwards.
+   */
   private static void aggregate(WildcardPatternFileProvider wildcardPatternFileProvider, String[] reportPaths,
                                 UnitTestResultsParser parser, UnitTestResults unitTestResults) {
+    var reportFiles = new ArrayList<File>();
     for (var reportPathPattern : reportPaths) {
       LOG.info("Report path pattern: '{}'", reportPathPattern);
       if (!reportPathPattern.isEmpty()) {
-        for (var reportFile : wildcardPatternFileProvider.listFiles(reportPathPattern)) {
-          parser.accept(reportFile, unitTestResults);
-        }
+        reportFiles.addAll(wildcardPatternFileProvider.listFiles(reportPathPattern));
       }
     }
+
+    List<UnitTestResults> results = reportFiles.parallelStream()
+      .map(reportFile -> {
+        var fileResults = new UnitTestResults();
+        parser.accept(reportFile, fileResults);
+        return fileResults;
+      })
+      .collect(Collectors.toList());
+    for (var fileResults : results) {
+      unitTestResults.add(fileResults);
+    }
   }
 
   UnitTestResults aggregate(WildcardPatternFileProvider wildcardPatternFileProvider, UnitTestResults unitTestResults,
@@ -35,11 +35,12 @@ import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.scanner.sensor.ProjectSensor;
+import org.sonar.cxx.sensors.utils.GlobResolver;
 
 public class CxxUnitTestResultsImportSensor implements ProjectSensor {
 
-  private final WildcardPatternFileProvider wildcardPatternFileProvider
-                                              = new WildcardPatternFileProvider(new File("."), File.separator);
+  private WildcardPatternFileProvider wildcardPatternFileProvider
+                                        = new WildcardPatternFileProvider(new File("."), File.separator);
   private final CxxUnitTestResultsAggregator unitTestResultsAggregator;
   private SensorContext context;
 
@@ -90,6 +91,8 @@ public class CxxUnitTestResultsImportSensor implements ProjectSensor {
   @Override
   public void execute(SensorContext context) {
     this.context = context;
+    wildcardPatternFileProvider = new WildcardPatternFileProvider(new File("."), File.separator,
+                                                                  GlobResolver.of(context));
     analyze(new UnitTestResults(), new UnitTestConfiguration(context.config()));
   }
 
@@ -50,6 +50,10 @@ public class UnitTestResults {
     }
   }
 
+  public void add(UnitTestResults other) {
+    add(other.tests, other.passed, other.skipped, other.failures, other.errors, other.executionTime);
+  }
+
   public int tests() {
     return tests;
   }
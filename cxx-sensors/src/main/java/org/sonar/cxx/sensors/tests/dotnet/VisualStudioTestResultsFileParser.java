@@ -28,7 +28,9 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.regex.Pattern;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -45,10 +47,12 @@ public class VisualStudioTestResultsFileParser implements UnitTestResultsParser
 
   private static class Parser {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final Pattern MILLISECONDS_PATTERN = Pattern.compile("(\\.(\\d{0,3}))\\d*+");
+
     private final File file;
     private final UnitTestResults unitTestResults;
-    private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-    private final Pattern millisecondsPattern = Pattern.compile("(\\.(\\d{0,3}))\\d*+");
+    private DateFormat dateFormat;
 
     private boolean foundCounters;
 
@@ -105,16 +109,28 @@ public class VisualStudioTestResultsFileParser implements UnitTestResultsParser
     private void handleTimesTag(XmlParserHelper xmlParserHelper) {
       var start = getRequiredDateAttribute(xmlParserHelper, "start");
       var finish = getRequiredDateAttribute(xmlParserHelper, "finish");
-      long duration = finish.getTime() - start.getTime();
+      long duration = finish - start;
 
       unitTestResults.add(0, 0, 0, 0, 0, duration);
     }
 
-    private Date getRequiredDateAttribute(XmlParserHelper xmlParserHelper, String name) {
+    /**
+     * Returns the attribute value in milliseconds since the epoch. Fractions of milliseconds are truncated.
+     */
+    private long getRequiredDateAttribute(XmlParserHelper xmlParserHelper, String name) {
       String value = xmlParserHelper.getRequiredAttribute(name);
       try {
+        return OffsetDateTime.parse(value, DATE_TIME_FORMATTER).toInstant().toEpochMilli();
+      } catch (DateTimeParseException e) {
+        // fall back to the (slower) lenient parsing
+      }
+
+      try {
+        if (dateFormat == null) {
+          dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+        }
         value = keepOnlyMilliseconds(value);
-        return dateFormat.parse(value);
+        return dateFormat.parse(value).getTime();
       } catch (ParseException e) {
         throw xmlParserHelper.parseError("Expected an valid date and time instead of \"" + value
                                            + "\" for the attribute \"" + name + "\". " + e.getMessage());
@@ -124,7 +140,7 @@ public class VisualStudioTestResultsFileParser implements UnitTestResultsParser
     private String keepOnlyMilliseconds(String value) {
       var sb = new StringBuffer(256);
 
-      var matcher = millisecondsPattern.matcher(value);
+      var matcher = MILLISECONDS_PATTERN.matcher(value);
       var trailingZeros = new StringBuilder(128);
       while (matcher.find()) {
         String milliseconds = matcher.group(2);
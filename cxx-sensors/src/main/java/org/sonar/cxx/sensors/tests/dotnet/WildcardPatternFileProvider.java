@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.sonar.api.utils.WildcardPattern;
+import org.sonar.cxx.sensors.utils.GlobResolver;
 
 public class WildcardPatternFileProvider {
 
@@ -44,10 +45,19 @@ public class WildcardPatternFileProvider {
   private static final String ANY_PATTERN = "?";
   private final File baseDir;
   private final String directorySeparator;
+  private final GlobResolver resolver;
 
   public WildcardPatternFileProvider(File baseDir, String directorySeparator) {
+    this(baseDir, directorySeparator, new GlobResolver());
+  }
+
+  /**
+   * @param resolver directory listings are taken from this (shared) resolver
+   */
+  public WildcardPatternFileProvider(File baseDir, String directorySeparator, GlobResolver resolver) {
     this.baseDir = baseDir;
     this.directorySeparator = directorySeparator;
+    this.resolver = resolver;
   }
 
   private static List<String> elementsTillFirstWildcard(List<String> elements) {
@@ -81,25 +91,6 @@ public class WildcardPatternFileProvider {
              || PARENT_FOLDER.equals(element);
   }
 
-  private static Set<File> listFiles(File dir) {
-    var result = new HashSet<File>();
-    listFiles(result, dir);
-    return result;
-  }
-
-  private static void listFiles(Set<File> result, File dir) {
-    File[] files = dir.listFiles();
-    if (files != null) {
-      result.addAll(Arrays.asList(files));
-
-      for (var file : files) {
-        if (file.isDirectory()) {
-          listFiles(result, file);
-        }
-      }
-    }
-  }
-
   private static String relativize(File parent, File file) {
     return file.getAbsolutePath().substring(parent.getAbsolutePath().length() + 1);
   }
@@ -129,7 +120,7 @@ public class WildcardPatternFileProvider {
     var wildcardPattern = WildcardPattern.create(toPath(wildcardElements), directorySeparator);
 
     var result = new HashSet<File>();
-    for (var file : listFiles(absoluteFileTillFirstWildcardElement)) {
+    for (var file : resolver.listTree(absoluteFileTillFirstWildcardElement)) {
       String relativePath = relativize(absoluteFileTillFirstWildcardElement, file);
 
       if (wildcardPattern.match(relativePath)) {
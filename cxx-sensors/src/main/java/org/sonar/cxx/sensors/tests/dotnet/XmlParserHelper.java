@@ -35,6 +35,8 @@ import javax.xml.stream.XMLStreamReader;
 
 public class XmlParserHelper implements AutoCloseable {
 
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
   private final File file;
   private final InputStreamReader reader;
   private final XMLStreamReader stream;
@@ -43,15 +45,22 @@ public class XmlParserHelper implements AutoCloseable {
     try {
       this.file = file;
       this.reader = new InputStreamReader(java.nio.file.Files.newInputStream(file.toPath()), StandardCharsets.UTF_8);
-      var xmlFactory = XMLInputFactory.newInstance();
-      xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
-      this.stream = xmlFactory.createXMLStreamReader(reader);
+      this.stream = XML_INPUT_FACTORY.createXMLStreamReader(reader);
 
     } catch (XMLStreamException | IOException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * The factory is configured once, creating readers is thread-safe afterwards.
+   */
+  private static XMLInputFactory createXmlInputFactory() {
+    var xmlFactory = XMLInputFactory.newInstance();
+    xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    return xmlFactory;
+  }
+
   @Override
   public void close() throws IOException {
     reader.close();
@@ -20,12 +20,12 @@
 package org.sonar.cxx.sensors.tests.xunit;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.xml.stream.XMLStreamException;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFile.Type;
@@ -95,21 +95,41 @@ public class CxxXunitSensor extends CxxReportSensor {
   }
 
   /**
+   * Parse the reports concurrently. Each report is parsed in streaming mode by its own parser instance, the results
+   * are merged in the order of the reports afterwards.
+   *
    * @param reports
    * @return
    * @throws XMLStreamException
-   * @throws IOException
    */
   private XunitReportParser parseReport(List<File> reports) throws XMLStreamException {
-    var parserHandler = new XunitReportParser(context.fileSystem().baseDir().getPath());
+    String baseDir = context.fileSystem().baseDir().getPath();
+    List<XunitReportParser> results;
+    try {
+      results = reports.parallelStream()
+        .map(report -> parseReport(baseDir, report))
+        .collect(Collectors.toList());
+    } catch (ReportParseException e) {
+      throw e.getCause();
+    }
+
+    var parserHandler = new XunitReportParser(baseDir, false);
+    for (var result : results) {
+      parserHandler.merge(result);
+    }
+    return parserHandler;
+  }
+
+  private static XunitReportParser parseReport(String baseDir, File report) {
+    var parserHandler = new XunitReportParser(baseDir, false);
     var parser = new StaxParser(parserHandler, false);
-    for (var report : reports) {
-      LOG.info("Processing xUnit report '{}'", report);
-      try {
-        parser.parse(report);
-      } catch (EmptyReportException e) {
-        LOG.warn("The xUnit report '{}' seems to be empty, ignoring.", report);
-      }
+    LOG.info("Processing xUnit report '{}'", report);
+    try {
+      parser.parse(report);
+    } catch (EmptyReportException e) {
+      LOG.warn("The xUnit report '{}' seems to be empty, ignoring.", report);
+    } catch (XMLStreamException e) {
+      throw new ReportParseException(e);
     }
     return parserHandler;
   }
@@ -171,4 +191,21 @@ public class CxxXunitSensor extends CxxReportSensor {
       .save();
   }
 
+  /**
+   * Transports a parse error out of the parallel stream.
+   */
+  private static class ReportParseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    ReportParseException(XMLStreamException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized XMLStreamException getCause() {
+      return (XMLStreamException) super.getCause();
+    }
+  }
+
 }
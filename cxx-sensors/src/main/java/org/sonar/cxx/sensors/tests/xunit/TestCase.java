@@ -25,10 +25,10 @@ package org.sonar.cxx.sensors.tests.xunit;
  */
 public class TestCase {
 
-  private static final String STATUS_OK = "ok";
-  private static final String STATUS_ERROR = "error";
-  private static final String STATUS_FAILURE = "failure";
-  private static final String STATUS_SKIPPED = "skipped";
+  static final String STATUS_OK = "ok";
+  static final String STATUS_ERROR = "error";
+  static final String STATUS_FAILURE = "failure";
+  static final String STATUS_SKIPPED = "skipped";
 
   private final String name;
   private String status = STATUS_OK;
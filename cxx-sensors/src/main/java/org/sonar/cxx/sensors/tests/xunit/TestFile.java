@@ -24,12 +24,13 @@ import java.util.List;
 
 /**
  * Represents a test file in SQ, a source code file which implements tests. Holds all test cases along with all measures
- * collected from the reports.
+ * collected from the reports. If the test cases are not needed, only the measures are collected.
  */
 public class TestFile {
 
   private final String filename;
   private final List<TestCase> testCases;
+  private final boolean keepTestCases;
 
   private int tests;
   private int failures;
@@ -43,9 +44,19 @@ public class TestFile {
    * @param filename test file with test cases
    */
   public TestFile(String filename) {
+    this(filename, true);
+  }
+
+  /**
+   * Creates a test file instance which corresponds and represents the passed InputFile instance
+   *
+   * @param filename test file with test cases
+   * @param keepTestCases false: only measures are collected, the test cases itself are dropped
+   */
+  public TestFile(String filename, boolean keepTestCases) {
     this.filename = filename;
     this.testCases = new ArrayList<>();
-
+    this.keepTestCases = keepTestCases;
   }
 
   public String getFilename() {
@@ -78,7 +89,9 @@ public class TestFile {
    * @param tc the test case to add
    */
   public void add(TestCase tc) {
-    testCases.add(tc);
+    if (keepTestCases) {
+      testCases.add(tc);
+    }
     time += tc.getExecutionTime();
     tests++;
 
@@ -91,6 +104,47 @@ public class TestFile {
     }
   }
 
+  /**
+   * Maintains the internal statistics for a test case without creating a test case object
+   *
+   * @param status the execution status of the test case
+   * @param executionTime the execution time of the test case in milliseconds
+   */
+  public void add(String status, int executionTime) {
+    time += executionTime;
+    tests++;
+
+    switch (status) {
+      case TestCase.STATUS_FAILURE:
+        failures++;
+        break;
+      case TestCase.STATUS_ERROR:
+        errors++;
+        break;
+      case TestCase.STATUS_SKIPPED:
+        skipped++;
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Adds the test cases and statistics of another instance (of the same file) to this instance
+   *
+   * @param other test file to add
+   */
+  public void merge(TestFile other) {
+    if (keepTestCases) {
+      testCases.addAll(other.testCases);
+    }
+    tests += other.tests;
+    failures += other.failures;
+    errors += other.errors;
+    skipped += other.skipped;
+    time += other.time;
+  }
+
   public List<TestCase> getTestCases() {
     return new ArrayList<>(testCases);
   }
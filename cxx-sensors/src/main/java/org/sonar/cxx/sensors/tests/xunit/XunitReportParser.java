@@ -35,21 +35,47 @@ import org.sonar.cxx.sensors.utils.StaxParser.XmlStreamHandler;
 
 /**
  * {@inheritDoc}
+ *
+ * With keepTestCases=false the parser works in streaming mode: only the measures per test file are accumulated while
+ * the testcase elements are read, names, messages and stack traces are not collected. Each instance must be used by
+ * one thread only, to parse several reports concurrently use one instance per report and {@link #merge} the results.
  */
 public class XunitReportParser implements XmlStreamHandler {
 
   private final String baseDir;
+  private final boolean keepTestCases;
   private final Map<String, TestFile> testFiles = new HashMap<>();
 
   public XunitReportParser(String baseDir) {
+    this(baseDir, true);
+  }
+
+  /**
+   * @param baseDir base directory to resolve relative file names
+   * @param keepTestCases false: collect only the measures and drop the test case details
+   */
+  public XunitReportParser(String baseDir, boolean keepTestCases) {
     this.baseDir = baseDir;
-    testFiles.put(null, new TestFile("")); // TestFile 'global' (without filename)
+    this.keepTestCases = keepTestCases;
+    testFiles.put(null, new TestFile("", keepTestCases)); // TestFile 'global' (without filename)
   }
 
   public Collection<TestFile> getTestFiles() {
     return testFiles.values();
   }
 
+  /**
+   * Adds the results of another parser instance to this one.
+   *
+   * @param other parser with results to add
+   */
+  public void merge(XunitReportParser other) {
+    for (var entry : other.testFiles.entrySet()) {
+      testFiles.computeIfAbsent(entry.getKey(), k -> new TestFile(entry.getValue().getFilename(), keepTestCases))
+        .merge(entry.getValue());
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -83,18 +109,22 @@ public class XunitReportParser implements XmlStreamHandler {
 
   private void parseTestCaseTag(SMInputCursor testCaseCursor, String tsName, String tsFilename) throws
     XMLStreamException {
-    String classname = testCaseCursor.getAttrValue("classname");
+    String classname = null;
+    String name = null;
+    if (keepTestCases) {
+      classname = testCaseCursor.getAttrValue("classname");
+      name = parseTestCaseName(testCaseCursor);
+    }
     String tcFilename = testCaseCursor.getAttrValue("filename");
-    String name = parseTestCaseName(testCaseCursor);
     Double time = parseTime(testCaseCursor);
-    var status = "ok";
+    var status = TestCase.STATUS_OK;
     var stack = "";
     var msg = "";
 
     // Googletest-reports mark the skipped tests with status="notrun"
     String statusattr = testCaseCursor.getAttrValue("status");
     if ("notrun".equals(statusattr)) {
-      status = "skipped";
+      status = TestCase.STATUS_SKIPPED;
     } else {
       SMInputCursor childCursor = testCaseCursor.childElementCursor();
       if (childCursor.getNext() != null) {
@@ -102,17 +132,21 @@ public class XunitReportParser implements XmlStreamHandler {
         if (null != elementName) {
           switch (elementName) {
             case "skipped":
-              status = "skipped";
+              status = TestCase.STATUS_SKIPPED;
               break;
             case "failure":
-              status = "failure";
-              msg = childCursor.getAttrValue("message");
-              stack = childCursor.collectDescendantText();
+              status = TestCase.STATUS_FAILURE;
+              if (keepTestCases) {
+                msg = childCursor.getAttrValue("message");
+                stack = childCursor.collectDescendantText();
+              }
               break;
             case "error":
-              status = "error";
-              msg = childCursor.getAttrValue("message");
-              stack = childCursor.collectDescendantText();
+              status = TestCase.STATUS_ERROR;
+              if (keepTestCases) {
+                msg = childCursor.getAttrValue("message");
+                stack = childCursor.collectDescendantText();
+              }
               break;
             default:
               break;
@@ -123,7 +157,11 @@ public class XunitReportParser implements XmlStreamHandler {
 
     String filename = tcFilename != null ? tcFilename : tsFilename;
     var file = getTestFile(filename);
-    file.add(new TestCase(name, time.intValue(), status, stack, msg, classname, filename, tsName));
+    if (keepTestCases) {
+      file.add(new TestCase(name, time.intValue(), status, stack, msg, classname, filename, tsName));
+    } else {
+      file.add(status, time.intValue());
+    }
   }
 
   private TestFile getTestFile(String filename) {
@@ -133,7 +171,7 @@ public class XunitReportParser implements XmlStreamHandler {
     }
     var file = testFiles.get(absolute);
     if (file == null) {
-      file = new TestFile(absolute);
+      file = new TestFile(absolute, keepTestCases);
       testFiles.put(absolute, file);
     }
     return file;
@@ -104,8 +104,11 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
   protected void executeReport(File report) {
     try {
       LOG.info("Processing report '{}'", report);
+      var event = new ReportEvent();
+      event.begin();
       savedNewIssues = 0;
       processReport(report);
+      event.commit(this, report, savedNewIssues, 0);
       LOG.info("Processing successful, saved new issues={}", savedNewIssues);
     } catch (ReportException e) {
       var msg = e.getMessage() + ", report='" + report + "'";
@@ -21,16 +21,13 @@ package org.sonar.cxx.sensors.utils;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.exception.ExceptionUtils;
-import org.apache.tools.ant.DirectoryScanner;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.PathUtils;
@@ -106,7 +103,8 @@ public final class CxxUtils {
   /**
    * Use the given context object in order to get a list of Ant patterns referenced by key reportPathsKey. Apply
    * context.fileSystem().baseDir() in order to make relative Ant patterns to absolute ones. Resolve Ant patterns and
-   * returns the list of existing files.
+   * returns the list of existing files. The patterns are resolved with the {@link GlobResolver} shared by all sensors
+   * of the analysis.
    *
    * @param context sensor context
    * @param reportPathsKey configuration key for files (CSV list of Ant patterns)
@@ -133,20 +131,16 @@ public final class CxxUtils {
     }
     LOG.debug("Search files(s) in path(s): '{}'", String.join(", ", normalizedReportPaths));
 
-    // Includes array cannot contain null elements
-    var directoryScanner = new DirectoryScanner();
-    directoryScanner.setIncludes(normalizedReportPaths.toArray(new String[normalizedReportPaths.size()]));
-    directoryScanner.scan();
-    String[] existingReportPaths = directoryScanner.getIncludedFiles();
+    List<File> existingReports = GlobResolver.of(context).resolve(normalizedReportPaths);
 
-    if (existingReportPaths.length == 0) {
+    if (existingReports.isEmpty()) {
       LOG.warn("Property '{}': cannot find any files matching the Ant pattern(s) '{}'", reportPathsKey,
                String.join(", ", normalizedReportPaths));
       return Collections.emptyList();
     }
 
-    LOG.debug("Found '{}' file(s)", existingReportPaths.length);
-    return Arrays.stream(existingReportPaths).map(File::new).collect(Collectors.toList());
+    LOG.debug("Found '{}' file(s)", existingReports.size());
+    return existingReports;
   }
 
 }
@@ -0,0 +1,252 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Resolves absolute Ant patterns (as used by the sonar.cxx.*.reportPaths keys) to existing files.
+ *
+ * All sensors of an analysis share one instance (see {@link #of(SensorContext)}). The directory tree below the
+ * non-wildcard prefix (the root) of a pattern is traversed only once, the listing is cached and all further patterns
+ * with the same root (or a root below an already traversed one) are answered from the cache. Patterns without
+ * <code>**</code> limit the traversal to the depth they can match. Results are cached for the rest of the analysis.
+ *
+ * The matching follows the rules of Ant's DirectoryScanner: <code>**</code> matches zero or more directories,
+ * <code>*</code> zero or more characters and <code>?</code> one character of a path element, a pattern ending with
+ * a separator matches everything below it.
+ */
+public class GlobResolver {
+
+  private static final Logger LOG = Loggers.get(GlobResolver.class);
+  private static final Map<SensorContext, GlobResolver> RESOLVERS = new WeakHashMap<>();
+  private static final String SEPARATOR = "/";
+
+  private final Map<Path, Tree> trees = new HashMap<>();
+  private final Map<String, List<File>> patterns = new HashMap<>();
+
+  /**
+   * Resolver shared by all sensors working on the same context.
+   *
+   * @param context sensor context of the analysis
+   * @return shared resolver
+   */
+  public static GlobResolver of(SensorContext context) {
+    synchronized (RESOLVERS) {
+      return RESOLVERS.computeIfAbsent(context, c -> new GlobResolver());
+    }
+  }
+
+  /**
+   * Resolve absolute Ant patterns to existing files.
+   *
+   * @param antPatterns absolute Ant patterns with '/' as separator (see {@link CxxUtils#resolveAntPath})
+   * @return sorted list of matching files without duplicates
+   */
+  public synchronized List<File> resolve(Collection<String> antPatterns) {
+    var result = new TreeSet<File>();
+    for (var antPattern : antPatterns) {
+      result.addAll(patterns.computeIfAbsent(antPattern, this::match));
+    }
+    return new ArrayList<>(result);
+  }
+
+  /**
+   * List all files and directories below a directory.
+   *
+   * @param dir directory to list
+   * @return files and directories below dir (dir itself is not included), paths start with the absolute path of dir
+   */
+  public synchronized List<File> listTree(File dir) {
+    if (!dir.isDirectory()) {
+      return Collections.emptyList();
+    }
+    var root = dir.getAbsoluteFile().toPath();
+    var tree = tree(root.normalize(), Integer.MAX_VALUE);
+    var result = new ArrayList<File>(tree.files.size() + tree.directories.size());
+    for (var file : tree.files) {
+      result.add(root.resolve(file).toFile());
+    }
+    for (var directory : tree.directories) {
+      result.add(root.resolve(directory).toFile());
+    }
+    return result;
+  }
+
+  private List<File> match(String antPattern) {
+    var pattern = antPattern.replace('\\', '/');
+    if (pattern.endsWith(SEPARATOR)) {
+      pattern += "**";
+    }
+
+    String[] elements = pattern.split(SEPARATOR, -1);
+    var prefixLength = 0;
+    while (prefixLength < elements.length && !hasWildcard(elements[prefixLength])) {
+      prefixLength++;
+    }
+
+    if (prefixLength == elements.length) {
+      var file = new File(pattern);
+      return file.isFile() ? List.of(file) : Collections.emptyList();
+    }
+
+    var rootPath = String.join(SEPARATOR, Arrays.asList(elements).subList(0, prefixLength));
+    var root = Path.of(rootPath.isEmpty() ? SEPARATOR : rootPath + SEPARATOR).toAbsolutePath().normalize();
+    if (!Files.isDirectory(root)) {
+      return Collections.emptyList();
+    }
+
+    var relativeElements = Arrays.asList(elements).subList(prefixLength, elements.length);
+    var depth = relativeElements.contains("**") ? Integer.MAX_VALUE : relativeElements.size();
+    var relativePattern = String.join(File.separator, relativeElements);
+
+    var result = new ArrayList<File>();
+    for (var file : tree(root, depth).files) {
+      if (depth == Integer.MAX_VALUE || file.getNameCount() <= depth) {
+        if (SelectorUtils.matchPath(relativePattern, file.toString(), true)) {
+          result.add(root.resolve(file).toFile());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean hasWildcard(String element) {
+    return element.indexOf('*') != -1 || element.indexOf('?') != -1;
+  }
+
+  /**
+   * Get the listing of root up to (at least) depth. Reuses the listing of an already traversed ancestor if it is deep
+   * enough.
+   */
+  private Tree tree(Path root, int depth) {
+    var cached = trees.get(root);
+    if (cached != null && cached.depth >= depth) {
+      return cached;
+    }
+
+    for (var entry : trees.entrySet()) {
+      var ancestor = entry.getKey();
+      if (root.startsWith(ancestor) && !root.equals(ancestor)) {
+        var offset = ancestor.relativize(root);
+        var available = entry.getValue().depth;
+        if (available == Integer.MAX_VALUE) {
+          return entry.getValue().subTree(offset, Integer.MAX_VALUE);
+        } else if (depth != Integer.MAX_VALUE && offset.getNameCount() + depth <= available) {
+          return entry.getValue().subTree(offset, available - offset.getNameCount());
+        }
+      }
+    }
+
+    var tree = walk(root, depth);
+    if (depth == Integer.MAX_VALUE) {
+      // listings below root are now redundant
+      trees.keySet().removeIf(path -> path.startsWith(root));
+    }
+    trees.put(root, tree);
+    return tree;
+  }
+
+  private static Tree walk(Path root, int depth) {
+    LOG.debug("Scanning directory tree '{}'", root);
+    var tree = new Tree(depth);
+    try {
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), depth, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          if (!dir.equals(root)) {
+            tree.directories.add(root.relativize(dir));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (attrs.isDirectory()) {
+            tree.directories.add(root.relativize(file));
+          } else {
+            tree.files.add(root.relativize(file));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          LOG.debug("Cannot access '{}': {}", file, e.getMessage());
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      LOG.warn("Cannot scan directory tree '{}': {}", root, e.getMessage());
+    }
+    return tree;
+  }
+
+  /**
+   * Cached listing of a directory tree, paths are relative to the root of the tree.
+   */
+  private static class Tree {
+
+    private final int depth;
+    private final List<Path> files = new ArrayList<>();
+    private final List<Path> directories = new ArrayList<>();
+
+    Tree(int depth) {
+      this.depth = depth;
+    }
+
+    Tree subTree(Path offset, int depth) {
+      var tree = new Tree(depth);
+      copy(files, tree.files, offset);
+      copy(directories, tree.directories, offset);
+      return tree;
+    }
+
+    private static void copy(List<Path> from, List<Path> to, Path offset) {
+      for (var path : from) {
+        if (path.startsWith(offset) && !path.equals(offset)) {
+          to.add(offset.relativize(path));
+        }
+      }
+    }
+  }
+
+}
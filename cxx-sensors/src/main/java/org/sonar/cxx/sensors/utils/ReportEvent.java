@@ -0,0 +1,84 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted by the report sensors for each imported report.
+ *
+ * Create the event with {@link #begin()} before reading the report and call {@link #commit(CxxReportSensor, File, int, int)}
+ * after the report is processed. The fields are only filled if the event is recorded.
+ */
+@Name(ReportEvent.NAME)
+@Label("Report Processed")
+@Description("Import of an external report")
+@Category({"SonarCXX", "Sensor"})
+@StackTrace(false)
+public class ReportEvent extends jdk.jfr.Event {
+
+  public static final String NAME = "org.sonar.cxx.ReportProcessed";
+
+  @Label("Sensor")
+  String sensor;
+
+  @Label("Report")
+  String report;
+
+  @Label("Size")
+  @Description("Size of the report in bytes")
+  @DataAmount
+  long size;
+
+  @Label("Issues")
+  @Description("Number of new issues saved from the report")
+  int issues;
+
+  @Label("Files")
+  @Description("Number of files with measures saved from the report")
+  int files;
+
+  /**
+   * Record the event if JFR is enabled for it.
+   *
+   * @param sensor sensor which imported the report
+   * @param report imported report
+   * @param issues number of saved issues
+   * @param files number of files with saved measures
+   */
+  public void commit(CxxReportSensor sensor, File report, int issues, int files) {
+    end();
+    if (shouldCommit()) {
+      this.sensor = sensor.getClass().getName();
+      this.report = report.getPath();
+      this.size = report.length();
+      this.issues = issues;
+      this.files = files;
+      commit();
+    }
+  }
+
+}
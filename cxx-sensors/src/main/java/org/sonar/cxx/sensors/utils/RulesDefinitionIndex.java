@@ -0,0 +1,294 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleStatus;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RuleParamType;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.api.server.rule.RulesDefinitionXmlLoader;
+
+/**
+ * Precompiled, binary form of a rules definition XML file.
+ *
+ * The bundled rule XML files are large (several MB in total) and parsing them with {@link RulesDefinitionXmlLoader} on
+ * every server start is expensive. During the build {@link #main(String[])} compiles each rules XML file into an index
+ * file with the same base name and the extension {@link #INDEX_EXTENSION}.
+ *
+ * The index consists of a header with the scalar attributes of all rules (key, name, severity, type, tags, remediation
+ * function, parameters) followed by a single UTF-8 blob with all rule descriptions. The header references each
+ * description by offset and length. {@link RulesDefinition.NewRule} only accepts the description as a complete string,
+ * so loading an index reads the blob at once and decodes each description while its rule is created.
+ *
+ * The XML file is compiled with {@link RulesDefinitionXmlLoader} itself. Therefore the result of loading an index is
+ * the same as loading the original XML file.
+ */
+public final class RulesDefinitionIndex {
+
+  public static final String INDEX_EXTENSION = ".idx";
+
+  private static final int MAGIC = 0x43585249; // "CXRI"
+  private static final int VERSION = 1;
+  private static final String COMPILE_REPOSITORY = "index";
+
+  private RulesDefinitionIndex() {
+    // only static methods
+  }
+
+  /**
+   * Build time entry point: compiles rules definition XML files into index files.
+   *
+   * @param args first argument is the directory containing the XML files, followed by the XML file names
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("Usage: RulesDefinitionIndex <directory> <rules.xml>...");
+    }
+    var dir = Path.of(args[0]);
+    for (var i = 1; i < args.length; i++) {
+      var xml = dir.resolve(args[i]);
+      var index = dir.resolve(indexResource(args[i]));
+      try ( var in = Files.newInputStream(xml);  var out = Files.newOutputStream(index)) {
+        compile(in, out);
+      }
+    }
+  }
+
+  /**
+   * Name of the index resource belonging to a rules definition XML resource.
+   *
+   * @param xmlResource name of the XML resource, e.g. /clangtidy.xml
+   * @return name of the index resource, e.g. /clangtidy.idx
+   */
+  public static String indexResource(String xmlResource) {
+    var pos = xmlResource.lastIndexOf('.');
+    if (pos > xmlResource.lastIndexOf('/')) {
+      return xmlResource.substring(0, pos) + INDEX_EXTENSION;
+    }
+    return xmlResource + INDEX_EXTENSION;
+  }
+
+  /**
+   * Compile a rules definition XML into the index format.
+   *
+   * @param xml rules definition XML (UTF-8)
+   * @param index stream to write the index to
+   * @throws IOException if the index cannot be written
+   */
+  public static void compile(InputStream xml, OutputStream index) throws IOException {
+    var context = new RulesDefinition.Context();
+    var repository = context.createRepository(COMPILE_REPOSITORY, "cxx");
+    new RulesDefinitionXmlLoader().load(repository, xml, StandardCharsets.UTF_8);
+    repository.done();
+
+    var descriptions = new ByteArrayOutputStream();
+    var out = new DataOutputStream(index);
+    List<RulesDefinition.Rule> rules = context.repository(COMPILE_REPOSITORY).rules();
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(rules.size());
+    for (var rule : rules) {
+      out.writeUTF(rule.key());
+      out.writeUTF(rule.name());
+      out.writeUTF(rule.severity());
+      out.writeUTF(rule.type().name());
+      out.writeUTF(rule.status().name());
+      out.writeBoolean(rule.template());
+      writeNullable(out, rule.internalKey());
+      writeNullable(out, rule.gapDescription());
+
+      out.writeShort(rule.tags().size());
+      for (var tag : rule.tags()) {
+        out.writeUTF(tag);
+      }
+
+      DebtRemediationFunction function = rule.debtRemediationFunction();
+      out.writeBoolean(function != null);
+      if (function != null) {
+        out.writeUTF(function.type().name());
+        writeNullable(out, function.gapMultiplier());
+        writeNullable(out, function.baseEffort());
+      }
+
+      out.writeShort(rule.params().size());
+      for (var param : rule.params()) {
+        out.writeUTF(param.key());
+        writeNullable(out, param.description());
+        writeNullable(out, param.defaultValue());
+        out.writeUTF(param.type().toString());
+      }
+
+      var markdown = rule.markdownDescription() != null;
+      var description = markdown ? rule.markdownDescription() : rule.htmlDescription();
+      out.writeBoolean(markdown);
+      if (description == null) {
+        out.writeInt(-1);
+        out.writeInt(0);
+      } else {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(descriptions.size());
+        out.writeInt(bytes.length);
+        descriptions.write(bytes);
+      }
+    }
+    out.writeInt(descriptions.size());
+    descriptions.writeTo(out);
+    out.flush();
+  }
+
+  /**
+   * Create the rules stored in an index in the given repository.
+   *
+   * @param repository repository to add the rules to
+   * @param index stream to read the index from
+   * @throws IOException if the index cannot be read or has an unsupported format
+   */
+  public static void load(RulesDefinition.NewRepository repository, InputStream index) throws IOException {
+    var in = new DataInputStream(index);
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("Unsupported rules definition index format");
+    }
+    var count = in.readInt();
+    var entries = new ArrayList<Entry>(count);
+    for (var i = 0; i < count; i++) {
+      entries.add(readEntry(in));
+    }
+    var descriptions = new byte[in.readInt()];
+    in.readFully(descriptions);
+
+    for (var entry : entries) {
+      entry.define(repository, descriptions);
+    }
+  }
+
+  private static Entry readEntry(DataInputStream in) throws IOException {
+    var entry = new Entry();
+    entry.key = in.readUTF();
+    entry.name = in.readUTF();
+    entry.severity = in.readUTF();
+    entry.type = in.readUTF();
+    entry.status = in.readUTF();
+    entry.template = in.readBoolean();
+    entry.internalKey = readNullable(in);
+    entry.gapDescription = readNullable(in);
+
+    entry.tags = new String[in.readShort()];
+    for (var i = 0; i < entry.tags.length; i++) {
+      entry.tags[i] = in.readUTF();
+    }
+
+    if (in.readBoolean()) {
+      entry.function = in.readUTF();
+      entry.gapMultiplier = readNullable(in);
+      entry.baseEffort = readNullable(in);
+    }
+
+    entry.params = new String[in.readShort()][];
+    for (var i = 0; i < entry.params.length; i++) {
+      entry.params[i] = new String[]{in.readUTF(), readNullable(in), readNullable(in), in.readUTF()};
+    }
+
+    entry.markdown = in.readBoolean();
+    entry.descriptionOffset = in.readInt();
+    entry.descriptionLength = in.readInt();
+    return entry;
+  }
+
+  private static void writeNullable(DataOutputStream out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  @CheckForNull
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static class Entry {
+
+    private String key;
+    private String name;
+    private String severity;
+    private String type;
+    private String status;
+    private boolean template;
+    private String internalKey;
+    private String gapDescription;
+    private String[] tags;
+    private String function;
+    private String gapMultiplier;
+    private String baseEffort;
+    private String[][] params;
+    private boolean markdown;
+    private int descriptionOffset;
+    private int descriptionLength;
+
+    private void define(RulesDefinition.NewRepository repository, byte[] descriptions) {
+      var rule = repository.createRule(key)
+        .setName(name)
+        .setSeverity(severity)
+        .setType(RuleType.valueOf(type))
+        .setStatus(RuleStatus.valueOf(status))
+        .setTemplate(template)
+        .setInternalKey(internalKey)
+        .setGapDescription(gapDescription)
+        .setTags(tags);
+
+      if (function != null) {
+        rule.setDebtRemediationFunction(rule.debtRemediationFunctions().create(
+          DebtRemediationFunction.Type.valueOf(function), gapMultiplier, baseEffort));
+      }
+
+      for (var param : params) {
+        rule.createParam(param[0])
+          .setDescription(param[1])
+          .setDefaultValue(param[2])
+          .setType(RuleParamType.parse(param[3]));
+      }
+
+      if (descriptionOffset >= 0) {
+        var description = new String(descriptions, descriptionOffset, descriptionLength, StandardCharsets.UTF_8);
+        if (markdown) {
+          rule.setMarkdownDescription(description);
+        } else {
+          rule.setHtmlDescription(description);
+        }
+      }
+    }
+  }
+
+}
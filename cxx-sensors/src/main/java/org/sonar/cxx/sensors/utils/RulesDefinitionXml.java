@@ -19,6 +19,7 @@
  */
 package org.sonar.cxx.sensors.utils;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -71,10 +72,8 @@ public class RulesDefinitionXml implements RulesDefinition {
     var repository = context.createRepository(repositoryKey, repositoryLanguage)
       .setName(repositoryName);
 
-    var xmlLoader = new RulesDefinitionXmlLoader();
     if (!"".equals(repositoryFile)) {
-      var xmlStream = getClass().getResourceAsStream(repositoryFile);
-      xmlLoader.load(repository, xmlStream, encoding);
+      loadRepositoryFile(repository, encoding);
 
       for (var userExtensionXml : getExtensions(repositoryKey, "xml")) {
         try ( var input = java.nio.file.Files.newInputStream(userExtensionXml.toPath())) {
@@ -95,6 +94,24 @@ public class RulesDefinitionXml implements RulesDefinition {
     repository.done();
   }
 
+  /**
+   * Load the bundled rules. Prefer the index precompiled during the build, fall back to the XML file if there is none.
+   */
+  private void loadRepositoryFile(NewRepository repository, Charset encoding) {
+    try ( var indexStream = getClass().getResourceAsStream(RulesDefinitionIndex.indexResource(repositoryFile))) {
+      if (indexStream != null) {
+        RulesDefinitionIndex.load(repository, new BufferedInputStream(indexStream));
+        return;
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot load rules definition index for '" + repositoryFile + "'", e);
+    }
+
+    var xmlLoader = new RulesDefinitionXmlLoader();
+    var xmlStream = getClass().getResourceAsStream(repositoryFile);
+    xmlLoader.load(repository, xmlStream, encoding);
+  }
+
   public List<File> getExtensions(String dirName, @Nullable String... suffixes) {
     var dir = new File(fileSystem.getHomeDir(), "extensions/rules/" + dirName);
     var files = new ArrayList<File>();
@@ -39,6 +39,7 @@ import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.cxx.CxxAstScanner;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.squidbridge.AnalysisProfile;
 import org.sonar.cxx.visitors.CxxParseErrorLoggerVisitor;
 
 public class FinalReportTest {
@@ -72,6 +73,28 @@ public class FinalReportTest {
     assertThat(log.get(1)).contains("syntax error(s) detected");
   }
 
+  @Test
+  public void analysisProfileTest() throws IOException {
+    var dir = "src/test/resources/org/sonar/cxx/postjobs";
+    InputFile inputFile = createInputFile(dir + "/syntaxerror.cc", ".", Charset.defaultCharset());
+
+    AnalysisProfile.resetReport();
+    AnalysisProfile.setEnabled(true);
+    try {
+      CxxAstScanner.scanSingleInputFile(inputFile);
+    } finally {
+      AnalysisProfile.setEnabled(false);
+    }
+
+    var postjob = new FinalReport();
+    postjob.execute(postJobContext);
+    AnalysisProfile.resetReport();
+
+    var log = logTester.logs(LoggerLevel.INFO);
+    assertThat(log).anyMatch(line -> line.startsWith("Analysis profile: top 1 slowest of 1 file(s)"));
+    assertThat(log).anyMatch(line -> line.endsWith("syntaxerror.cc"));
+  }
+
   private static DefaultInputFile createInputFile(String fileName, String basePath, Charset charset)
     throws IOException {
     var fb = TestInputFileBuilder.create("", fileName);
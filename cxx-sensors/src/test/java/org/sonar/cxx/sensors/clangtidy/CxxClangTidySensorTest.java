@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
@@ -31,11 +32,16 @@ import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.issue.Issue;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.TestUtils;
 
 public class CxxClangTidySensorTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   private DefaultFileSystem fs;
   private final MapSettings settings = new MapSettings();
 
@@ -151,6 +157,41 @@ public class CxxClangTidySensorTest {
     assertThat(issuesList.get(1).ruleKey().rule()).isEqualTo("clang-diagnostic-uninitialized");
   }
 
+  @Test
+  public void shouldRemoveDuplicateIssuesAcrossReports() {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    settings.setProperty(
+      CxxClangTidySensor.REPORT_PATH_KEY,
+      "clang-tidy-reports/cpd.report-duplicates*.txt"
+    );
+
+    var sensor = new CxxClangTidySensor();
+    for (var execution = 1; execution <= 2; execution++) {
+      logTester.clear();
+      var context = SensorContextTester.create(fs.baseDir());
+      context.setSettings(settings);
+      context.fileSystem().add(TestInputFileBuilder
+        .create("ProjectKey", "sources/utils/code_chunks.cpp")
+        .setLanguage("cxx")
+        .initMetadata(
+          "asd\n"
+            + "                               _identityFunction,\n"
+            + "                               _identityFunction) {\n"
+            + "asda\n")
+        .build()
+      );
+
+      sensor.execute(context);
+
+      if (execution == 1) {
+        assertThat(context.allIssues()).hasSize(2);
+      }
+      // 5 diagnostics in two reports: 3 repeated ones are skipped before an issue is built, also when the sensor
+      // instance is executed again
+      assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Skipped repeated diagnostics=3");
+    }
+  }
+
   @Test
   public void shouldReportLineIfColumnIsInvalid() {
     var context = SensorContextTester.create(fs.baseDir());
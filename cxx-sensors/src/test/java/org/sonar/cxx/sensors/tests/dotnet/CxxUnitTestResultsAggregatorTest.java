@@ -77,7 +77,8 @@ public class CxxUnitTestResultsAggregatorTest {
     UnitTestResults results = mock(UnitTestResults.class);
     new CxxUnitTestResultsAggregator(visualStudioTestResultsFileParser, nunitTestResultsFileParser)
       .aggregate(wildcardPatternFileProvider, results, new UnitTestConfiguration(config.asConfig()));
-    verify(visualStudioTestResultsFileParser).accept(new File("foo.trx"), results);
+    verify(visualStudioTestResultsFileParser).accept(Mockito.eq(new File("foo.trx")),
+      Mockito.any(UnitTestResults.class));
 
     // All configured
     config.clear();
@@ -90,8 +91,10 @@ public class CxxUnitTestResultsAggregatorTest {
     results = mock(UnitTestResults.class);
     new CxxUnitTestResultsAggregator(visualStudioTestResultsFileParser, nunitTestResultsFileParser)
       .aggregate(wildcardPatternFileProvider, results, new UnitTestConfiguration(config.asConfig()));
-    verify(visualStudioTestResultsFileParser).accept(new File("foo.trx"), results);
-    verify(nunitTestResultsFileParser).accept(new File("foo1.xml"), results);
+    verify(visualStudioTestResultsFileParser).accept(Mockito.eq(new File("foo.trx")),
+      Mockito.any(UnitTestResults.class));
+    verify(nunitTestResultsFileParser).accept(Mockito.eq(new File("foo1.xml")),
+      Mockito.any(UnitTestResults.class));
 
     // None configured
     config.clear();
@@ -130,10 +133,34 @@ public class CxxUnitTestResultsAggregatorTest {
     verify(wildcardPatternFileProvider).listFiles("*.trx");
     verify(wildcardPatternFileProvider).listFiles("bar.trx");
 
-    verify(visualStudioTestResultsFileParser).accept(new File("foo.trx"), results);
-    verify(visualStudioTestResultsFileParser).accept(new File("bar.trx"), results);
-    verify(nunitTestResultsFileParser).accept(new File("foo3.xml"), results);
-    verify(nunitTestResultsFileParser).accept(new File("bar3.xml"), results);
+    verify(visualStudioTestResultsFileParser).accept(Mockito.eq(new File("foo.trx")),
+      Mockito.any(UnitTestResults.class));
+    verify(visualStudioTestResultsFileParser).accept(Mockito.eq(new File("bar.trx")),
+      Mockito.any(UnitTestResults.class));
+    verify(nunitTestResultsFileParser).accept(Mockito.eq(new File("foo3.xml")),
+      Mockito.any(UnitTestResults.class));
+    verify(nunitTestResultsFileParser).accept(Mockito.eq(new File("bar3.xml")),
+      Mockito.any(UnitTestResults.class));
+    verify(results, Mockito.times(4)).add(
+      Mockito.any(UnitTestResults.class));
+  }
+
+  @Test
+  public void aggregateMultipleReports() {
+    var reportDir = new File("src/test/resources/org/sonar/cxx/sensors/reports-project/MSTest-reports");
+    var config = new MapSettings();
+    config.setProperty(key1, "valid.trx,valid_missing_attributes.trx");
+
+    var results = new UnitTestResults();
+    new CxxUnitTestResultsAggregator()
+      .aggregate(new WildcardPatternFileProvider(reportDir, File.separator), results,
+                 new UnitTestConfiguration(config.asConfig()));
+
+    assertThat(results.tests()).isEqualTo(31 + 3);
+    assertThat(results.skipped()).isEqualTo(11);
+    assertThat(results.failures()).isEqualTo(14);
+    assertThat(results.errors()).isEqualTo(3);
+    assertThat(results.executionTime()).isEqualTo(816L);
   }
 
 }
@@ -89,4 +89,34 @@ public class TestFileTest {
     assertEquals(testFile.getSkipped(), skippedBefore + 1);
   }
 
+  @Test
+  public void addingStatusOnlyShouldIncrementStatistics() {
+    var counters = new TestFile("test.cpp", false);
+    counters.add("ok", 10);
+    counters.add("failure", 1);
+    counters.add("error", 2);
+    counters.add("skipped", 0);
+
+    assertEquals(4, counters.getTests());
+    assertEquals(1, counters.getFailures());
+    assertEquals(1, counters.getErrors());
+    assertEquals(1, counters.getSkipped());
+    assertEquals(13, counters.getExecutionTime());
+    assertEquals(0, counters.getTestCases().size());
+  }
+
+  @Test
+  public void mergeShouldAddStatistics() {
+    testFile.add(new TestCase("name", 10, "failure", "stack", "msg", "classname", "tcfilename", "tsname"));
+    var other = new TestFile("test.cpp");
+    other.add(new TestCase("name2", 5, "ok", "", "", "classname", "tcfilename", "tsname"));
+
+    testFile.merge(other);
+
+    assertEquals(2, testFile.getTests());
+    assertEquals(1, testFile.getFailures());
+    assertEquals(15, testFile.getExecutionTime());
+    assertEquals(2, testFile.getTestCases().size());
+  }
+
 }
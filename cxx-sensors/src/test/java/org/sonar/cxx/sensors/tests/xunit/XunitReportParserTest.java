@@ -60,6 +60,47 @@ public class XunitReportParserTest {
     }
   }
 
+  @Test
+  public void testStreamingModeCollectsSameMeasures() throws javax.xml.stream.XMLStreamException {
+    var merged = new XunitReportParser("", false);
+    var expected = new TreeMap<String, TestFile>();
+    for (var name : new String[]{"xunit-result-2.xml", "xunit-result-SAMPLE_with_fileName.xml",
+                                 "nested_testsuites.xml", "xunit-result-skippedonly.xml"}) {
+      File report = TestUtils.loadResource(pathPrefix + name);
+      var details = new XunitReportParser("");
+      new StaxParser(details, false).parse(report);
+      var streaming = new XunitReportParser("", false);
+      new StaxParser(streaming, false).parse(report);
+
+      for (var testFile : details.getTestFiles()) {
+        var other = find(streaming, testFile.getFilename());
+        assertEquals(testFile.getTests(), other.getTests());
+        assertEquals(testFile.getErrors(), other.getErrors());
+        assertEquals(testFile.getFailures(), other.getFailures());
+        assertEquals(testFile.getSkipped(), other.getSkipped());
+        assertEquals(testFile.getExecutionTime(), other.getExecutionTime());
+        assertEquals(0, other.getTestCases().size());
+        expected.computeIfAbsent(testFile.getFilename(), TestFile::new).merge(testFile);
+      }
+      merged.merge(streaming);
+    }
+
+    assertEquals(expected.size(), merged.getTestFiles().size());
+    for (var testFile : expected.values()) {
+      var other = find(merged, testFile.getFilename());
+      assertEquals(testFile.getTests(), other.getTests());
+      assertEquals(testFile.getSkipped(), other.getSkipped());
+      assertEquals(testFile.getExecutionTime(), other.getExecutionTime());
+    }
+  }
+
+  private static TestFile find(XunitReportParser parser, String filename) {
+    return parser.getTestFiles().stream()
+      .filter(f -> filename.equals(f.getFilename()))
+      .findFirst()
+      .orElseThrow();
+  }
+
   @Test(expected = javax.xml.stream.XMLStreamException.class)
   public void shouldThrowWhenGivenInvalidTime() throws javax.xml.stream.XMLStreamException {
     parserHandler = new XunitReportParser("");
@@ -0,0 +1,105 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+public class GlobResolverTest {
+
+  @Rule
+  public TemporaryFolder base = new TemporaryFolder();
+
+  private final GlobResolver resolver = new GlobResolver();
+
+  @Before
+  public void init() throws IOException {
+    FileUtils.touch(new File(base.getRoot(), "report.xml"));
+    FileUtils.touch(new File(base.getRoot(), "build/a.xml"));
+    FileUtils.touch(new File(base.getRoot(), "build/a.txt"));
+    FileUtils.touch(new File(base.getRoot(), "build/x/b.xml"));
+    FileUtils.touch(new File(base.getRoot(), "build/x/y/c.xml"));
+  }
+
+  private String pattern(String relative) {
+    return CxxUtils.resolveAntPath(base.getRoot().getAbsolutePath(), relative);
+  }
+
+  private List<File> resolve(String... relative) {
+    var patterns = new ArrayList<String>();
+    for (var item : relative) {
+      patterns.add(pattern(item));
+    }
+    return resolver.resolve(patterns);
+  }
+
+  private File file(String relative) {
+    return new File(base.getRoot(), relative);
+  }
+
+  @Test
+  public void plainFile() {
+    assertThat(resolve("report.xml")).containsExactly(file("report.xml"));
+    assertThat(resolve("missing.xml")).isEmpty();
+    assertThat(resolve("build")).isEmpty();
+  }
+
+  @Test
+  public void wildcards() {
+    assertThat(resolve("build/*.xml")).containsExactly(file("build/a.xml"));
+    assertThat(resolve("build/?.t?t")).containsExactly(file("build/a.txt"));
+    assertThat(resolve("build/**/*.xml"))
+      .containsExactlyInAnyOrder(file("build/a.xml"), file("build/x/b.xml"), file("build/x/y/c.xml"));
+    assertThat(resolve("**/*.xml")).hasSize(4);
+    assertThat(resolve("build/**/y/*.xml")).containsExactly(file("build/x/y/c.xml"));
+    assertThat(resolve("build/")).hasSize(4);
+    assertThat(resolve("missing/**/*.xml")).isEmpty();
+  }
+
+  @Test
+  public void sharedTraversal() throws IOException {
+    assertThat(resolve("build/*/*.xml")).containsExactly(file("build/x/b.xml"));
+    assertThat(resolve("**/*.xml")).hasSize(4);
+
+    // results and listings are cached: new files are not seen anymore
+    FileUtils.touch(new File(base.getRoot(), "build/x/d.xml"));
+    assertThat(resolve("build/x/*.xml")).containsExactly(file("build/x/b.xml"));
+    assertThat(resolve("**/*.xml", "build/**/*.xml")).hasSize(4);
+    assertThat(resolver.listTree(file("build/x"))).containsExactlyInAnyOrder(
+      file("build/x/b.xml"), file("build/x/y"), file("build/x/y/c.xml"));
+  }
+
+  @Test
+  public void sharedPerContext() {
+    var context = SensorContextTester.create(base.getRoot());
+    assertThat(GlobResolver.of(context)).isSameAs(GlobResolver.of(context));
+    assertThat(GlobResolver.of(context)).isNotSameAs(GlobResolver.of(SensorContextTester.create(base.getRoot())));
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.IOException;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.cxx.sensors.cppcheck.CxxCppCheckSensor;
+
+public class ReportEventTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void recordProcessedReports() throws IOException {
+    var fs = TestUtils.mockFileSystem();
+    var context = SensorContextTester.create(fs.baseDir());
+    var settings = new MapSettings();
+    settings.setProperty(CxxReportSensor.ERROR_RECOVERY_KEY, true);
+    settings.setProperty(CxxCppCheckSensor.REPORT_PATH_KEY, "cppcheck-reports/cppcheck-result-*.xml");
+    context.setSettings(settings);
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "sources/utils/code_chunks.cpp")
+      .setLanguage("cxx").initMetadata("asd\nasdas\nasda\n").build());
+    context.fileSystem().add(TestInputFileBuilder.create("ProjectKey", "sources/utils/utils.cpp")
+      .setLanguage("cxx").initMetadata("asd\nasdas\nasda\n").build());
+
+    List<RecordedEvent> events;
+    try (var recording = new Recording()) {
+      recording.enable(ReportEvent.class);
+      recording.start();
+      new CxxCppCheckSensor().execute(context);
+      recording.stop();
+      var file = tempFolder.newFile().toPath();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    }
+
+    assertThat(events).isNotEmpty().allSatisfy(event -> {
+      assertThat(event.getEventType().getName()).isEqualTo(ReportEvent.NAME);
+      assertThat(event.getString("sensor")).isEqualTo(CxxCppCheckSensor.class.getName());
+      assertThat(event.getString("report")).contains("cppcheck-result-");
+      assertThat(event.getLong("size")).isPositive();
+    });
+    assertThat(events.stream().mapToInt(event -> event.getInt("issues")).sum())
+      .isEqualTo(context.allIssues().size());
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.api.server.rule.RulesDefinitionXmlLoader;
+
+public class RulesDefinitionIndexTest {
+
+  @Test
+  public void indexResourceName() {
+    assertThat(RulesDefinitionIndex.indexResource("/clangtidy.xml")).isEqualTo("/clangtidy.idx");
+    assertThat(RulesDefinitionIndex.indexResource("/vera++.xml")).isEqualTo("/vera++.idx");
+    assertThat(RulesDefinitionIndex.indexResource("/dir.d/rules")).isEqualTo("/dir.d/rules.idx");
+  }
+
+  @Test
+  public void indexIsEquivalentToXml() throws IOException {
+    for (var file : new String[]{"/clangsa.xml", "/cppcheck.xml", "/drmemory.xml", "/pclint.xml"}) {
+      var expected = loadXml(file);
+      var actual = loadIndex(file);
+
+      var softly = new SoftAssertions();
+      softly.assertThat(actual.rules()).hasSameSizeAs(expected.rules());
+      for (var rule : expected.rules()) {
+        var other = actual.rule(rule.key());
+        softly.assertThat(other).isNotNull();
+        if (other != null) {
+          softly.assertThat(other.name()).isEqualTo(rule.name());
+          softly.assertThat(other.severity()).isEqualTo(rule.severity());
+          softly.assertThat(other.type()).isEqualTo(rule.type());
+          softly.assertThat(other.status()).isEqualTo(rule.status());
+          softly.assertThat(other.template()).isEqualTo(rule.template());
+          softly.assertThat(other.tags()).isEqualTo(rule.tags());
+          softly.assertThat(other.gapDescription()).isEqualTo(rule.gapDescription());
+          softly.assertThat(other.debtRemediationFunction()).isEqualTo(rule.debtRemediationFunction());
+          softly.assertThat(other.htmlDescription()).isEqualTo(rule.htmlDescription());
+          softly.assertThat(other.params()).isEqualTo(rule.params());
+        }
+      }
+      softly.assertAll();
+    }
+  }
+
+  @Test
+  public void loadParamsAndMarkdown() throws IOException {
+    var xml = "<rules><rule><key>key1</key><name>name1</name>"
+                + "<descriptionFormat>MARKDOWN</descriptionFormat><description>*text*</description>"
+                + "<param><key>max</key><description>maximum</description><defaultValue>10</defaultValue>"
+                + "<type>INTEGER</type></param></rule></rules>";
+    var out = new ByteArrayOutputStream();
+    RulesDefinitionIndex.compile(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), out);
+
+    var context = new RulesDefinition.Context();
+    var repository = context.createRepository("test", "cxx");
+    RulesDefinitionIndex.load(repository, new ByteArrayInputStream(out.toByteArray()));
+    repository.done();
+
+    var rule = context.repository("test").rule("key1");
+    assertThat(rule.markdownDescription()).isEqualTo("*text*");
+    assertThat(rule.param("max").defaultValue()).isEqualTo("10");
+    assertThat(rule.param("max").type().type()).isEqualTo("INTEGER");
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectUnknownFormat() throws IOException {
+    var context = new RulesDefinition.Context();
+    var repository = context.createRepository("test", "cxx");
+    RulesDefinitionIndex.load(repository, new ByteArrayInputStream(new byte[]{0, 0, 0, 0, 0, 0, 0, 0}));
+  }
+
+  private static RulesDefinition.Repository loadXml(String file) {
+    var context = new RulesDefinition.Context();
+    var repository = context.createRepository("test", "cxx");
+    new RulesDefinitionXmlLoader().load(repository, RulesDefinitionIndexTest.class.getResourceAsStream(file),
+                                        StandardCharsets.UTF_8);
+    repository.done();
+    return context.repository("test");
+  }
+
+  private static RulesDefinition.Repository loadIndex(String file) throws IOException {
+    var out = new ByteArrayOutputStream();
+    RulesDefinitionIndex.compile(RulesDefinitionIndexTest.class.getResourceAsStream(file), out);
+    var context = new RulesDefinition.Context();
+    var repository = context.createRepository("test", "cxx");
+    RulesDefinitionIndex.load(repository, new ByteArrayInputStream(out.toByteArray()));
+    repository.done();
+    return context.repository("test");
+  }
+
+}
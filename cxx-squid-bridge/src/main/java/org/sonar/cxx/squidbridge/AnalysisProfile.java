@@ -0,0 +1,266 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstNode;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Per-file analysis profile: time spent in the analysis phases and size of the token stream and the AST.
+ *
+ * Recording is disabled by default. If enabled, {@link AstScanner} creates a {@link FileProfile} for each file and
+ * measures parsing and visitor walking; the preprocessor adds the time for lexing, include processing and macro
+ * expansion via {@link #current()}. Files are scanned sequentially, therefore a single current profile is sufficient.
+ */
+public final class AnalysisProfile {
+
+  public static final String JSON_FILE = "cxx-analysis-profile.json";
+  public static final String CSV_FILE = "cxx-analysis-profile.csv";
+  public static final int TOP_N = 10;
+
+  private static final Logger LOG = Loggers.get(AnalysisProfile.class);
+
+  private static boolean enabled = false;
+  private static FileProfile current = null;
+  private static final List<FileProfile> FILES = new ArrayList<>();
+
+  /**
+   * Analysis phases. LEXING contains the preprocessing, INCLUDES and MACROS are the parts of LEXING spent in include
+   * processing and macro expansion. PARSING is the time of the parser without LEXING.
+   */
+  public enum Phase {
+    LEXING, INCLUDES, MACROS, PARSING, VISITORS
+  }
+
+  private AnalysisProfile() {
+  }
+
+  public static void setEnabled(boolean value) {
+    enabled = value;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start recording a new file.
+   *
+   * @return profile of the file or null if recording is disabled
+   */
+  @CheckForNull
+  public static FileProfile start(File file) {
+    if (!enabled) {
+      return null;
+    }
+    current = new FileProfile(file.getPath());
+    return current;
+  }
+
+  /**
+   * Finish recording of a file.
+   */
+  public static void stop(@Nullable FileProfile profile) {
+    if (profile != null) {
+      synchronized (FILES) {
+        FILES.add(profile);
+      }
+      if (current == profile) {
+        current = null;
+      }
+    }
+  }
+
+  /**
+   * Profile of the file currently scanned.
+   *
+   * @return profile or null if recording is disabled
+   */
+  @CheckForNull
+  public static FileProfile current() {
+    return enabled ? current : null;
+  }
+
+  public static List<FileProfile> getFiles() {
+    synchronized (FILES) {
+      return new ArrayList<>(FILES);
+    }
+  }
+
+  /**
+   * The slowest files, sorted by descending total time.
+   */
+  public static List<FileProfile> slowest(int count) {
+    var files = getFiles();
+    files.sort(Comparator.comparingLong(FileProfile::getTotal).reversed());
+    return files.subList(0, Math.min(count, files.size()));
+  }
+
+  public static void finalReport() {
+    var slowest = slowest(TOP_N);
+    if (!slowest.isEmpty()) {
+      LOG.info("Analysis profile: top {} slowest of {} file(s) (total/lexing/includes/macros/parsing/visitors ms):",
+               slowest.size(), getFiles().size());
+      for (var file : slowest) {
+        LOG.info("  {} ms ({}/{}/{}/{}/{}), {} tokens, {} AST nodes: {}", millis(file.getTotal()),
+                 millis(file.get(Phase.LEXING)), millis(file.get(Phase.INCLUDES)), millis(file.get(Phase.MACROS)),
+                 millis(file.get(Phase.PARSING)), millis(file.get(Phase.VISITORS)), file.getTokens(),
+                 file.getNodes(), file.getPath());
+      }
+    }
+  }
+
+  public static void resetReport() {
+    synchronized (FILES) {
+      FILES.clear();
+    }
+    current = null;
+  }
+
+  /**
+   * Write the recorded profile as JSON ({@link #JSON_FILE}) and CSV ({@link #CSV_FILE}) to a directory.
+   *
+   * @param dir target directory, typically the work directory of the analysis
+   * @throws IOException if the files cannot be written
+   */
+  public static void save(File dir) throws IOException {
+    var files = getFiles();
+    Files.createDirectories(dir.toPath());
+    try (Writer json = Files.newBufferedWriter(dir.toPath().resolve(JSON_FILE), StandardCharsets.UTF_8);
+         Writer csv = Files.newBufferedWriter(dir.toPath().resolve(CSV_FILE), StandardCharsets.UTF_8)) {
+      csv.write("file,totalMs,lexingMs,includesMs,macrosMs,parsingMs,visitorsMs,tokens,nodes\n");
+      json.write("{\"files\":[");
+      for (var i = 0; i < files.size(); i++) {
+        var file = files.get(i);
+        csv.write(String.format(Locale.ENGLISH, "\"%s\",%s,%s,%s,%s,%s,%s,%d,%d%n",
+                                file.getPath().replace("\"", "\"\""), millis(file.getTotal()),
+                                millis(file.get(Phase.LEXING)), millis(file.get(Phase.INCLUDES)),
+                                millis(file.get(Phase.MACROS)), millis(file.get(Phase.PARSING)),
+                                millis(file.get(Phase.VISITORS)), file.getTokens(), file.getNodes()));
+        json.write(i == 0 ? "\n" : ",\n");
+        json.write(String.format(Locale.ENGLISH,
+                                 "{\"file\":\"%s\",\"totalMs\":%s,\"lexingMs\":%s,\"includesMs\":%s,\"macrosMs\":%s,"
+                                   + "\"parsingMs\":%s,\"visitorsMs\":%s,\"tokens\":%d,\"nodes\":%d}",
+                                 jsonEscape(file.getPath()), millis(file.getTotal()),
+                                 millis(file.get(Phase.LEXING)), millis(file.get(Phase.INCLUDES)),
+                                 millis(file.get(Phase.MACROS)), millis(file.get(Phase.PARSING)),
+                                 millis(file.get(Phase.VISITORS)), file.getTokens(), file.getNodes()));
+      }
+      json.write("\n]}\n");
+    }
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ENGLISH, "%.3f", nanos / 1_000_000.0);
+  }
+
+  private static String jsonEscape(String value) {
+    var sb = new StringBuilder(value.length() + 16);
+    for (var i = 0; i < value.length(); i++) {
+      var c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Profile of a single file.
+   */
+  public static final class FileProfile {
+
+    private final String path;
+    private final long[] nanos = new long[Phase.values().length];
+    private long tokens;
+    private long nodes;
+
+    FileProfile(String path) {
+      this.path = path;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public void add(Phase phase, long value) {
+      nanos[phase.ordinal()] += value;
+    }
+
+    public long get(Phase phase) {
+      return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Total time in nanoseconds (lexing, parsing and visitors).
+     */
+    public long getTotal() {
+      return get(Phase.LEXING) + get(Phase.PARSING) + get(Phase.VISITORS);
+    }
+
+    public long getTokens() {
+      return tokens;
+    }
+
+    public long getNodes() {
+      return nodes;
+    }
+
+    /**
+     * Count nodes and tokens of an AST.
+     */
+    public void count(@Nullable AstNode ast) {
+      if (ast == null) {
+        return;
+      }
+      var stack = new ArrayDeque<AstNode>();
+      stack.push(ast);
+      while (!stack.isEmpty()) {
+        var node = stack.pop();
+        nodes++;
+        if (node.hasChildren()) {
+          for (var child : node.getChildren()) {
+            stack.push(child);
+          }
+        } else if (node.hasToken()) {
+          tokens++;
+        }
+      }
+    }
+  }
+
+}
@@ -28,21 +28,31 @@ import static com.google.common.base.Preconditions.checkState;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.LexerException;
+import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.Parser;
-import com.sonar.sslr.impl.ast.AstWalker;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.squidbridge.AnalysisProfile.FileProfile;
+import org.sonar.cxx.squidbridge.AnalysisProfile.Phase;
 import org.sonar.cxx.squidbridge.api.AnalysisException;
 import org.sonar.cxx.squidbridge.api.SourceCodeSearchEngine;
 import org.sonar.cxx.squidbridge.api.SourceCodeTreeDecorator;
+import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.SquidIndex;
 import org.sonar.cxx.squidbridge.measures.MetricDef;
@@ -53,15 +63,26 @@ public class AstScanner<G extends Grammar> {
 
   private final List<SquidAstVisitor<G>> visitors;
   private final Parser<G> parser;
+  private final Lexer lexer;
+  private final Predicate<InputFile> tokenOnlyFilter;
+  private final ParseBudget parseBudget;
   private final SquidAstVisitorContextImpl<G> context;
 
   private final SquidIndex indexer = new SquidIndex();
   private final MetricDef[] metrics;
   private final MetricDef filesMetric;
 
+  private boolean profileVisitors = false;
+  private ProfilingAstWalker profilingWalker = null;
+  private GrammarReachability reachability = null;
+  private final List<File> degradedFiles = new ArrayList<>();
+
   protected AstScanner(Builder<G> builder) {
     this.visitors = Lists.newArrayList(builder.visitors);
     this.parser = builder.baseParser;
+    this.lexer = builder.lexer;
+    this.tokenOnlyFilter = builder.tokenOnlyFilter;
+    this.parseBudget = builder.parseBudget;
     this.context = builder.context;
 
     this.context.setGrammar(parser.getGrammar());
@@ -76,6 +97,31 @@ public class AstScanner<G extends Grammar> {
     return indexer;
   }
 
+  /**
+   * Measure the costs of the visitors, see {@link #getVisitorCosts()}.
+   */
+  public void setProfileVisitors(boolean profileVisitors) {
+    this.profileVisitors = profileVisitors;
+  }
+
+  /**
+   * Costs of the visitors of the last scan, sorted by descending time.
+   *
+   * @return costs or empty list if the visitors were not profiled
+   */
+  public List<ProfilingAstWalker.Cost> getVisitorCosts() {
+    return profilingWalker != null ? profilingWalker.getCosts() : Collections.emptyList();
+  }
+
+  /**
+   * Files of the last scan exceeding the parse budget, these files are analyzed on token level.
+   *
+   * @return degraded files in scan order
+   */
+  public List<File> getDegradedFiles() {
+    return Collections.unmodifiableList(degradedFiles);
+  }
+
   public void scanFile(File file) {
     scanFiles(java.util.List.of(file));
   }
@@ -87,24 +133,12 @@ public class AstScanner<G extends Grammar> {
   public void scanFiles(Collection<File> files) {
     initVisitors();
 
-    var astWalker = new AstWalker(visitors);
+    var astWalker = createWalker();
 
     for (var file : files) {
       checkCancel();
       context.setFile(file, filesMetric);
-
-      Exception parseException = null;
-      AstNode ast = null;
-      try {
-        try {
-          ast = parser.parse(file);
-        } catch (Exception e) {
-          parseException = handleParseException(file, e);
-        }
-        walkAndVisit(astWalker, ast, parseException);
-      } catch (Throwable e) {
-        throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
-      }
+      scan(astWalker, file, () -> parser.parse(file));
     }
 
     destroyVisitors();
@@ -113,25 +147,22 @@ public class AstScanner<G extends Grammar> {
 
   public void scanInputFiles(Iterable<InputFile> inputFiles) {
     initVisitors();
+    degradedFiles.clear();
 
-    var astWalker = new AstWalker(visitors);
+    var astWalker = createWalker();
 
     for (var inputFile : inputFiles) {
       var file = new File(inputFile.uri().getPath());
       checkCancel();
       context.setInputFile(inputFile, filesMetric);
-
-      Exception parseException = null;
-      AstNode ast = null;
-      try {
-        try {
-          ast = parser.parse(inputFile.contents());
-        } catch (Exception e) {
-          parseException = handleParseException(file, e);
-        }
-        walkAndVisit(astWalker, ast, parseException);
-      } catch (Throwable e) {
-        throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
+      if (tokenOnlyFilter != null && tokenOnlyFilter.test(inputFile)) {
+        LOG.debug("Token-only analysis of file '{}'", file);
+        ((SourceFile) context.peekSourceCode()).setTokenOnly(true);
+        scan(astWalker, file, () -> tokenAst(lex(context.getInputFileContent())));
+      } else if (parseBudget != null) {
+        scan(astWalker, file, () -> parseWithBudget(file, context.getInputFileContent()));
+      } else {
+        scan(astWalker, file, () -> parser.parse(context.getInputFileContent()));
       }
     }
 
@@ -139,6 +170,106 @@ public class AstScanner<G extends Grammar> {
     decorateSquidTree();
   }
 
+  private AstWalker createWalker() {
+    if (reachability == null) {
+      reachability = GrammarReachability.of(parser.getGrammar());
+    }
+    AstWalker astWalker;
+    if (profileVisitors) {
+      profilingWalker = new ProfilingAstWalker(visitors);
+      astWalker = profilingWalker;
+    } else {
+      profilingWalker = null;
+      astWalker = new AstWalker(visitors);
+    }
+    astWalker.setGrammarReachability(reachability);
+    return astWalker;
+  }
+
+  /**
+   * Lex and preprocess the source, errors are reported like errors of {@link Parser#parse(String)}.
+   */
+  private List<Token> lex(String source) {
+    try {
+      return lexer.lex(source);
+    } catch (LexerException e) {
+      throw new RecognitionException(e);
+    }
+  }
+
+  /**
+   * Parse the tokens within the parse budget. If the budget is exceeded, the file is recorded as degraded, the
+   * exception handlers are informed and the file is analyzed on token level, see {@link #tokenAst(List)}. The tokens
+   * are reused because lexing a file twice would change the state of the preprocessor.
+   */
+  private AstNode parseWithBudget(File file, String source) {
+    var tokens = lex(source);
+    try {
+      parseBudget.start();
+      return parser.parse(tokens);
+    } catch (ParseBudget.ExceededException e) {
+      LOG.warn("{}, file '{}' is analyzed on token level only", e.getMessage(), file);
+      degradedFiles.add(file);
+      ((SourceFile) context.peekSourceCode()).setTokenOnly(true);
+      for (var visitor : visitors) {
+        if (visitor instanceof AstScannerExceptionHandler) {
+          ((AstScannerExceptionHandler) visitor).processException(e);
+        }
+      }
+      return tokenAst(tokens);
+    } finally {
+      ParseBudget.stop();
+    }
+  }
+
+  /**
+   * AST of a file analyzed on token level: the tokens are the children of a single root node of type
+   * {@link TokenOnly#TOKENS}. Token visitors see all tokens, visitors subscribed to grammar rules see no nodes.
+   */
+  private static AstNode tokenAst(List<Token> tokens) {
+    var root = new AstNode(TokenOnly.TOKENS, TokenOnly.TOKENS.name(), tokens.isEmpty() ? null : tokens.get(0));
+    for (var token : tokens) {
+      root.addChild(new AstNode(token));
+    }
+    return root;
+  }
+
+  private void scan(AstWalker astWalker, File file, Callable<AstNode> parse) {
+    FileProfile profile = AnalysisProfile.start(file);
+    var event = new FileScannedEvent();
+    event.begin();
+    Exception parseException = null;
+    AstNode ast = null;
+    try {
+      var start = System.nanoTime();
+      try {
+        ast = parse.call();
+      } catch (Exception e) {
+        parseException = handleParseException(file, e);
+      }
+      var visit = System.nanoTime();
+      walkAndVisit(astWalker, ast, parseException);
+      var end = System.nanoTime();
+      if (profile != null) {
+        profile.add(Phase.PARSING, Math.max(0, visit - start - profile.get(Phase.LEXING)));
+        profile.add(Phase.VISITORS, end - visit);
+        profile.count(ast);
+      }
+      event.end();
+      if (event.shouldCommit()) {
+        event.path = file.getPath();
+        event.parseTime = visit - start;
+        event.visitTime = end - visit;
+        event.parseError = parseException != null;
+        event.commit();
+      }
+    } catch (Throwable e) {
+      throw new AnalysisException("Unable to parse file: " + file.getAbsolutePath(), e);
+    } finally {
+      AnalysisProfile.stop(profile);
+    }
+  }
+
   private static Exception handleParseException(File file, Exception e) {
     checkInterrupted(e);
     if (e instanceof RecognitionException) {
@@ -156,7 +287,7 @@ public class AstScanner<G extends Grammar> {
     } else {
       // process parse error
       for (var visitor : visitors) {
-        visitor.visitFile(ast);
+        astWalker.visitFile(visitor, ast);
       }
       for (var visitor : visitors) {
         if (visitor instanceof AstScannerExceptionHandler) {
@@ -169,7 +300,7 @@ public class AstScanner<G extends Grammar> {
         }
       }
       for (var visitor : visitors) {
-        visitor.leaveFile(ast);
+        astWalker.leaveFile(visitor, ast);
       }
     }
     context.popTillSourceProject();
@@ -216,9 +347,19 @@ public class AstScanner<G extends Grammar> {
     return new Builder<>(context);
   }
 
+  /**
+   * Type of the root node of files analyzed on token level.
+   */
+  public enum TokenOnly implements AstNodeType {
+    TOKENS
+  }
+
   public static class Builder<G extends Grammar> {
 
     private Parser<G> baseParser;
+    private Lexer lexer;
+    private Predicate<InputFile> tokenOnlyFilter;
+    private ParseBudget parseBudget;
     private final List<SquidAstVisitor<G>> visitors = Lists.newArrayList();
     private final SquidAstVisitorContextImpl<G> context;
     private CommentAnalyser commentAnalyser;
@@ -236,6 +377,34 @@ public class AstScanner<G extends Grammar> {
       return this;
     }
 
+    /**
+     * Lexer (including the preprocessors) used for token-only analysis, typically the lexer of the base parser.
+     */
+    public Builder<G> setLexer(Lexer lexer) {
+      checkNotNull(lexer, "lexer cannot be null");
+      this.lexer = lexer;
+      return this;
+    }
+
+    /**
+     * Input files accepted by the filter are only lexed and preprocessed, see {@link SourceFile#isTokenOnly()}.
+     */
+    public Builder<G> setTokenOnlyFilter(Predicate<InputFile> tokenOnlyFilter) {
+      checkNotNull(tokenOnlyFilter, "tokenOnlyFilter cannot be null");
+      this.tokenOnlyFilter = tokenOnlyFilter;
+      return this;
+    }
+
+    /**
+     * Parse input files within the budget, files exceeding it are analyzed on token level, see
+     * {@link AstScanner#getDegradedFiles()}.
+     */
+    public Builder<G> setParseBudget(ParseBudget parseBudget) {
+      checkNotNull(parseBudget, "parseBudget cannot be null");
+      this.parseBudget = parseBudget;
+      return this;
+    }
+
     public Builder<G> setCommentAnalyser(CommentAnalyser commentAnalyser) {
       checkNotNull(commentAnalyser, "commentAnalyser cannot be null");
       this.commentAnalyser = commentAnalyser;
@@ -267,6 +436,8 @@ public class AstScanner<G extends Grammar> {
       checkState(baseParser != null, "baseParser must be set");
       checkState(commentAnalyser != null, "commentAnalyser must be set");
       checkState(filesMetric != null, "filesMetric must be set");
+      checkState(tokenOnlyFilter == null || lexer != null, "lexer must be set for token-only analysis");
+      checkState(parseBudget == null || lexer != null, "lexer must be set for a parse budget");
       return new AstScanner<>(this);
     }
   }
@@ -0,0 +1,188 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+/**
+ * fork of SonarSource Language Recognizer: https://github.com/SonarSource/sslr/tree/1.24.0.633
+ * Copyright (C) 2010-2018 SonarSource SA / mailto:info AT sonarsource DOT com / license: LGPL v3
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.AstVisitor;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Walks an AST and dispatches the nodes and tokens to the visitors subscribed to them.
+ *
+ * The dispatch of each visitor call goes through the protected methods visitFile, visitNode, visitToken, leaveNode
+ * and leaveFile, which can be overridden to instrument the visitors (see {@link ProfilingAstWalker}).
+ *
+ * With the {@link GrammarReachability} of the grammar, the walker prunes the subtrees of rule nodes which cannot
+ * contain a node of a subscribed rule type: below such a node only leaves (tokens) are dispatched. If there is neither
+ * an {@link AstAndTokenVisitor} nor a subscription to a token type, pruned subtrees are skipped completely. The
+ * visitors are called in the same order as without pruning.
+ */
+public class AstWalker {
+
+  private static final AstVisitor[] NO_VISITORS = new AstVisitor[0];
+
+  private final Map<AstNodeType, AstVisitor[]> visitorsByNodeType = new IdentityHashMap<>();
+  private final List<AstVisitor> visitors = new ArrayList<>();
+  private AstAndTokenVisitor[] astAndTokenVisitors = new AstAndTokenVisitor[0];
+  private Token lastVisitedToken = null;
+  private GrammarReachability reachability = null;
+  private final Set<AstNodeType> prunedTypes = Collections.newSetFromMap(new IdentityHashMap<>());
+  private boolean skipPrunedSubtrees = false;
+
+  public AstWalker(AstVisitor... visitors) {
+    this(Arrays.asList(visitors));
+  }
+
+  public AstWalker(List<? extends AstVisitor> visitors) {
+    for (var visitor : visitors) {
+      addVisitor(visitor);
+    }
+  }
+
+  public final void addVisitor(AstVisitor visitor) {
+    visitors.add(visitor);
+    for (var type : visitor.getAstNodeTypesToVisit()) {
+      var nodeVisitors = visitorsByNodeType.getOrDefault(type, NO_VISITORS);
+      nodeVisitors = Arrays.copyOf(nodeVisitors, nodeVisitors.length + 1);
+      nodeVisitors[nodeVisitors.length - 1] = visitor;
+      visitorsByNodeType.put(type, nodeVisitors);
+    }
+    if (visitor instanceof AstAndTokenVisitor) {
+      astAndTokenVisitors = Arrays.copyOf(astAndTokenVisitors, astAndTokenVisitors.length + 1);
+      astAndTokenVisitors[astAndTokenVisitors.length - 1] = (AstAndTokenVisitor) visitor;
+    }
+    updatePruning();
+  }
+
+  /**
+   * Enable the pruning of subtrees without subscribed rule types.
+   *
+   * @param reachability reachability of the rules of the grammar of the walked ASTs
+   */
+  public final void setGrammarReachability(GrammarReachability reachability) {
+    this.reachability = reachability;
+    updatePruning();
+  }
+
+  private void updatePruning() {
+    prunedTypes.clear();
+    if (reachability == null) {
+      return;
+    }
+    var subscribed = visitorsByNodeType.keySet();
+    var tokenTypes = false;
+    for (var type : subscribed) {
+      tokenTypes |= !reachability.isRule(type);
+    }
+    for (var type : reachability.getRules()) {
+      if (Collections.disjoint(reachability.getDescendants(type), subscribed)) {
+        prunedTypes.add(type);
+      }
+    }
+    skipPrunedSubtrees = astAndTokenVisitors.length == 0 && !tokenTypes;
+  }
+
+  public void walkAndVisit(AstNode ast) {
+    for (var visitor : visitors) {
+      visitFile(visitor, ast);
+    }
+    visit(ast);
+    for (var i = visitors.size() - 1; i >= 0; i--) {
+      leaveFile(visitors.get(i), ast);
+    }
+  }
+
+  protected void visitFile(AstVisitor visitor, @Nullable AstNode ast) {
+    visitor.visitFile(ast);
+  }
+
+  protected void visitNode(AstVisitor visitor, AstNode node) {
+    visitor.visitNode(node);
+  }
+
+  protected void visitToken(AstAndTokenVisitor visitor, Token token) {
+    visitor.visitToken(token);
+  }
+
+  protected void leaveNode(AstVisitor visitor, AstNode node) {
+    visitor.leaveNode(node);
+  }
+
+  protected void leaveFile(AstVisitor visitor, @Nullable AstNode ast) {
+    visitor.leaveFile(ast);
+  }
+
+  private void visit(AstNode node) {
+    var nodeVisitors = visitorsByNodeType.getOrDefault(node.getType(), NO_VISITORS);
+    for (var visitor : nodeVisitors) {
+      visitNode(visitor, node);
+    }
+    visitToken(node);
+    if (prunedTypes.isEmpty() || !prunedTypes.contains(node.getType())) {
+      for (var child : node.getChildren()) {
+        visit(child);
+      }
+    } else if (!skipPrunedSubtrees) {
+      visitLeaves(node);
+    }
+    for (var i = nodeVisitors.length - 1; i >= 0; i--) {
+      leaveNode(nodeVisitors[i], node);
+    }
+  }
+
+  /**
+   * Walk a pruned subtree: no visitor is subscribed to the inner nodes, only the leaves are dispatched.
+   */
+  private void visitLeaves(AstNode node) {
+    for (var child : node.getChildren()) {
+      if (child.hasChildren()) {
+        visitToken(child);
+        visitLeaves(child);
+      } else {
+        visit(child);
+      }
+    }
+  }
+
+  private void visitToken(AstNode node) {
+    var token = node.getToken();
+    if (token != null && token != lastVisitedToken) {
+      lastVisitedToken = token;
+      for (var visitor : astAndTokenVisitors) {
+        visitToken(visitor, token);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event emitted by {@link AstScanner} for each scanned file.
+ *
+ * The duration of the event covers preprocessing, parsing and visiting of the file, so GC pauses and allocation spikes
+ * in a recording can be correlated with the file causing them. The fields are only filled if the event is recorded.
+ */
+@Name(FileScannedEvent.NAME)
+@Label("File Scanned")
+@Description("Preprocessing, parsing and visiting of a source file")
+@Category({"SonarCXX", "Analysis"})
+@StackTrace(false)
+public class FileScannedEvent extends jdk.jfr.Event {
+
+  public static final String NAME = "org.sonar.cxx.FileScanned";
+
+  @Label("Path")
+  String path;
+
+  @Label("Parse Time")
+  @Description("Time to preprocess and parse the file")
+  @Timespan(Timespan.NANOSECONDS)
+  long parseTime;
+
+  @Label("Visit Time")
+  @Description("Time spent in the visitors and checks")
+  @Timespan(Timespan.NANOSECONDS)
+  long visitTime;
+
+  @Label("Parse Error")
+  boolean parseError;
+
+}
@@ -0,0 +1,150 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.sslr.internal.vm.CompilationHandler;
+import org.sonar.sslr.internal.vm.Instruction;
+import org.sonar.sslr.internal.vm.ParsingExpression;
+import org.sonar.sslr.internal.vm.RuleRefExpression;
+
+/**
+ * Node types of the grammar rules which can occur below the node of a grammar rule.
+ *
+ * The rules are collected starting at the root rule of the grammar. The sub-expressions of a rule are enumerated by
+ * compiling its expression with a handler which records the referenced rules instead of compiling them.
+ */
+public final class GrammarReachability {
+
+  private final Map<AstNodeType, Set<AstNodeType>> descendants = new IdentityHashMap<>();
+
+  private GrammarReachability() {
+  }
+
+  /**
+   * Compute the reachability of the rules of a grammar.
+   *
+   * @param grammar grammar with root rule
+   * @return reachability of the rules reachable from the root rule
+   */
+  public static GrammarReachability of(Grammar grammar) {
+    var reachability = new GrammarReachability();
+    var children = new IdentityHashMap<AstNodeType, Set<AstNodeType>>();
+    var pending = new ArrayDeque<RuleDefinition>();
+    var root = (RuleDefinition) grammar.getRootRule();
+    pending.add(root);
+    children.put(root.getRealAstNodeType(), null);
+    while (!pending.isEmpty()) {
+      var rule = pending.poll();
+      var collector = new RuleCollector(grammar);
+      if (rule.getExpression() != null) {
+        collector.compile(rule.getExpression());
+      }
+      children.put(rule.getRealAstNodeType(), collector.types());
+      for (var child : collector.rules) {
+        if (!children.containsKey(child.getRealAstNodeType())) {
+          children.put(child.getRealAstNodeType(), null);
+          pending.add(child);
+        }
+      }
+    }
+
+    for (var type : children.keySet()) {
+      var reachable = Collections.newSetFromMap(new IdentityHashMap<AstNodeType, Boolean>());
+      var stack = new ArrayDeque<AstNodeType>(children.get(type));
+      while (!stack.isEmpty()) {
+        var next = stack.pop();
+        if (reachable.add(next)) {
+          stack.addAll(children.get(next));
+        }
+      }
+      reachability.descendants.put(type, Collections.unmodifiableSet(reachable));
+    }
+    return reachability;
+  }
+
+  /**
+   * @return node types of all rules reachable from the root rule
+   */
+  public Set<AstNodeType> getRules() {
+    return Collections.unmodifiableSet(descendants.keySet());
+  }
+
+  /**
+   * @return true if the node type is a rule of the grammar
+   */
+  public boolean isRule(AstNodeType type) {
+    return descendants.containsKey(type);
+  }
+
+  /**
+   * Node types of the rules which can occur below a node of the given rule.
+   *
+   * @param type node type of a rule
+   * @return descendant rule types or null if the type is not a rule of the grammar
+   */
+  public Set<AstNodeType> getDescendants(AstNodeType type) {
+    return descendants.get(type);
+  }
+
+  /**
+   * Records the rules referenced by an expression.
+   */
+  private static class RuleCollector extends CompilationHandler {
+
+    private static final Instruction[] NO_INSTRUCTIONS = new Instruction[0];
+
+    private final Grammar grammar;
+    private final Set<RuleDefinition> rules = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    RuleCollector(Grammar grammar) {
+      this.grammar = grammar;
+    }
+
+    @Override
+    public Instruction[] compile(ParsingExpression expression) {
+      if (expression instanceof RuleDefinition) {
+        rules.add((RuleDefinition) expression);
+        return NO_INSTRUCTIONS;
+      }
+      if (expression instanceof RuleRefExpression) {
+        rules.add((RuleDefinition) grammar.rule(((RuleRefExpression) expression).getRuleKey()));
+        return NO_INSTRUCTIONS;
+      }
+      return expression.compile(this);
+    }
+
+    Set<AstNodeType> types() {
+      var types = Collections.newSetFromMap(new IdentityHashMap<AstNodeType, Boolean>());
+      for (var rule : rules) {
+        types.add(rule.getRealAstNodeType());
+      }
+      return types;
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Lines of a file content. The line boundaries are computed once, the lines are views on the content: no characters
+ * are copied until {@link CharSequence#toString()} is called on a line.
+ *
+ * Line terminators are <code>\r\n</code>, <code>\n</code> and <code>\r</code>, they are not part of the lines. Like
+ * <code>content.split("(?:\r)?\n|\r", -1)</code> a content ending with a line terminator has an empty last line.
+ */
+public final class LineIndex extends AbstractList<CharSequence> implements RandomAccess {
+
+  private final String content;
+  private int[] bounds; // start and end offset of each line
+  private int size;
+
+  public LineIndex(String content) {
+    this.content = content;
+    bounds = new int[2 * 64];
+    var start = 0;
+    var length = content.length();
+    for (int i = 0; i < length; i++) {
+      var c = content.charAt(i);
+      if (c == '\n' || c == '\r') {
+        addLine(start, i);
+        if (c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') {
+          i++;
+        }
+        start = i + 1;
+      }
+    }
+    addLine(start, length);
+  }
+
+  private void addLine(int start, int end) {
+    if (2 * size == bounds.length) {
+      bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+    }
+    bounds[2 * size] = start;
+    bounds[2 * size + 1] = end;
+    size++;
+  }
+
+  /**
+   * @return the indexed content
+   */
+  public String getContent() {
+    return content;
+  }
+
+  /**
+   * @param index index of the line, the first line has index 0
+   * @return offset of the first character of the line in the content
+   */
+  public int getStartOffset(int index) {
+    checkIndex(index);
+    return bounds[2 * index];
+  }
+
+  /**
+   * @param index index of the line, the first line has index 0
+   * @return offset behind the last character of the line (without line terminator) in the content
+   */
+  public int getEndOffset(int index) {
+    checkIndex(index);
+    return bounds[2 * index + 1];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CharSequence get(int index) {
+    checkIndex(index);
+    return new Line(content, bounds[2 * index], bounds[2 * index + 1]);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Line index " + index + " out of range [0, " + size + ")");
+    }
+  }
+
+  private static final class Line implements CharSequence {
+
+    private final String content;
+    private final int start;
+    private final int end;
+
+    private Line(String content, int start, int end) {
+      this.content = content;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + length() + ")");
+      }
+      return content.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      if (from < 0 || from > to || to > length()) {
+        throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of range [0, " + length() + ")");
+      }
+      return new Line(content, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      return content.substring(start, end);
+    }
+  }
+
+}
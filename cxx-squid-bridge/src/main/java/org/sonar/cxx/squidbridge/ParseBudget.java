@@ -0,0 +1,115 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+/**
+ * Time and step budget of the parser for a single file.
+ *
+ * The parser reports its progress via {@link #step()}; if the budget of the running parse is exceeded an
+ * {@link ExceededException} is thrown, {@link AstScanner} catches it and analyzes the file on token level. Files are
+ * parsed sequentially, therefore a single running budget is sufficient. Without a running budget {@link #step()} only
+ * reads a static field.
+ */
+public final class ParseBudget {
+
+  private static final int TIME_CHECK_INTERVAL = 1024;
+
+  private static ParseBudget current = null;
+
+  private final long timeoutMillis;
+  private final long maxSteps;
+  private long deadline;
+  private long steps;
+
+  /**
+   * @param timeoutMillis maximum parse time in milliseconds, 0 for no time limit
+   * @param maxSteps maximum number of parser steps, 0 for no step limit
+   */
+  public ParseBudget(long timeoutMillis, long maxSteps) {
+    this.timeoutMillis = timeoutMillis;
+    this.maxSteps = maxSteps;
+  }
+
+  public long getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  public long getMaxSteps() {
+    return maxSteps;
+  }
+
+  public boolean isEnabled() {
+    return timeoutMillis > 0 || maxSteps > 0;
+  }
+
+  /**
+   * Start the budget for the next parse.
+   */
+  public void start() {
+    deadline = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000L : 0;
+    steps = 0;
+    current = isEnabled() ? this : null;
+  }
+
+  /**
+   * Stop the running budget.
+   */
+  public static void stop() {
+    current = null;
+  }
+
+  /**
+   * Count a parser step.
+   *
+   * @throws ExceededException if the budget of the running parse is exceeded
+   */
+  public static void step() {
+    var budget = current;
+    if (budget != null) {
+      budget.count();
+    }
+  }
+
+  private void count() {
+    steps++;
+    if (maxSteps > 0 && steps > maxSteps) {
+      current = null;
+      throw new ExceededException("Parse budget exceeded: more than " + maxSteps + " steps");
+    }
+    if (deadline != 0 && (steps % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() - deadline > 0) {
+      current = null;
+      throw new ExceededException("Parse budget exceeded: more than " + timeoutMillis + " ms");
+    }
+  }
+
+  /**
+   * Thrown by the parser if the budget of a file is exceeded.
+   */
+  public static class ExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExceededException(String message) {
+      // the stack trace of the parser is of no interest
+      super(message, null, false, false);
+    }
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstVisitor;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * {@link AstWalker} measuring the wall time and the number of invocations of each visitor.
+ *
+ * All calls of visitFile, visitNode, visitToken, leaveNode and leaveFile are accounted to the visitor, the costs are
+ * accumulated over all walked files.
+ */
+public class ProfilingAstWalker extends AstWalker {
+
+  private final Map<AstVisitor, Cost> costs = new IdentityHashMap<>();
+
+  public ProfilingAstWalker(List<? extends AstVisitor> visitors) {
+    super(visitors);
+    for (var visitor : visitors) {
+      costs.put(visitor, new Cost(visitor));
+    }
+  }
+
+  /**
+   * Costs of all visitors, sorted by descending time.
+   */
+  public List<Cost> getCosts() {
+    var result = new ArrayList<Cost>(costs.values());
+    result.sort(Comparator.comparingLong(Cost::getNanos).reversed());
+    return result;
+  }
+
+  @Override
+  protected void visitFile(AstVisitor visitor, @Nullable AstNode ast) {
+    var start = System.nanoTime();
+    super.visitFile(visitor, ast);
+    account(visitor, start);
+  }
+
+  @Override
+  protected void visitNode(AstVisitor visitor, AstNode node) {
+    var start = System.nanoTime();
+    super.visitNode(visitor, node);
+    account(visitor, start);
+  }
+
+  @Override
+  protected void visitToken(AstAndTokenVisitor visitor, Token token) {
+    var start = System.nanoTime();
+    super.visitToken(visitor, token);
+    account(visitor, start);
+  }
+
+  @Override
+  protected void leaveNode(AstVisitor visitor, AstNode node) {
+    var start = System.nanoTime();
+    super.leaveNode(visitor, node);
+    account(visitor, start);
+  }
+
+  @Override
+  protected void leaveFile(AstVisitor visitor, @Nullable AstNode ast) {
+    var start = System.nanoTime();
+    super.leaveFile(visitor, ast);
+    account(visitor, start);
+  }
+
+  private void account(AstVisitor visitor, long start) {
+    var elapsed = System.nanoTime() - start;
+    var cost = costs.computeIfAbsent(visitor, Cost::new);
+    cost.nanos += elapsed;
+    cost.calls++;
+  }
+
+  /**
+   * Accumulated wall time and number of invocations of a visitor.
+   */
+  public static final class Cost {
+
+    private final AstVisitor visitor;
+    private long nanos;
+    private long calls;
+
+    Cost(AstVisitor visitor) {
+      this.visitor = visitor;
+    }
+
+    public AstVisitor getVisitor() {
+      return visitor;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+  }
+
+}
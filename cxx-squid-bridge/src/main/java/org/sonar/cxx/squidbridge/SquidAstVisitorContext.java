@@ -43,6 +43,14 @@ public abstract class SquidAstVisitorContext<G extends Grammar> {
 
   public abstract List<String> getInputFileLines();
 
+  /**
+   * Lines of the current input file as views on {@link #getInputFileContent()}. The content is read and the lines are
+   * indexed once per file, all visitors share the result.
+   *
+   * @return lines of the current input file
+   */
+  public abstract LineIndex getInputFileLineIndex();
+
   public abstract G getGrammar();
 
   public abstract void addSourceCode(SourceCode child);
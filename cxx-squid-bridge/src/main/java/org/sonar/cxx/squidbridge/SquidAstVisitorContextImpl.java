@@ -29,7 +29,7 @@ import com.sonar.sslr.api.Token;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -47,6 +47,8 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
   private G grammar;
   private File file;
   private InputFile inputFile;
+  private String inputFileContent;
+  private LineIndex inputFileLineIndex;
   private final SourceProject project;
   private CommentAnalyser commentAnalyser;
 
@@ -103,6 +105,8 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
   public void setFile(File file, MetricDef filesMetric) {
     popTillSourceProject();
     this.file = file;
+    inputFileContent = null;
+    inputFileLineIndex = null;
     var sourceFile = new SourceFile(file.getAbsolutePath(), file.getName());
     addSourceCode(sourceFile);
     peekSourceCode().setMeasure(filesMetric, 1);
@@ -140,11 +144,14 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
    */
   @Override
   public String getInputFileContent() {
-    try {
-      return inputFile.contents();
-    } catch (IOException e) {
-      throw new IllegalStateException(e);
+    if (inputFileContent == null) {
+      try {
+        inputFileContent = inputFile.contents();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
     }
+    return inputFileContent;
   }
 
   /**
@@ -152,7 +159,23 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
    */
   @Override
   public List<String> getInputFileLines() {
-    return Arrays.asList(getInputFileContent().split("(?:\r)?\n|\r", -1));
+    var lines = getInputFileLineIndex();
+    var result = new ArrayList<String>(lines.size());
+    for (var line : lines) {
+      result.add(line.toString());
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public LineIndex getInputFileLineIndex() {
+    if (inputFileLineIndex == null) {
+      inputFileLineIndex = new LineIndex(getInputFileContent());
+    }
+    return inputFileLineIndex;
   }
 
   public SourceProject getProject() {
@@ -29,6 +29,7 @@ import java.util.Set;
 public class SourceFile extends SourceCode {
 
   private final Set<Integer> noSonarTagLines = new HashSet<>();
+  private boolean tokenOnly = false;
 
   public SourceFile(String key) {
     super(key);
@@ -56,4 +57,16 @@ public class SourceFile extends SourceCode {
     noSonarTagLines.add(line);
   }
 
+  /**
+   * True if the file was only lexed and preprocessed but not parsed. Token based measures (lines of code, comments,
+   * highlighting, CPD) are available, AST based measures are not computed.
+   */
+  public boolean isTokenOnly() {
+    return tokenOnly;
+  }
+
+  public void setTokenOnly(boolean tokenOnly) {
+    this.tokenOnly = tokenOnly;
+  }
+
 }
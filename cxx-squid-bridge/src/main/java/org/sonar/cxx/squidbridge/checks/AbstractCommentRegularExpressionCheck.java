@@ -34,6 +34,8 @@ public abstract class AbstractCommentRegularExpressionCheck<G extends Grammar> e
   AstAndTokenVisitor {
 
   private Pattern pattern = null;
+  private MultiPatternMatcher matcher;
+  private int patternId;
 
   // See SONAR-3164
   public abstract String getRegularExpression();
@@ -52,6 +54,8 @@ public abstract class AbstractCommentRegularExpressionCheck<G extends Grammar> e
       } catch (RuntimeException e) {
         throw new IllegalStateException("Unable to compile regular expression: " + regularExpression, e);
       }
+      matcher = MultiPatternMatcher.of(getContext());
+      patternId = matcher.register(pattern);
     }
   }
 
@@ -59,8 +63,11 @@ public abstract class AbstractCommentRegularExpressionCheck<G extends Grammar> e
   public void visitToken(Token token) {
     if (pattern != null) {
       for (var trivia : token.getTrivia()) {
-        if (trivia.isComment() && pattern.matcher(trivia.getToken().getOriginalValue()).matches()) {
-          getContext().createLineViolation(this, getMessage(), trivia.getToken());
+        if (trivia.isComment()) {
+          var comment = trivia.getToken().getOriginalValue();
+          if (matcher.mayMatch(patternId, comment) && pattern.matcher(comment).matches()) {
+            getContext().createLineViolation(this, getMessage(), trivia.getToken());
+          }
         }
       }
     }
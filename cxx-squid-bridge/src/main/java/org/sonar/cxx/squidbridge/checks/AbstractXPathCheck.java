@@ -32,6 +32,7 @@ import java.util.List;
 public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G> {
 
   private AstNodeXPathQuery<Object> query = null;
+  private IndexedXPathQuery indexedQuery = null;
 
   // See SONAR-3164
   public abstract String getXPathQuery();
@@ -45,6 +46,7 @@ public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G
     if (!Strings.isNullOrEmpty(xpath)) {
       try {
         query = AstNodeXPathQuery.create(getXPathQuery());
+        indexedQuery = IndexedXPathQuery.create(xpath);
       } catch (RuntimeException e) {
         throw new IllegalStateException("Unable to initialize the XPath engine, perhaps because of an invalid query: "
                                         + xpath,
@@ -56,8 +58,14 @@ public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G
   @Override
   public void visitFile(AstNode fileNode) {
     if (query != null && fileNode != null) {
-      List<Object> objects = query.selectNodes(fileNode);
+      if (indexedQuery != null) {
+        for (var astNode : indexedQuery.selectNodes(IndexedXPathQuery.index(getContext(), fileNode))) {
+          getContext().createLineViolation(this, getMessage(), astNode.getTokenLine());
+        }
+        return;
+      }
 
+      List<Object> objects = query.selectNodes(fileNode);
       for (var object : objects) {
         if (object instanceof AstNode) {
           var astNode = (AstNode) object;
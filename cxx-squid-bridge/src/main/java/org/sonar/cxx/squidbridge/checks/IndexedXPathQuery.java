@@ -0,0 +1,283 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.checks;
+
+import com.sonar.sslr.api.AstNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+/**
+ * Evaluation of simple XPath queries on an index of the AST.
+ *
+ * Supported are location paths starting with <code>//</code> whose steps are node names connected by <code>/</code>
+ * (child) or <code>//</code> (descendant), each step can have one predicate comparing an attribute with a string
+ * literal, e.g. <code>//functionDefinition//IDENTIFIER[@tokenValue='goto']</code>. The candidates for the last step
+ * are taken from an index of the file AST by node name, the other steps are verified along the ancestors. All
+ * queries on the same context share one index per file (see {@link #index(SquidAstVisitorContext, AstNode)}). The
+ * result is the same as the one of the generic engine: the matching nodes in document order.
+ */
+final class IndexedXPathQuery {
+
+  private static final Map<SquidAstVisitorContext<?>, Index> INDEXES = new WeakHashMap<>();
+
+  private final List<Step> steps;
+
+  private IndexedXPathQuery(List<Step> steps) {
+    this.steps = steps;
+  }
+
+  /**
+   * Create an indexed query.
+   *
+   * @param xpath XPath query
+   * @return indexed query or null if the query is not supported
+   */
+  @CheckForNull
+  static IndexedXPathQuery create(String xpath) {
+    var parser = new Parser(xpath.trim());
+    var steps = parser.parse();
+    return steps != null ? new IndexedXPathQuery(steps) : null;
+  }
+
+  /**
+   * Index of a file AST shared by the queries working on the same context.
+   *
+   * @param context context of the checks
+   * @param fileNode root node of the file
+   * @return index of the AST
+   */
+  static Index index(SquidAstVisitorContext<?> context, AstNode fileNode) {
+    synchronized (INDEXES) {
+      var index = INDEXES.get(context);
+      if (index == null || index.root != fileNode) {
+        index = new Index(fileNode);
+        INDEXES.put(context, index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Select the nodes matching the query.
+   *
+   * @param index index of the file AST
+   * @return matching nodes in document order
+   */
+  List<AstNode> selectNodes(Index index) {
+    var last = steps.size() - 1;
+    var result = new ArrayList<AstNode>();
+    for (var node : index.nodes(steps.get(last).name)) {
+      if (steps.get(last).matchesPredicate(node) && matchesAncestors(node, last)) {
+        result.add(node);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Check if the steps before a step match the ancestors of a node matching the step.
+   */
+  private boolean matchesAncestors(AstNode node, int step) {
+    if (step == 0) {
+      return true;
+    }
+    var previous = steps.get(step - 1);
+    if (steps.get(step).child) {
+      var parent = node.getParent();
+      return parent != null && previous.matches(parent) && matchesAncestors(parent, step - 1);
+    }
+    for (var ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+      if (previous.matches(ancestor) && matchesAncestors(ancestor, step - 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Nodes of a file AST by name, in document order.
+   */
+  static final class Index {
+
+    private final AstNode root;
+    private final Map<String, List<AstNode>> nodes = new HashMap<>();
+
+    Index(AstNode root) {
+      this.root = root;
+      var stack = new ArrayList<AstNode>();
+      stack.add(root);
+      while (!stack.isEmpty()) {
+        var node = stack.remove(stack.size() - 1);
+        nodes.computeIfAbsent(node.getName(), n -> new ArrayList<>()).add(node);
+        var children = node.getChildren();
+        for (int i = children.size() - 1; i >= 0; i--) {
+          stack.add(children.get(i));
+        }
+      }
+    }
+
+    List<AstNode> nodes(String name) {
+      return nodes.getOrDefault(name, Collections.emptyList());
+    }
+  }
+
+  private static final class Step {
+
+    private final boolean child;
+    private final String name;
+    private final String attribute;
+    private final String value;
+
+    private Step(boolean child, String name, @Nullable String attribute, @Nullable String value) {
+      this.child = child;
+      this.name = name;
+      this.attribute = attribute;
+      this.value = value;
+    }
+
+    boolean matches(AstNode node) {
+      return name.equals(node.getName()) && matchesPredicate(node);
+    }
+
+    boolean matchesPredicate(AstNode node) {
+      if (attribute == null) {
+        return true;
+      }
+      var token = node.getToken();
+      if (token == null) {
+        return false;
+      }
+      switch (attribute) {
+        case "tokenValue":
+          return value.equals(token.getValue());
+        case "tokenLine":
+          return value.equals(Integer.toString(token.getLine()));
+        default: // tokenColumn
+          return value.equals(Integer.toString(token.getColumn()));
+      }
+    }
+  }
+
+  /**
+   * Parser of the supported subset: ('/' | '//') name ('[' '@' attribute '=' literal ']')?, the first step must use
+   * '//'.
+   */
+  private static final class Parser {
+
+    private final String xpath;
+    private int pos;
+
+    Parser(String xpath) {
+      this.xpath = xpath;
+    }
+
+    @CheckForNull
+    List<Step> parse() {
+      var steps = new ArrayList<Step>();
+      while (pos < xpath.length()) {
+        if (!consume('/')) {
+          return null;
+        }
+        var child = !consume('/');
+        if (steps.isEmpty() && child) {
+          return null;
+        }
+        var name = name();
+        if (name == null) {
+          return null;
+        }
+        String attribute = null;
+        String value = null;
+        if (consume('[')) {
+          skipWhitespace();
+          if (!consume('@')) {
+            return null;
+          }
+          attribute = name();
+          if (!"tokenValue".equals(attribute) && !"tokenLine".equals(attribute) && !"tokenColumn".equals(attribute)) {
+            return null;
+          }
+          skipWhitespace();
+          if (!consume('=')) {
+            return null;
+          }
+          skipWhitespace();
+          value = literal();
+          skipWhitespace();
+          if (value == null || !consume(']')) {
+            return null;
+          }
+        }
+        steps.add(new Step(child, name, attribute, value));
+      }
+      return steps.isEmpty() ? null : steps;
+    }
+
+    private boolean consume(char c) {
+      if (pos < xpath.length() && xpath.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (pos < xpath.length() && Character.isWhitespace(xpath.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    @CheckForNull
+    private String name() {
+      var start = pos;
+      while (pos < xpath.length()
+               && (Character.isLetterOrDigit(xpath.charAt(pos)) || xpath.charAt(pos) == '_')) {
+        pos++;
+      }
+      if (pos == start || Character.isDigit(xpath.charAt(start))) {
+        return null;
+      }
+      return xpath.substring(start, pos);
+    }
+
+    @CheckForNull
+    private String literal() {
+      if (pos >= xpath.length() || (xpath.charAt(pos) != '\'' && xpath.charAt(pos) != '"')) {
+        return null;
+      }
+      var quote = xpath.charAt(pos);
+      var end = xpath.indexOf(quote, pos + 1);
+      if (end < 0) {
+        return null;
+      }
+      var literal = xpath.substring(pos + 1, end);
+      pos = end + 1;
+      return literal;
+    }
+  }
+
+}
@@ -0,0 +1,400 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.checks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+/**
+ * Prefilter shared by the regular expression checks of an analysis.
+ *
+ * Every check registers its pattern once (see {@link #register(Pattern)}). For each pattern a literal is extracted
+ * that is part of every match (e.g. <code>strcpy</code> for <code>\bstrcpy\s*\(</code>). The literals of all patterns
+ * are searched at once with an Aho-Corasick automaton, a text is scanned only once for all checks. A check has to
+ * verify its pattern only if the literal was found, patterns without a literal always have to be verified.
+ *
+ * All checks working on the same context share one instance (see {@link #of(SquidAstVisitorContext)}). The result of
+ * the last scanned text is cached, the texts are compared by identity.
+ */
+public final class MultiPatternMatcher {
+
+  private static final Map<SquidAstVisitorContext<?>, MultiPatternMatcher> MATCHERS = new WeakHashMap<>();
+  private static final int MIN_LITERAL_LENGTH = 2;
+  private static final int SUPPORTED_FLAGS = Pattern.DOTALL | Pattern.MULTILINE | Pattern.UNIX_LINES;
+  private static final String BREAKING_ESCAPES = "dDwWsSbBAzZGntrfaehHvVR";
+
+  private final List<String> literals = new ArrayList<>();
+  private final Map<String, Integer> literalIds = new HashMap<>();
+  private int[] patternLiterals = new int[16];
+  private int patterns;
+  private Automaton automaton;
+
+  private CharSequence text;
+  private BitSet literalsOfText;
+  private CharSequence linesText;
+  private BitSet[] linesOfLiterals;
+
+  MultiPatternMatcher() {
+  }
+
+  /**
+   * Matcher shared by all checks working on the same context.
+   *
+   * @param context visitor context of the checks
+   * @return shared matcher
+   */
+  public static MultiPatternMatcher of(SquidAstVisitorContext<?> context) {
+    synchronized (MATCHERS) {
+      return MATCHERS.computeIfAbsent(context, c -> new MultiPatternMatcher());
+    }
+  }
+
+  /**
+   * Register a pattern.
+   *
+   * @param pattern pattern of a check
+   * @return id of the pattern
+   */
+  public int register(Pattern pattern) {
+    var literal = requiredLiteral(pattern);
+    var literalId = -1;
+    if (literal != null) {
+      literalId = literalIds.computeIfAbsent(literal, l -> {
+        literals.add(l);
+        automaton = null;
+        return literals.size() - 1;
+      });
+    }
+    if (patterns == patternLiterals.length) {
+      patternLiterals = Arrays.copyOf(patternLiterals, 2 * patterns);
+    }
+    patternLiterals[patterns] = literalId;
+    return patterns++;
+  }
+
+  /**
+   * Check if a pattern can match (find or match) a text.
+   *
+   * @param id id of the pattern
+   * @param text text to search
+   * @return false if the pattern can't match the text, true if the pattern has to be verified
+   */
+  public boolean mayMatch(int id, CharSequence text) {
+    var literalId = patternLiterals[id];
+    if (literalId < 0) {
+      return true;
+    }
+    var scanner = automaton();
+    if (text == linesText) {
+      return linesOfLiterals[literalId] != null;
+    }
+    if (text != this.text) {
+      literalsOfText = new BitSet(literals.size());
+      scanner.scan(text, (literal, line) -> literalsOfText.set(literal));
+      this.text = text;
+    }
+    return literalsOfText.get(literalId);
+  }
+
+  /**
+   * Lines of a text a pattern can find a match in.
+   *
+   * @param id id of the pattern
+   * @param content text to search, line terminators are <code>\r\n</code>, <code>\n</code> and <code>\r</code>
+   * @return indexes (starting with 0) of the lines the pattern has to be verified for, null if the pattern has to be
+   * verified for all lines
+   */
+  @CheckForNull
+  public BitSet candidateLines(int id, CharSequence content) {
+    var literalId = patternLiterals[id];
+    if (literalId < 0) {
+      return null;
+    }
+    var scanner = automaton();
+    if (content != linesText) {
+      linesOfLiterals = new BitSet[literals.size()];
+      scanner.scan(content, (literal, line) -> {
+        if (linesOfLiterals[literal] == null) {
+          linesOfLiterals[literal] = new BitSet();
+        }
+        linesOfLiterals[literal].set(line);
+      });
+      linesText = content;
+    }
+    var lines = linesOfLiterals[literalId];
+    return lines != null ? lines : new BitSet();
+  }
+
+  private Automaton automaton() {
+    if (automaton == null) {
+      automaton = new Automaton(literals);
+      text = null;
+      linesText = null;
+    }
+    return automaton;
+  }
+
+  /**
+   * Longest literal which is part of every match of a pattern.
+   *
+   * The extraction is conservative: only characters outside of groups and character classes which are not optional
+   * are used. Patterns with a top-level alternation, inline flags, quoting or flags changing the matching of
+   * characters have no literal.
+   *
+   * @param pattern pattern to analyze
+   * @return literal or null if there is no literal with at least two characters
+   */
+  @CheckForNull
+  static String requiredLiteral(Pattern pattern) {
+    var regex = pattern.pattern();
+    if ((pattern.flags() & ~SUPPORTED_FLAGS) != 0 || regex.contains("(?") || regex.contains("\\Q")) {
+      return null;
+    }
+    var best = "";
+    var run = new StringBuilder();
+    var depth = 0;
+    var length = regex.length();
+    for (int i = 0; i < length; i++) {
+      var c = regex.charAt(i);
+      if (c == '\\') {
+        if (++i == length) {
+          return null;
+        }
+        var escaped = regex.charAt(i);
+        if (Character.isLetterOrDigit(escaped)) {
+          if (BREAKING_ESCAPES.indexOf(escaped) == -1) {
+            return null; // escape with arguments or back reference
+          }
+          best = longer(best, run);
+        } else if (depth == 0) {
+          run.append(escaped);
+        }
+      } else if (c == '[') {
+        i = skipCharacterClass(regex, i);
+        if (i < 0) {
+          return null;
+        }
+        best = longer(best, run);
+      } else if (c == '(' || c == ')') {
+        depth += c == '(' ? 1 : -1;
+        best = longer(best, run);
+      } else if (c == '|') {
+        if (depth == 0) {
+          return null;
+        }
+      } else if (depth > 0) {
+        // characters of groups are not used
+      } else if (c == '?' || c == '*' || c == '{') {
+        // the preceding character is optional
+        if (run.length() > 0) {
+          run.setLength(run.length() - 1);
+        }
+        best = longer(best, run);
+        if (c == '{') {
+          i = regex.indexOf('}', i);
+          if (i < 0) {
+            return null;
+          }
+        }
+        i = skipQuantifierMode(regex, i);
+      } else if (c == '+') {
+        // the preceding character is required but can be repeated
+        best = longer(best, run);
+        i = skipQuantifierMode(regex, i);
+      } else if (c == '.' || c == '^' || c == '$' || c == '\n' || c == '\r') {
+        best = longer(best, run);
+      } else {
+        run.append(c);
+      }
+    }
+    best = longer(best, run);
+    return best.length() >= MIN_LITERAL_LENGTH ? best : null;
+  }
+
+  private static String longer(String best, StringBuilder run) {
+    var result = run.length() > best.length() ? run.toString() : best;
+    run.setLength(0);
+    return result;
+  }
+
+  private static int skipQuantifierMode(String regex, int i) {
+    if (i + 1 < regex.length() && (regex.charAt(i + 1) == '?' || regex.charAt(i + 1) == '+')) {
+      return i + 1;
+    }
+    return i;
+  }
+
+  private static int skipCharacterClass(String regex, int start) {
+    var nesting = 0;
+    var i = start + 1;
+    if (i < regex.length() && regex.charAt(i) == '^') {
+      i++;
+    }
+    if (i < regex.length() && regex.charAt(i) == ']') {
+      i++; // literal ']'
+    }
+    for (; i < regex.length(); i++) {
+      var c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        nesting++;
+      } else if (c == ']') {
+        if (nesting == 0) {
+          return i;
+        }
+        nesting--;
+      }
+    }
+    return -1;
+  }
+
+  @FunctionalInterface
+  private interface MatchHandler {
+
+    void found(int literal, int line);
+  }
+
+  /**
+   * Aho-Corasick automaton over the literals. The transitions of a state are stored as sorted character array.
+   */
+  private static final class Automaton {
+
+    private char[][] labels;
+    private int[][] targets;
+    private int[] fail;
+    private int[] output; // literal ending in this state or -1
+    private int[] nextOutput; // next state on the fail chain with an output or -1
+    private int states;
+
+    Automaton(List<String> literals) {
+      var capacity = 1;
+      for (var literal : literals) {
+        capacity += literal.length();
+      }
+      labels = new char[capacity][];
+      targets = new int[capacity][];
+      fail = new int[capacity];
+      output = new int[capacity];
+      nextOutput = new int[capacity];
+      newState();
+      for (int id = 0; id < literals.size(); id++) {
+        var state = 0;
+        for (var c : literals.get(id).toCharArray()) {
+          var next = transition(state, c);
+          if (next < 0) {
+            next = newState();
+            addTransition(state, c, next);
+          }
+          state = next;
+        }
+        output[state] = id;
+      }
+      computeFailLinks();
+    }
+
+    private int newState() {
+      labels[states] = new char[0];
+      targets[states] = new int[0];
+      output[states] = -1;
+      nextOutput[states] = -1;
+      return states++;
+    }
+
+    private void addTransition(int state, char c, int target) {
+      var stateLabels = labels[state];
+      var pos = -(Arrays.binarySearch(stateLabels, c) + 1);
+      var newLabels = new char[stateLabels.length + 1];
+      var newTargets = new int[stateLabels.length + 1];
+      System.arraycopy(stateLabels, 0, newLabels, 0, pos);
+      System.arraycopy(targets[state], 0, newTargets, 0, pos);
+      newLabels[pos] = c;
+      newTargets[pos] = target;
+      System.arraycopy(stateLabels, pos, newLabels, pos + 1, stateLabels.length - pos);
+      System.arraycopy(targets[state], pos, newTargets, pos + 1, stateLabels.length - pos);
+      labels[state] = newLabels;
+      targets[state] = newTargets;
+    }
+
+    private int transition(int state, char c) {
+      var pos = Arrays.binarySearch(labels[state], c);
+      return pos >= 0 ? targets[state][pos] : -1;
+    }
+
+    private void computeFailLinks() {
+      var queue = new ArrayDeque<Integer>();
+      for (var child : targets[0]) {
+        fail[child] = 0;
+        queue.add(child);
+      }
+      while (!queue.isEmpty()) {
+        int state = queue.poll();
+        for (int i = 0; i < labels[state].length; i++) {
+          var c = labels[state][i];
+          var child = targets[state][i];
+          var f = fail[state];
+          while (f > 0 && transition(f, c) < 0) {
+            f = fail[f];
+          }
+          var target = transition(f, c);
+          fail[child] = target >= 0 ? target : 0;
+          nextOutput[child] = output[fail[child]] >= 0 ? fail[child] : nextOutput[fail[child]];
+          queue.add(child);
+        }
+      }
+    }
+
+    void scan(CharSequence text, MatchHandler handler) {
+      var state = 0;
+      var line = 0;
+      var length = text.length();
+      for (int i = 0; i < length; i++) {
+        var c = text.charAt(i);
+        if (c == '\n' || c == '\r') {
+          // literals contain no line terminators
+          if (c == '\n' || i + 1 == length || text.charAt(i + 1) != '\n') {
+            line++;
+          }
+          state = 0;
+          continue;
+        }
+        var next = transition(state, c);
+        while (next < 0 && state > 0) {
+          state = fail[state];
+          next = transition(state, c);
+        }
+        state = next < 0 ? 0 : next;
+        for (var s = output[state] >= 0 ? state : nextOutput[state]; s >= 0; s = nextOutput[s]) {
+          handler.found(output[s], line);
+        }
+      }
+    }
+  }
+
+}
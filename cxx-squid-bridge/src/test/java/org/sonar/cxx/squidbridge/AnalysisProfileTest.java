@@ -0,0 +1,108 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.cxx.squidbridge.AnalysisProfile.Phase;
+import org.sonar.cxx.squidbridge.test.miniC.MiniCAstScanner;
+
+public class AnalysisProfileTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @After
+  public void reset() {
+    AnalysisProfile.setEnabled(false);
+    AnalysisProfile.resetReport();
+  }
+
+  @Test
+  public void disabledByDefault() {
+    scan("/metrics/comments.mc");
+    assertThat(AnalysisProfile.getFiles()).isEmpty();
+    assertThat(AnalysisProfile.current()).isNull();
+  }
+
+  @Test
+  public void recordFiles() {
+    AnalysisProfile.setEnabled(true);
+    scan("/metrics/comments.mc");
+    scan("/metrics/lines.mc");
+
+    assertThat(AnalysisProfile.getFiles()).hasSize(2);
+    var profile = AnalysisProfile.getFiles().get(0);
+    assertThat(profile.getPath()).endsWith("comments.mc");
+    assertThat(profile.getNodes()).isGreaterThan(profile.getTokens());
+    assertThat(profile.getTokens()).isGreaterThan(0L);
+    assertThat(profile.get(Phase.PARSING)).isGreaterThan(0L);
+    assertThat(profile.getTotal()).isEqualTo(profile.get(Phase.LEXING) + profile.get(Phase.PARSING)
+                                               + profile.get(Phase.VISITORS));
+    assertThat(AnalysisProfile.current()).isNull();
+  }
+
+  @Test
+  public void slowest() {
+    AnalysisProfile.setEnabled(true);
+    var fast = AnalysisProfile.start(new File("fast.c"));
+    fast.add(Phase.PARSING, 10);
+    AnalysisProfile.stop(fast);
+    var slow = AnalysisProfile.start(new File("slow.c"));
+    slow.add(Phase.LEXING, 20);
+    slow.add(Phase.INCLUDES, 15);
+    AnalysisProfile.stop(slow);
+
+    assertThat(AnalysisProfile.slowest(5)).containsExactly(slow, fast);
+    assertThat(AnalysisProfile.slowest(1)).containsExactly(slow);
+  }
+
+  @Test
+  public void save() throws IOException {
+    AnalysisProfile.setEnabled(true);
+    var profile = AnalysisProfile.start(new File("dir/\"quoted\".c"));
+    profile.add(Phase.PARSING, 1_500_000);
+    AnalysisProfile.stop(profile);
+
+    var dir = tempFolder.newFolder();
+    AnalysisProfile.save(dir);
+
+    var json = Files.readString(dir.toPath().resolve(AnalysisProfile.JSON_FILE), StandardCharsets.UTF_8);
+    assertThat(json).contains("\"file\":\"dir" + File.separator.replace("\\", "\\\\") + "\\\"quoted\\\".c\"");
+    assertThat(json).contains("\"totalMs\":1.500");
+    var csv = Files.readAllLines(dir.toPath().resolve(AnalysisProfile.CSV_FILE), StandardCharsets.UTF_8);
+    assertThat(csv).hasSize(2);
+    assertThat(csv.get(0)).startsWith("file,totalMs,");
+    assertThat(csv.get(1)).endsWith("\"\"quoted\"\".c\",1.500,0.000,0.000,0.000,1.500,0.000,0,0");
+  }
+
+  private static void scan(String resource) {
+    MiniCAstScanner.create().scanFile(FileUtils.toFile(AnalysisProfileTest.class.getResource(resource)));
+  }
+
+}
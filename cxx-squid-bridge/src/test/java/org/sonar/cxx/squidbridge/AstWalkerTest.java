@@ -0,0 +1,223 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.AstVisitor;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.test.minic.MiniCGrammar;
+import com.sonar.sslr.test.minic.MiniCParser;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AstWalkerTest {
+
+  private AstNode ast;
+
+  @Before
+  public void setUp() {
+    ast = new AstNode(NodeType.ROOT, "root", null);
+    ast.addChild(new AstNode(NodeType.CHILD, "first", token("a")));
+    ast.addChild(new AstNode(NodeType.OTHER, "second", token("b")));
+    ast.addChild(new AstNode(NodeType.CHILD, "third", token("c")));
+  }
+
+  @Test
+  public void dispatchOrder() {
+    var first = new RecordingVisitor("1", NodeType.CHILD);
+    var second = new RecordingVisitor("2", NodeType.ROOT, NodeType.CHILD);
+    var events = new ArrayList<String>();
+    first.events = events;
+    second.events = events;
+
+    new AstWalker(first, second).walkAndVisit(ast);
+
+    assertThat(events).containsExactly(
+      "1 visitFile", "2 visitFile",
+      "2 visitNode root",
+      "1 visitNode first", "2 visitNode first", "1 visitToken a", "2 visitToken a",
+      "2 leaveNode first", "1 leaveNode first",
+      "1 visitToken b", "2 visitToken b",
+      "1 visitNode third", "2 visitNode third", "1 visitToken c", "2 visitToken c",
+      "2 leaveNode third", "1 leaveNode third",
+      "2 leaveNode root",
+      "2 leaveFile", "1 leaveFile");
+  }
+
+  @Test
+  public void profileVisitors() {
+    var first = new RecordingVisitor("1", NodeType.CHILD);
+    var second = new RecordingVisitor("2", NodeType.ROOT, NodeType.CHILD);
+
+    var walker = new ProfilingAstWalker(List.of(first, second));
+    walker.walkAndVisit(ast);
+    walker.walkAndVisit(ast);
+
+    var costs = walker.getCosts();
+    assertThat(costs).hasSize(2);
+    for (var cost : costs) {
+      if (cost.getVisitor() == first) {
+        // visitFile, 2 x visitNode, 3 x visitToken, 2 x leaveNode, leaveFile
+        assertThat(cost.getCalls()).isEqualTo(2 * 9L);
+      } else {
+        // visitFile, 3 x visitNode, 3 x visitToken, 3 x leaveNode, leaveFile
+        assertThat(cost.getCalls()).isEqualTo(2 * 11L);
+      }
+    }
+    assertThat(costs.get(0).getNanos()).isGreaterThanOrEqualTo(costs.get(1).getNanos());
+  }
+
+  @Test
+  public void pruningKeepsDispatchOrder() throws IOException {
+    var file = FileUtils.toFile(AstWalkerTest.class.getResource("/metrics/complexity.mc"));
+    var ast = MiniCParser.parseString(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    var reachability = GrammarReachability.of(MiniCGrammar.create());
+
+    for (var types : List.of(List.of(MiniCGrammar.RETURN_STATEMENT),
+                             List.of(MiniCGrammar.FUNCTION_DEFINITION, GenericTokenType.IDENTIFIER),
+                             List.of(MiniCGrammar.COMPILATION_UNIT))) {
+      var expected = new RecordingVisitor("1", types.toArray(new AstNodeType[0]));
+      new AstWalker(expected).walkAndVisit(ast);
+
+      var actual = new RecordingVisitor("1", types.toArray(new AstNodeType[0]));
+      var walker = new AstWalker(actual);
+      walker.setGrammarReachability(reachability);
+      walker.walkAndVisit(ast);
+
+      assertThat(actual.events).isEqualTo(expected.events);
+    }
+  }
+
+  @Test
+  public void pruningWithoutTokenVisitors() throws IOException {
+    var file = FileUtils.toFile(AstWalkerTest.class.getResource("/metrics/complexity.mc"));
+    var ast = MiniCParser.parseString(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    var visitor = new CountingVisitor(MiniCGrammar.IF_STATEMENT);
+
+    var walker = new AstWalker(visitor);
+    walker.setGrammarReachability(GrammarReachability.of(MiniCGrammar.create()));
+    walker.walkAndVisit(ast);
+
+    assertThat(visitor.count).isEqualTo(ast.getDescendants(MiniCGrammar.IF_STATEMENT).size());
+    assertThat(visitor.count).isGreaterThan(0);
+  }
+
+  private static Token token(String value) {
+    return Token.builder()
+      .setType(GenericTokenType.IDENTIFIER)
+      .setValueAndOriginalValue(value)
+      .setURI(URI.create("tests://unittest"))
+      .setLine(1)
+      .setColumn(0)
+      .build();
+  }
+
+  private enum NodeType implements AstNodeType {
+    ROOT, CHILD, OTHER
+  }
+
+  private static class CountingVisitor implements AstVisitor {
+
+    private final AstNodeType type;
+    private int count = 0;
+
+    CountingVisitor(AstNodeType type) {
+      this.type = type;
+    }
+
+    @Override
+    public List<AstNodeType> getAstNodeTypesToVisit() {
+      return List.of(type);
+    }
+
+    @Override
+    public void visitFile(AstNode ast) {
+      // no action
+    }
+
+    @Override
+    public void visitNode(AstNode ast) {
+      count++;
+    }
+
+    @Override
+    public void leaveNode(AstNode ast) {
+      // no action
+    }
+
+    @Override
+    public void leaveFile(AstNode ast) {
+      // no action
+    }
+  }
+
+  private static class RecordingVisitor implements AstAndTokenVisitor {
+
+    private final String name;
+    private final List<AstNodeType> types;
+    private List<String> events = new ArrayList<>();
+
+    RecordingVisitor(String name, AstNodeType... types) {
+      this.name = name;
+      this.types = List.of(types);
+    }
+
+    @Override
+    public List<AstNodeType> getAstNodeTypesToVisit() {
+      return types;
+    }
+
+    @Override
+    public void visitFile(AstNode ast) {
+      events.add(name + " visitFile");
+    }
+
+    @Override
+    public void visitNode(AstNode ast) {
+      events.add(name + " visitNode " + ast.getName());
+    }
+
+    @Override
+    public void visitToken(Token token) {
+      events.add(name + " visitToken " + token.getValue());
+    }
+
+    @Override
+    public void leaveNode(AstNode ast) {
+      events.add(name + " leaveNode " + ast.getName());
+    }
+
+    @Override
+    public void leaveFile(AstNode ast) {
+      events.add(name + " leaveFile");
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import java.io.IOException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.commons.io.FileUtils;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.cxx.squidbridge.test.miniC.MiniCAstScanner;
+
+public class FileScannedEventTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void recordScannedFiles() throws IOException {
+    var scanner = MiniCAstScanner.create();
+    var file = FileUtils.toFile(FileScannedEventTest.class.getResource("/metrics/comments.mc"));
+
+    try (var recording = new Recording()) {
+      recording.enable(FileScannedEvent.class);
+      recording.start();
+      scanner.scanFile(file);
+      recording.stop();
+      var dump = tempFolder.newFile().toPath();
+      recording.dump(dump);
+
+      var events = RecordingFile.readAllEvents(dump);
+      assertThat(events).hasSize(1);
+      var event = events.get(0);
+      assertThat(event.getEventType().getName()).isEqualTo(FileScannedEvent.NAME);
+      assertThat(event.getString("path")).isEqualTo(file.getPath());
+      assertThat(event.getLong("parseTime")).isGreaterThan(0L);
+      assertThat(event.getBoolean("parseError")).isFalse();
+    }
+  }
+
+}
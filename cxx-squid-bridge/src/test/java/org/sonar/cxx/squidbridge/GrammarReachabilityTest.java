@@ -0,0 +1,45 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.test.minic.MiniCGrammar;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class GrammarReachabilityTest {
+
+  @Test
+  public void descendants() {
+    var reachability = GrammarReachability.of(MiniCGrammar.create());
+
+    assertThat(reachability.isRule(MiniCGrammar.COMPILATION_UNIT)).isTrue();
+    assertThat(reachability.isRule(GenericTokenType.IDENTIFIER)).isFalse();
+    assertThat(reachability.getDescendants(GenericTokenType.IDENTIFIER)).isNull();
+
+    assertThat(reachability.getDescendants(MiniCGrammar.COMPILATION_UNIT))
+      .contains(MiniCGrammar.FUNCTION_DEFINITION, MiniCGrammar.RETURN_STATEMENT, MiniCGrammar.PRIMARY_EXPRESSION);
+    assertThat(reachability.getDescendants(MiniCGrammar.STATEMENT))
+      .contains(MiniCGrammar.IF_STATEMENT, MiniCGrammar.STATEMENT, MiniCGrammar.EXPRESSION)
+      .excludes(MiniCGrammar.FUNCTION_DEFINITION, MiniCGrammar.COMPILATION_UNIT);
+    assertThat(reachability.getDescendants(MiniCGrammar.BIN_TYPE)).isEmpty();
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class LineIndexTest {
+
+  private static void assertSameAsSplit(String content) {
+    var lines = new LineIndex(content);
+    List<String> expected = Arrays.asList(content.split("(?:\r)?\n|\r", -1));
+    assertThat(lines.size()).isEqualTo(expected.size());
+    for (int i = 0; i < lines.size(); i++) {
+      assertThat(lines.get(i).toString()).isEqualTo(expected.get(i));
+      assertThat(lines.get(i).length()).isEqualTo(expected.get(i).length());
+    }
+  }
+
+  @Test
+  public void sameLinesAsSplit() {
+    assertSameAsSplit("");
+    assertSameAsSplit("a");
+    assertSameAsSplit("a\nb");
+    assertSameAsSplit("a\r\nb\r\n");
+    assertSameAsSplit("a\rb\r");
+    assertSameAsSplit("\n\r\n\r");
+    assertSameAsSplit("a\n\rb");
+    assertSameAsSplit("line 1\n\tline 2\r\nline 3");
+  }
+
+  @Test
+  public void linesAreViews() {
+    var lines = new LineIndex("first\r\nsecond line\n");
+    assertThat(lines.getContent()).isEqualTo("first\r\nsecond line\n");
+    assertThat(lines.getStartOffset(1)).isEqualTo(7);
+    assertThat(lines.getEndOffset(1)).isEqualTo(18);
+
+    var line = lines.get(1);
+    assertThat(line.charAt(0)).isEqualTo('s');
+    assertThat(line.subSequence(7, 11).toString()).isEqualTo("line");
+    assertThat(line.subSequence(7, 11).length()).isEqualTo(4);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void lineIndexOutOfRange() {
+    new LineIndex("a\nb").get(2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void charIndexOutOfRange() {
+    new LineIndex("abc\nd").get(1).charAt(1);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParseBudgetTest {
+
+  @After
+  public void tearDown() {
+    ParseBudget.stop();
+  }
+
+  @Test
+  public void stepsWithoutBudget() {
+    for (int i = 0; i < 10_000; i++) {
+      ParseBudget.step();
+    }
+  }
+
+  @Test(expected = ParseBudget.ExceededException.class)
+  public void stepLimit() {
+    var budget = new ParseBudget(0, 3);
+    budget.start();
+    for (int i = 0; i < 4; i++) {
+      ParseBudget.step();
+    }
+  }
+
+  @Test
+  public void stepLimitIsResetOnStart() {
+    var budget = new ParseBudget(0, 3);
+    for (int run = 0; run < 2; run++) {
+      budget.start();
+      for (int i = 0; i < 3; i++) {
+        ParseBudget.step();
+      }
+      ParseBudget.stop();
+    }
+  }
+
+  @Test
+  public void timeLimit() throws InterruptedException {
+    var budget = new ParseBudget(1, 0);
+    budget.start();
+    Thread.sleep(5);
+    try {
+      for (int i = 0; i < 1024; i++) {
+        ParseBudget.step();
+      }
+    } catch (ParseBudget.ExceededException e) {
+      assertThat(e.getMessage()).isEqualTo("Parse budget exceeded: more than 1 ms");
+      assertThat(e.getStackTrace()).isEmpty();
+      return;
+    }
+    throw new AssertionError("budget not exceeded");
+  }
+
+  @Test
+  public void disabled() {
+    assertThat(new ParseBudget(0, 0).isEnabled()).isFalse();
+    assertThat(new ParseBudget(10, 0).isEnabled()).isTrue();
+    assertThat(new ParseBudget(0, 10).isEnabled()).isTrue();
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.checks;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.test.minic.MiniCParser;
+import com.sonar.sslr.xpath.api.AstNodeXPathQuery;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class IndexedXPathQueryTest {
+
+  private static AstNode parse(String resource) throws IOException {
+    var file = FileUtils.toFile(IndexedXPathQueryTest.class.getResource(resource));
+    return MiniCParser.parseString(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void unsupportedQueries() {
+    assertThat(IndexedXPathQuery.create("count(//VARIABLE_DEFINITION) > 0")).isNull();
+    assertThat(IndexedXPathQuery.create("/COMPILATION_UNIT")).isNull();
+    assertThat(IndexedXPathQuery.create("//IDENTIFIER[1]")).isNull();
+    assertThat(IndexedXPathQuery.create("//IDENTIFIER[@tokenValue='a' or @tokenValue='b']")).isNull();
+    assertThat(IndexedXPathQuery.create("//IDENTIFIER[@name='a']")).isNull();
+    assertThat(IndexedXPathQuery.create("//IDENTIFIER/..")).isNull();
+    assertThat(IndexedXPathQuery.create("//*")).isNull();
+    assertThat(IndexedXPathQuery.create("//")).isNull();
+  }
+
+  @Test
+  public void sameResultAsGenericEngine() throws IOException {
+    var ast = parse("/metrics/complexity.mc");
+    var index = new IndexedXPathQuery.Index(ast);
+
+    for (var xpath : new String[]{
+      "//COMPILATION_UNIT",
+      "//VARIABLE_DEFINITION",
+      "//IDENTIFIER",
+      "//FUNCTION_DEFINITION//IDENTIFIER",
+      "//FUNCTION_DEFINITION/IDENTIFIER",
+      "//COMPILATION_UNIT/FUNCTION_DEFINITION//STATEMENT//IDENTIFIER",
+      "//STATEMENT//STATEMENT",
+      "//IDENTIFIER[@tokenValue='a']",
+      "//IDENTIFIER[ @tokenValue = \"b\" ]",
+      "//FUNCTION_DEFINITION[@tokenLine='15']//RETURN_STATEMENT",
+      "//IDENTIFIER[@tokenColumn='2']",
+      "//UNKNOWN"}) {
+      var indexed = IndexedXPathQuery.create(xpath);
+      assertThat(indexed).as(xpath).isNotNull();
+      var expected = AstNodeXPathQuery.<AstNode>create(xpath).selectNodes(ast);
+      assertThat(indexed.selectNodes(index)).as(xpath).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void resultsNotEmpty() throws IOException {
+    var index = new IndexedXPathQuery.Index(parse("/metrics/complexity.mc"));
+
+    assertThat(IndexedXPathQuery.create("//FUNCTION_DEFINITION//IDENTIFIER").selectNodes(index)).isNotEmpty();
+    assertThat(IndexedXPathQuery.create("//IDENTIFIER[@tokenValue='a']").selectNodes(index)).hasSize(5);
+  }
+
+}
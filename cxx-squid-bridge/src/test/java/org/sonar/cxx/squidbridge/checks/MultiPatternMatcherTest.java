@@ -0,0 +1,103 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.checks;
+
+import java.util.regex.Pattern;
+import static org.fest.assertions.Assertions.assertThat;
+import org.junit.Test;
+
+public class MultiPatternMatcherTest {
+
+  private static String literal(String regex) {
+    return MultiPatternMatcher.requiredLiteral(Pattern.compile(regex));
+  }
+
+  @Test
+  public void requiredLiteral() {
+    assertThat(literal("strcpy")).isEqualTo("strcpy");
+    assertThat(literal("\\bstrcpy\\s*\\(")).isEqualTo("strcpy");
+    assertThat(literal(".*TODO.*")).isEqualTo("TODO");
+    assertThat(literal("std::auto_ptr<")).isEqualTo("std::auto_ptr<");
+    assertThat(literal("a\\.b\\.c")).isEqualTo("a.b.c");
+    assertThat(literal("colou?r")).isEqualTo("colo");
+    assertThat(literal("abcx*yz")).isEqualTo("abc");
+    assertThat(literal("abb+c")).isEqualTo("abb");
+    assertThat(literal("ab{2}cdef")).isEqualTo("cdef");
+    assertThat(literal("[a-z]+_printf(\\w+)")).isEqualTo("_printf");
+    assertThat(literal("x(abc|def)yy")).isEqualTo("yy");
+    assertThat(literal("abc.*?defg")).isEqualTo("defg");
+  }
+
+  @Test
+  public void noRequiredLiteral() {
+    assertThat(literal("abc|def")).isNull();
+    assertThat(literal("(?i)todo")).isNull();
+    assertThat(literal("\\Qa.b\\E")).isNull();
+    assertThat(literal("\\x41BC")).isNull();
+    assertThat(literal("(abc)\\1")).isNull();
+    assertThat(literal("a.b")).isNull();
+    assertThat(MultiPatternMatcher.requiredLiteral(Pattern.compile("todo", Pattern.CASE_INSENSITIVE))).isNull();
+  }
+
+  @Test
+  public void mayMatch() {
+    var matcher = new MultiPatternMatcher();
+    var strcpy = matcher.register(Pattern.compile("\\bstrcpy\\s*\\("));
+    var cpy = matcher.register(Pattern.compile("cpy"));
+    var alternation = matcher.register(Pattern.compile("gets|puts"));
+
+    assertThat(matcher.mayMatch(strcpy, "strcpy(a, b);")).isTrue();
+    assertThat(matcher.mayMatch(cpy, "strcpy(a, b);")).isTrue();
+    assertThat(matcher.mayMatch(strcpy, "memcpy(a, b, 1);")).isFalse();
+    assertThat(matcher.mayMatch(cpy, "memcpy(a, b, 1);")).isTrue();
+    assertThat(matcher.mayMatch(alternation, "memcpy(a, b, 1);")).isTrue();
+  }
+
+  @Test
+  public void candidateLines() {
+    var matcher = new MultiPatternMatcher();
+    var strcpy = matcher.register(Pattern.compile("strcpy"));
+    var printf = matcher.register(Pattern.compile("printf\\("));
+    var any = matcher.register(Pattern.compile("[0-9]+"));
+
+    var content = "strcpy(a, b);\r\nprintf(\"%s\", a);\rint x;\n  strcpy(c, a); printf(\"\");\n";
+    assertThat(matcher.candidateLines(strcpy, content).toString()).isEqualTo("{0, 3}");
+    assertThat(matcher.candidateLines(printf, content).toString()).isEqualTo("{1, 3}");
+    assertThat(matcher.candidateLines(any, content)).isNull();
+    assertThat(matcher.mayMatch(printf, content)).isTrue();
+    assertThat(matcher.candidateLines(strcpy, "int main();").isEmpty()).isTrue();
+  }
+
+  @Test
+  public void overlappingLiterals() {
+    var matcher = new MultiPatternMatcher();
+    var she = matcher.register(Pattern.compile("she"));
+    var he = matcher.register(Pattern.compile("he"));
+    var hers = matcher.register(Pattern.compile("hers"));
+    var his = matcher.register(Pattern.compile("his"));
+
+    var text = "ushers";
+    assertThat(matcher.mayMatch(she, text)).isTrue();
+    assertThat(matcher.mayMatch(he, text)).isTrue();
+    assertThat(matcher.mayMatch(hers, text)).isTrue();
+    assertThat(matcher.mayMatch(his, text)).isFalse();
+  }
+
+}
@@ -23,6 +23,7 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import static java.lang.Math.min;
+import java.util.Arrays;
 import java.util.Collection;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.api.CxxMetric;
@@ -31,6 +32,7 @@ import org.sonar.cxx.parser.CxxGrammarImpl;
 import org.sonar.cxx.parser.CxxParser;
 import org.sonar.cxx.squidbridge.AstScanner;
 import org.sonar.cxx.squidbridge.CommentAnalyser;
+import org.sonar.cxx.squidbridge.ParseBudget;
 import org.sonar.cxx.squidbridge.SourceCodeBuilderVisitor;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContextImpl;
@@ -40,21 +42,15 @@ import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.api.SourceFunction;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.QueryByType;
-import org.sonar.cxx.squidbridge.metrics.CommentsVisitor;
-import org.sonar.cxx.squidbridge.metrics.ComplexityVisitor;
-import org.sonar.cxx.squidbridge.metrics.CounterVisitor;
-import org.sonar.cxx.squidbridge.metrics.LinesVisitor;
 import org.sonar.cxx.visitors.CxxCharsetAwareVisitor;
 import org.sonar.cxx.visitors.CxxCognitiveComplexityVisitor;
 import org.sonar.cxx.visitors.CxxCpdVisitor;
-import org.sonar.cxx.visitors.CxxCyclomaticComplexityVisitor;
 import org.sonar.cxx.visitors.CxxFileLinesVisitor;
 import org.sonar.cxx.visitors.CxxFileVisitor;
 import org.sonar.cxx.visitors.CxxFunctionComplexityVisitor;
 import org.sonar.cxx.visitors.CxxFunctionSizeVisitor;
 import org.sonar.cxx.visitors.CxxHighlighterVisitor;
-import org.sonar.cxx.visitors.CxxLinesOfCodeInFunctionBodyVisitor;
-import org.sonar.cxx.visitors.CxxLinesOfCodeVisitor;
+import org.sonar.cxx.visitors.CxxMetricsVisitor;
 import org.sonar.cxx.visitors.CxxParseErrorLoggerVisitor;
 import org.sonar.cxx.visitors.CxxPublicApiVisitor;
 
@@ -108,8 +104,32 @@ public final class CxxAstScanner {
   @SafeVarargs
   public static AstScanner<Grammar> create(CxxSquidConfiguration squidConfig, SquidAstVisitor<Grammar>... visitors) {
     var context = new SquidAstVisitorContextImpl<>(new SourceProject("Cxx Project"));
-    var parser = CxxParser.create(context, squidConfig);
-    var builder = AstScanner.<Grammar>builder(context).setBaseParser(parser);
+    var lexer = CxxParser.createLexer(context, squidConfig);
+    var parser = CxxParser.create(lexer, squidConfig);
+
+    /* Lazy function bodies */
+    var lazyFunctionBodyFilter = PathPatternFilter.create(squidConfig, CxxSquidConfiguration.LAZY_FUNCTION_BODY_FILES);
+    if (lazyFunctionBodyFilter != null) {
+      parser = CxxParser.createLazy(parser, context, lazyFunctionBodyFilter, Arrays.asList(visitors));
+    }
+
+    var builder = AstScanner.<Grammar>builder(context).setBaseParser(parser).setLexer(lexer);
+
+    /* Token-only analysis */
+    var tokenOnlyFilter = TokenOnlyFilter.create(squidConfig);
+    if (tokenOnlyFilter != null) {
+      builder.setTokenOnlyFilter(tokenOnlyFilter);
+    }
+
+    /* Parse budget */
+    var parseBudget = new ParseBudget(
+      squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_BUDGET_TIME)
+        .orElse(0L),
+      squidConfig.getLong(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_BUDGET_STEPS)
+        .orElse(0L));
+    if (parseBudget.isEnabled()) {
+      builder.setParseBudget(parseBudget);
+    }
 
     /* Metrics */
     builder.withMetrics(CxxMetric.values());
@@ -164,11 +184,6 @@ public final class CxxAstScanner {
       return function;
     }, CxxGrammarImpl.functionDefinition));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.FUNCTIONS)
-      .subscribeTo(CxxGrammarImpl.functionDefinition)
-      .build());
-
     /* Classes */
     builder.withSquidAstVisitor(new SourceCodeBuilderVisitor<>((SourceCode parentSourceCode, AstNode astNode) -> {
       var classNameAst = astNode.getFirstDescendant(CxxGrammarImpl.className);
@@ -178,32 +193,9 @@ public final class CxxAstScanner {
       return cls;
     }, CxxGrammarImpl.classSpecifier));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.CLASSES)
-      .subscribeTo(CxxGrammarImpl.classSpecifier)
-      .build());
-
-    /* Metrics */
-    builder.withSquidAstVisitor(new LinesVisitor<>(CxxMetric.LINES));
-    builder.withSquidAstVisitor(new CxxLinesOfCodeVisitor<>());
-    builder.withSquidAstVisitor(new CxxLinesOfCodeInFunctionBodyVisitor<>());
+    /* Metrics: functions, classes, statements, complexity, lines, comments */
+    builder.withSquidAstVisitor(new CxxMetricsVisitor<>());
     builder.withSquidAstVisitor(new CxxPublicApiVisitor<>(squidConfig));
-    builder.withSquidAstVisitor(CommentsVisitor.<Grammar>builder().withCommentMetric(CxxMetric.COMMENT_LINES)
-      .withNoSonar(true)
-      .withIgnoreHeaderComment(false)
-      .build()
-    );
-
-    /* Statements */
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.STATEMENTS)
-      .subscribeTo(CxxGrammarImpl.statement)
-      .build());
-
-    builder.withSquidAstVisitor(new CxxCyclomaticComplexityVisitor<>(ComplexityVisitor.<Grammar>builder()
-      .setMetricDef(CxxMetric.COMPLEXITY)
-      .subscribeTo(CxxComplexityConstants.getCyclomaticComplexityTypes())
-      .build()));
 
     builder.withSquidAstVisitor(new CxxCognitiveComplexityVisitor<>());
     builder.withSquidAstVisitor(new CxxFunctionComplexityVisitor<>(squidConfig));
@@ -0,0 +1,77 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.PathUtils;
+import org.sonar.api.utils.WildcardPattern;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+
+/**
+ * Selects the files matching one of the configured wildcard patterns. The patterns are matched against the absolute
+ * path of the file, e.g. {@code **}{@code /generated/**}.
+ */
+final class PathPatternFilter implements Predicate<InputFile> {
+
+  private final List<WildcardPattern> patterns;
+
+  private PathPatternFilter(List<WildcardPattern> patterns) {
+    this.patterns = patterns;
+  }
+
+  /**
+   * Create filter from configuration.
+   *
+   * @param squidConfig configuration
+   * @param key key of the patterns in {@link CxxSquidConfiguration#SONAR_PROJECT_PROPERTIES}
+   * @return filter or null if no pattern is configured
+   */
+  @CheckForNull
+  static PathPatternFilter create(CxxSquidConfiguration squidConfig, String key) {
+    var patterns = new ArrayList<WildcardPattern>();
+    for (var pattern : squidConfig.getValues(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, key)) {
+      if (!pattern.isBlank()) {
+        patterns.add(WildcardPattern.create(pattern.trim()));
+      }
+    }
+    if (patterns.isEmpty()) {
+      return null;
+    }
+    return new PathPatternFilter(patterns);
+  }
+
+  @Override
+  public boolean test(InputFile inputFile) {
+    String path = PathUtils.sanitize(inputFile.file().getPath());
+    if (path != null) {
+      for (var pattern : patterns) {
+        if (pattern.match(path)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+
+/**
+ * Selects the files which are only lexed and preprocessed but not parsed: files with more lines than the configured
+ * threshold and files matching one of the configured wildcard patterns, see {@link PathPatternFilter}.
+ */
+final class TokenOnlyFilter implements Predicate<InputFile> {
+
+  private final int threshold;
+  private final PathPatternFilter patterns;
+
+  private TokenOnlyFilter(int threshold, @Nullable PathPatternFilter patterns) {
+    this.threshold = threshold;
+    this.patterns = patterns;
+  }
+
+  /**
+   * Create filter from configuration.
+   *
+   * @param squidConfig configuration with {@link CxxSquidConfiguration#TOKEN_ONLY_THRESHOLD} and
+   * {@link CxxSquidConfiguration#TOKEN_ONLY_FILES}
+   * @return filter or null if token-only analysis is not configured
+   */
+  @CheckForNull
+  static TokenOnlyFilter create(CxxSquidConfiguration squidConfig) {
+    int threshold = squidConfig.getInt(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                                       CxxSquidConfiguration.TOKEN_ONLY_THRESHOLD).orElse(0);
+    var patterns = PathPatternFilter.create(squidConfig, CxxSquidConfiguration.TOKEN_ONLY_FILES);
+    if (threshold <= 0 && patterns == null) {
+      return null;
+    }
+    return new TokenOnlyFilter(threshold, patterns);
+  }
+
+  @Override
+  public boolean test(InputFile inputFile) {
+    if (threshold > 0 && inputFile.lines() > threshold) {
+      return true;
+    }
+    return patterns != null && patterns.test(inputFile);
+  }
+
+}
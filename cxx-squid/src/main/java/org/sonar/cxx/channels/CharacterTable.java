@@ -0,0 +1,99 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+/**
+ * Character classes of the ASCII characters used by the table-driven channels. Characters outside of the ASCII range
+ * (including EOF) belong to no class.
+ */
+final class CharacterTable {
+
+  /**
+   * Whitespace as defined by the regular expression <code>\s</code>.
+   */
+  static final int WHITESPACE = 1;
+
+  /**
+   * <code>[0-9]</code>
+   */
+  static final int DIGIT = 1 << 1;
+
+  /**
+   * <code>[0-9a-fA-F]</code>
+   */
+  static final int HEX_DIGIT = 1 << 2;
+
+  /**
+   * <code>[01]</code>
+   */
+  static final int BINARY_DIGIT = 1 << 3;
+
+  /**
+   * <code>[0-9_]</code>, digits of an exponent
+   */
+  static final int EXPONENT_DIGIT = 1 << 4;
+
+  /**
+   * <code>[a-zA-Z_]</code>
+   */
+  static final int IDENTIFIER_START = 1 << 5;
+
+  /**
+   * <code>[a-zA-Z0-9_]</code>, as defined by the regular expression <code>\w</code>
+   */
+  static final int IDENTIFIER_PART = 1 << 6;
+
+  private static final byte[] TABLE = new byte[128];
+
+  static {
+    for (var ch : " \t\n\u000B\f\r".toCharArray()) {
+      TABLE[ch] |= WHITESPACE;
+    }
+    for (var ch = '0'; ch <= '9'; ch++) {
+      TABLE[ch] |= DIGIT | HEX_DIGIT | EXPONENT_DIGIT | IDENTIFIER_PART;
+    }
+    TABLE['0'] |= BINARY_DIGIT;
+    TABLE['1'] |= BINARY_DIGIT;
+    for (var ch = 'a'; ch <= 'z'; ch++) {
+      TABLE[ch] |= IDENTIFIER_START | IDENTIFIER_PART;
+      TABLE[Character.toUpperCase(ch)] |= IDENTIFIER_START | IDENTIFIER_PART;
+    }
+    for (var ch = 'a'; ch <= 'f'; ch++) {
+      TABLE[ch] |= HEX_DIGIT;
+      TABLE[Character.toUpperCase(ch)] |= HEX_DIGIT;
+    }
+    TABLE['_'] |= EXPONENT_DIGIT | IDENTIFIER_START | IDENTIFIER_PART;
+  }
+
+  private CharacterTable() {
+  }
+
+  /**
+   * Check if a character belongs to one of the given classes.
+   *
+   * @param ch character (as returned by CodeReader.peek or CodeReader.charAt)
+   * @param characterClasses combination of character classes
+   * @return true if the character belongs to one of the classes
+   */
+  static boolean is(int ch, int characterClasses) {
+    return ch >= 0 && ch < TABLE.length && (TABLE[ch] & characterClasses) != 0;
+  }
+
+}
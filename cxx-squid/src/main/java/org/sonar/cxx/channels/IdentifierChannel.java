@@ -0,0 +1,99 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.impl.Lexer;
+import java.util.HashMap;
+import java.util.Map;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_PART;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_START;
+import static org.sonar.cxx.channels.CharacterTable.is;
+import org.sonar.cxx.parser.CxxKeyword;
+import org.sonar.cxx.parser.CxxTokenType;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Identifiers <code>[a-zA-Z_]\w*</code> and keywords (C++ Standard, Section 2.11 "Identifiers" and 2.12 "Keywords"),
+ * the pointer literal <code>nullptr</code> is a NUMBER (C++ Standard, Section 2.14.7 "Pointer literals").
+ *
+ * Same result as the regular expression channels for <code>nullptr\b</code> and IdentifierAndKeywordChannel.
+ */
+public class IdentifierChannel extends Channel<Lexer> {
+
+  private final Map<String, TokenType> keywords = new HashMap<>();
+  private final StringBuilder sb = new StringBuilder(64);
+
+  public IdentifierChannel(TokenType[]... keywordSets) {
+    for (var keywordSet : keywordSets) {
+      for (var keyword : keywordSet) {
+        keywords.put(keyword.getValue(), keyword);
+      }
+    }
+  }
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    if (!is(code.peek(), IDENTIFIER_START)) {
+      return false;
+    }
+
+    var length = 1;
+    while (is(code.charAt(length), IDENTIFIER_PART)) {
+      length++;
+    }
+
+    int line = code.getLinePosition();
+    int column = code.getColumnPosition();
+    var end = code.charAt(length);
+    for (var i = 0; i < length; i++) {
+      sb.append((char) code.pop());
+    }
+    var value = sb.toString();
+    sb.setLength(0);
+
+    TokenType type;
+    if (CxxKeyword.NULLPTR.getValue().equals(value) && !isWordCharacter(end)) {
+      type = CxxTokenType.NUMBER;
+    } else {
+      type = keywords.getOrDefault(value, GenericTokenType.IDENTIFIER);
+    }
+
+    output.addToken(Token.builder()
+      .setLine(line)
+      .setColumn(column)
+      .setURI(output.getURI())
+      .setValueAndOriginalValue(value)
+      .setType(type)
+      .build());
+    return true;
+  }
+
+  /**
+   * Word character as used by the word boundary <code>\b</code> of regular expressions.
+   */
+  private static boolean isWordCharacter(char ch) {
+    return ch == '_' || Character.isLetterOrDigit(ch);
+  }
+
+}
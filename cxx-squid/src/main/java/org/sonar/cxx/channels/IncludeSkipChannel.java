@@ -0,0 +1,159 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import com.sonar.sslr.impl.Lexer;
+import static org.sonar.cxx.channels.CharacterTable.DIGIT;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_PART;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_START;
+import static org.sonar.cxx.channels.CharacterTable.WHITESPACE;
+import static org.sonar.cxx.channels.CharacterTable.is;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Skips everything of an included file up to the next '#' which is the first token of a logical line (only preceded
+ * by whitespace or comments), the directives are read by the PreprocessorChannel.
+ *
+ * Comments, string and character literals (including raw string literals spanning several lines) and line
+ * continuations are skipped as a whole: a '#' inside of them or at the start of a continued line does not start a
+ * directive. A multi-line comment which is not closed extends to the end of the file. No trivia are created.
+ */
+public class IncludeSkipChannel extends Channel<Lexer> {
+
+  private final StringLiteralsChannel stringLiteralsChannel = new StringLiteralsChannel();
+  private final StringBuilder sb = new StringBuilder(256);
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    // the channel is called at the start of the file and after a directive (which includes its line terminator)
+    var lineStart = true;
+    var consumed = false;
+    while (true) {
+      var ch = code.peek();
+      if (ch == -1 || (ch == '#' && lineStart)) {
+        return consumed;
+      }
+      if (isLineTerminator(ch)) {
+        code.pop();
+        lineStart = true;
+      } else if (is(ch, WHITESPACE)) {
+        code.pop();
+      } else if (skipLineContinuation(code)) {
+        // the continued line belongs to the same logical line
+        code.pop();
+      } else if (ch == '/' && code.charAt(1) == '*') {
+        skipMultiLineComment(code);
+      } else if (ch == '/' && code.charAt(1) == '/') {
+        skipSingleLineComment(code);
+      } else {
+        skipToken(code, ch);
+        lineStart = false;
+      }
+      consumed = true;
+    }
+  }
+
+  private void skipToken(CodeReader code, int ch) {
+    if (stringLiteralsChannel.read(code, sb)) {
+      sb.setLength(0);
+    } else if (ch == '\'') {
+      skipCharacterLiteral(code);
+    } else if (is(ch, IDENTIFIER_START)) {
+      do {
+        code.pop();
+      } while (is(code.peek(), IDENTIFIER_PART));
+    } else if (is(ch, DIGIT) || (ch == '.' && is(code.charAt(1), DIGIT))) {
+      skipNumber(code);
+    } else {
+      code.pop();
+    }
+  }
+
+  /**
+   * Pops the backslash of a line continuation, the following line terminator is popped by the caller.
+   */
+  private static boolean skipLineContinuation(CodeReader code) {
+    if (code.peek() == '\\' && isLineTerminator(code.charAt(1))) {
+      code.pop();
+      if (code.peek() == '\r' && code.charAt(1) == '\n') {
+        code.pop();
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static void skipMultiLineComment(CodeReader code) {
+    code.pop();
+    code.pop();
+    while (code.peek() != -1) {
+      if (code.pop() == '*' && code.peek() == '/') {
+        code.pop();
+        return;
+      }
+    }
+  }
+
+  private static void skipSingleLineComment(CodeReader code) {
+    while (!isLineTerminator(code.peek())) {
+      skipLineContinuation(code);
+      code.pop();
+    }
+  }
+
+  private static void skipCharacterLiteral(CodeReader code) {
+    code.pop();
+    while (!isLineTerminator(code.peek())) {
+      var ch = code.pop();
+      if (ch == '\'') {
+        return;
+      }
+      if (ch == '\\' && code.peek() != -1) {
+        code.pop();
+      }
+    }
+  }
+
+  /**
+   * Preprocessing number: digits, letters, '_', '.', digit separators and the sign of an exponent.
+   */
+  private static void skipNumber(CodeReader code) {
+    var previous = code.pop();
+    while (true) {
+      var ch = code.peek();
+      if (is(ch, IDENTIFIER_PART) || ch == '.'
+            || (ch == '\'' && is(code.charAt(1), IDENTIFIER_PART))
+            || ((ch == '+' || ch == '-') && "eEpP".indexOf(previous) >= 0)) {
+        previous = code.pop();
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Line terminators as used by the regular expression '.' (and EOF).
+   */
+  private static boolean isLineTerminator(int ch) {
+    return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029' || ch == -1;
+  }
+
+}
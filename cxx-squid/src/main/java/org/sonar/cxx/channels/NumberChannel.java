@@ -0,0 +1,164 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Lexer;
+import static org.sonar.cxx.channels.CharacterTable.BINARY_DIGIT;
+import static org.sonar.cxx.channels.CharacterTable.DIGIT;
+import static org.sonar.cxx.channels.CharacterTable.EXPONENT_DIGIT;
+import static org.sonar.cxx.channels.CharacterTable.HEX_DIGIT;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_PART;
+import static org.sonar.cxx.channels.CharacterTable.IDENTIFIER_START;
+import static org.sonar.cxx.channels.CharacterTable.is;
+import org.sonar.cxx.parser.CxxTokenType;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Integer, floating and user-defined numeric literals (C++ Standard, Section 2.14.2 "Integer literals" and 2.14.4
+ * "Floating literals").
+ *
+ * Accepts the same input as the regular expression of CxxLexer:
+ * <pre>
+ * ( \.D(E)? | 0[xX](H)?(\.)?(H)?(P)? | 0[bB]B | D(\.)?(D)?(E)? )(UD)?
+ * </pre>
+ * with the digit sequences D, H and B (digits optionally separated by single quotes), the exponents E and P and the
+ * ud-suffix UD. The first matching alternative wins, each optional part is matched greedily.
+ */
+public class NumberChannel extends Channel<Lexer> {
+
+  private final StringBuilder sb = new StringBuilder(32);
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    var length = length(code);
+    if (length == 0) {
+      return false;
+    }
+
+    int line = code.getLinePosition();
+    int column = code.getColumnPosition();
+    for (var i = 0; i < length; i++) {
+      sb.append((char) code.pop());
+    }
+    output.addToken(Token.builder()
+      .setLine(line)
+      .setColumn(column)
+      .setURI(output.getURI())
+      .setValueAndOriginalValue(sb.toString())
+      .setType(CxxTokenType.NUMBER)
+      .build());
+    sb.setLength(0);
+    return true;
+  }
+
+  private static int length(CodeReader code) {
+    var ch = code.charAt(0);
+    int index;
+    if (ch == '.') {
+      index = digits(code, 1, DIGIT);
+      if (index < 0) {
+        return 0;
+      }
+      index = exponent(code, index, 'e', EXPONENT_DIGIT);
+    } else if (is(ch, DIGIT)) {
+      var next = code.charAt(1);
+      if (ch == '0' && (next == 'x' || next == 'X')) {
+        index = optionalDigits(code, 2, HEX_DIGIT);
+        if (code.charAt(index) == '.') {
+          index++;
+        }
+        index = optionalDigits(code, index, HEX_DIGIT);
+        index = exponent(code, index, 'p', DIGIT);
+      } else {
+        index = -1;
+        if (ch == '0' && (next == 'b' || next == 'B')) {
+          index = digits(code, 2, BINARY_DIGIT);
+        }
+        if (index < 0) {
+          index = digits(code, 0, DIGIT);
+          if (code.charAt(index) == '.') {
+            index++;
+          }
+          index = optionalDigits(code, index, DIGIT);
+          index = exponent(code, index, 'e', EXPONENT_DIGIT);
+        }
+      }
+    } else {
+      return 0;
+    }
+
+    // ud-suffix
+    if (is(code.charAt(index), IDENTIFIER_START)) {
+      do {
+        index++;
+      } while (is(code.charAt(index), IDENTIFIER_PART));
+    }
+    return index;
+  }
+
+  /**
+   * Digit sequence <code>X([']?+X++)*+</code>.
+   *
+   * @return index after the sequence or -1 if there is no digit at start
+   */
+  private static int digits(CodeReader code, int start, int digitClass) {
+    if (!is(code.charAt(start), digitClass)) {
+      return -1;
+    }
+    var index = start + 1;
+    while (true) {
+      if (is(code.charAt(index), digitClass)) {
+        index++;
+      } else if (code.charAt(index) == '\'' && is(code.charAt(index + 1), digitClass)) {
+        index += 2;
+      } else {
+        return index;
+      }
+    }
+  }
+
+  private static int optionalDigits(CodeReader code, int start, int digitClass) {
+    var index = digits(code, start, digitClass);
+    return index < 0 ? start : index;
+  }
+
+  /**
+   * Optional exponent <code>([eE][+-]?+X([']?+X++)*+)?</code>.
+   *
+   * @param marker lower case exponent character, 'e' or 'p'
+   * @return index after the exponent or start if there is no exponent
+   */
+  private static int exponent(CodeReader code, int start, char marker, int digitClass) {
+    var ch = code.charAt(start);
+    if (ch != marker && ch != Character.toUpperCase(marker)) {
+      return start;
+    }
+    var index = start + 1;
+    ch = code.charAt(index);
+    if (ch == '+' || ch == '-') {
+      index++;
+    }
+    index = digits(code, index, digitClass);
+    return index < 0 ? start : index;
+  }
+
+}
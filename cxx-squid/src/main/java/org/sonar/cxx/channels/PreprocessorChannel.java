@@ -22,8 +22,7 @@ package org.sonar.cxx.channels;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.TokenType;
 import com.sonar.sslr.impl.Lexer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
 import org.sonar.cxx.parser.CxxTokenType;
 import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeReader;
@@ -37,20 +36,21 @@ public class PreprocessorChannel extends Channel<Lexer> {
   private static final char EOF = (char) -1;
   private final StringLiteralsChannel stringLiteralsChannel = new StringLiteralsChannel();
   private final StringBuilder sb = new StringBuilder(256);
-  private final Matcher matcher;
+  private final String[] keywords;
 
+  /**
+   * A directive starts with '#' or with one of the keywords followed by a whitespace (regular expression
+   * <code>#|keyword1\s|keyword2\s|...</code>).
+   */
   public PreprocessorChannel(TokenType[]
     ... keywordSets) {
-    var regexp = new StringBuilder(256);
-    regexp.append("#");
-    for (var keywords : keywordSets) {
-      for (var keyword : keywords) {
-        regexp.append("|");
-        regexp.append(keyword.getValue());
-        regexp.append("\\s");
+    var values = new ArrayList<String>();
+    for (var keywordSet : keywordSets) {
+      for (var keyword : keywordSet) {
+        values.add(keyword.getValue());
       }
     }
-    matcher = Pattern.compile(regexp.toString()).matcher("");
+    keywords = values.toArray(new String[0]);
   }
 
   @Override
@@ -58,9 +58,13 @@ public class PreprocessorChannel extends Channel<Lexer> {
     int line = code.getLinePosition();
     int column = code.getColumnPosition();
 
-    if (code.popTo(matcher, sb) <= 0) {
+    var length = directiveStartLength(code);
+    if (length == 0) {
       return false;
     }
+    for (var i = 0; i < length; i++) {
+      sb.append((char) code.pop());
+    }
 
     read(code);
 
@@ -100,6 +104,29 @@ public class PreprocessorChannel extends Channel<Lexer> {
     }
   }
 
+  private int directiveStartLength(CodeReader code) {
+    var ch = code.charAt(0);
+    if (ch == '#') {
+      return 1;
+    }
+    for (var keyword : keywords) {
+      if (keyword.charAt(0) == ch && startsWith(code, keyword)
+            && CharacterTable.is(code.charAt(keyword.length()), CharacterTable.WHITESPACE)) {
+        return keyword.length() + 1;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean startsWith(CodeReader code, String value) {
+    for (var i = 1; i < value.length(); i++) {
+      if (code.charAt(i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static void consumeNewline(CodeReader code) {
     if ((code.charAt(0) == '\r') && (code.charAt(1) == '\n')) {
       // \r\n
@@ -0,0 +1,106 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Skips whitespace and creates comment trivia, same result as a BlackHoleChannel("\\s") followed by the comment
+ * channels <code>//[^\n\r]*+</code> and <code>/\*[\s\S]*?\*&#47;</code> but without regular expressions.
+ */
+public class TriviaChannel extends Channel<Lexer> {
+
+  private static final char EOF = (char) -1;
+
+  private final StringBuilder sb = new StringBuilder(256);
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    var ch = code.peek();
+    if (CharacterTable.is(ch, CharacterTable.WHITESPACE)) {
+      do {
+        code.pop();
+      } while (CharacterTable.is(code.peek(), CharacterTable.WHITESPACE));
+      return true;
+    }
+    if (ch != '/') {
+      return false;
+    }
+
+    int length;
+    var next = code.charAt(1);
+    if (next == '/') {
+      length = singleLineCommentLength(code);
+    } else if (next == '*') {
+      length = multiLineCommentLength(code);
+    } else {
+      return false;
+    }
+    if (length == 0) {
+      return false;
+    }
+
+    int line = code.getLinePosition();
+    int column = code.getColumnPosition();
+    for (var i = 0; i < length; i++) {
+      sb.append((char) code.pop());
+    }
+    var token = Token.builder()
+      .setType(GenericTokenType.COMMENT)
+      .setValueAndOriginalValue(sb.toString())
+      .setURI(output.getURI())
+      .setLine(line)
+      .setColumn(column)
+      .build();
+    output.addTrivia(Trivia.createComment(token));
+    sb.setLength(0);
+    return true;
+  }
+
+  private static int singleLineCommentLength(CodeReader code) {
+    var index = 2;
+    char ch;
+    while ((ch = code.charAt(index)) != '\n' && ch != '\r' && ch != EOF) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * @return length including the closing '*&#47;' or 0 if the comment is not closed
+   */
+  static int multiLineCommentLength(CodeReader code) {
+    var index = 2;
+    char ch;
+    while ((ch = code.charAt(index)) != EOF) {
+      if (ch == '*' && code.charAt(index + 1) == '/') {
+        return index + 2;
+      }
+      index++;
+    }
+    return 0;
+  }
+
+}
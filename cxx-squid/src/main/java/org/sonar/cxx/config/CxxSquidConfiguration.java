@@ -82,6 +82,14 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   public static final String FUNCTION_SIZE_THRESHOLD = "FunctionSizeThreshold";
   public static final String API_FILE_SUFFIXES = "ApiFileSuffixes";
   public static final String JSON_COMPILATION_DATABASE = "JsonCompilationDatabase";
+  public static final String TOKEN_ONLY_THRESHOLD = "TokenOnlyThreshold";
+  public static final String TOKEN_ONLY_FILES = "TokenOnlyFiles";
+  public static final String PARSE_BUDGET_TIME = "ParseBudgetTime";
+  public static final String PARSE_BUDGET_STEPS = "ParseBudgetSteps";
+  public static final String LAZY_FUNCTION_BODY_FILES = "LazyFunctionBodyFiles";
+  public static final String TABLE_DRIVEN_LEXER_ENABLED = "TableDrivenLexerEnabled";
+  public static final String LAZY_INCLUDE_DIRECTORIES = "LazyIncludeDirectories";
+  public static final String PREPROCESSOR_CACHE_DIRECTORY = "PreprocessorCacheDirectory";
 
   // Global/File Properties
   public static final String DEFINES = "Defines";
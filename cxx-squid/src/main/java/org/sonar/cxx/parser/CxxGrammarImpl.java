@@ -225,6 +225,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   parameterDeclaration,
   functionDefinition,
   functionBody,
+  lazyFunctionBody,
   initializer,
   braceOrEqualInitializer,
   initializerClause,
@@ -477,6 +478,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   //
   private static void expressions(LexerfulGrammarBuilder b) {
     b.rule(primaryExpression).is(
+      ParseBudgetExpression.INSTANCE,
       b.firstOf(
         LITERAL, // C++
         CxxKeyword.THIS, // C++
@@ -916,6 +918,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   private static void statements(LexerfulGrammarBuilder b) {
 
     b.rule(statement).is(
+      ParseBudgetExpression.INSTANCE,
       b.firstOf(
         labeledStatement, // C++
         b.sequence(b.optional(attributeSpecifierSeq), expressionStatement), // C++
@@ -1046,6 +1049,7 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
     ).skipIfOneChild();
 
     b.rule(declaration).is(
+      ParseBudgetExpression.INSTANCE,
       b.firstOf(
         // identifiers with special meaning: import and module => must be placed before rules that start with an identifier!
         moduleImportDeclaration, // C++ import ...
@@ -1534,13 +1538,21 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
 
     b.rule(functionBody).is(
       b.firstOf(
-        b.sequence(b.optional(ctorInitializer), compoundStatement), // C++
+        b.sequence(b.optional(ctorInitializer),
+                   b.firstOf(
+                     lazyFunctionBody, // EXTENSION: unparsed body
+                     compoundStatement // C++
+                   )),
         functionTryBlock, // C++
         b.sequence("=", CxxKeyword.DELETE, ";"), // C++
         b.sequence("=", CxxKeyword.DEFAULT, ";") // C++
       )
     );
 
+    b.rule(lazyFunctionBody).is(
+      LazyFunctionBodyExpression.INSTANCE
+    );
+
     b.rule(enumName).is(
       IDENTIFIER, b.nextNot("<") // C++
     );
@@ -37,9 +37,13 @@ import com.sonar.sslr.impl.channel.UnknownCharacterChannel;
 import java.nio.charset.Charset;
 import org.sonar.cxx.channels.BackslashChannel;
 import org.sonar.cxx.channels.CharacterLiteralsChannel;
+import org.sonar.cxx.channels.IdentifierChannel;
+import org.sonar.cxx.channels.NumberChannel;
 import org.sonar.cxx.channels.PreprocessorChannel;
 import org.sonar.cxx.channels.RightAngleBracketsChannel;
 import org.sonar.cxx.channels.StringLiteralsChannel;
+import org.sonar.cxx.channels.TriviaChannel;
+import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.preprocessor.CppSpecialIdentifier;
 
 public final class CxxLexer {
@@ -64,10 +68,67 @@ public final class CxxLexer {
     return create(Charset.defaultCharset(), preprocessors);
   }
 
+  /**
+   * Create a lexer, the kind of lexer (see {@link #create(Charset, boolean, Preprocessor...)}) is defined by
+   * {@link CxxSquidConfiguration#TABLE_DRIVEN_LEXER_ENABLED}.
+   */
+  public static Lexer create(CxxSquidConfiguration squidConfig, Preprocessor... preprocessors) {
+    return create(squidConfig.getCharset(), isTableDriven(squidConfig), preprocessors);
+  }
+
+  /**
+   * Check if the configuration selects the table-driven lexer.
+   */
+  public static boolean isTableDriven(CxxSquidConfiguration squidConfig) {
+    return squidConfig.getBoolean(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                                  CxxSquidConfiguration.TABLE_DRIVEN_LEXER_ENABLED).orElse(Boolean.FALSE);
+  }
+
+  /**
+   * Create a lexer.
+   *
+   * @param charset charset of the input
+   * @param tableDriven true: whitespace, comments, numbers, identifiers and keywords are recognized by hand-written
+   * channels based on a character class table instead of regular expression channels. Both lexers create the same
+   * tokens and trivia.
+   * @param preprocessors preprocessors of the lexer
+   * @return lexer
+   */
+  public static Lexer create(Charset charset, boolean tableDriven, Preprocessor... preprocessors) {
+    if (!tableDriven) {
+      return create(charset, preprocessors);
+    }
+
+    //
+    // changes here must be always aligned with create(Charset, Preprocessor...)
+    //
+    var builder = Lexer.builder()
+      .withCharset(charset)
+      .withFailIfNoChannelToConsumeOneCharacter(true)
+      .withChannel(new TriviaChannel())
+      .withChannel(new BackslashChannel())
+      .withChannel(new PreprocessorChannel(CppSpecialIdentifier.values()))
+      .withChannel(new CharacterLiteralsChannel())
+      .withChannel(new StringLiteralsChannel())
+      .withChannel(new NumberChannel())
+      .withChannel(new IdentifierChannel(CxxKeyword.values()))
+      .withChannel(new RightAngleBracketsChannel())
+      .withChannel(new PunctuatorChannel(CxxPunctuator.values()))
+      .withChannel(new BomCharacterChannel())
+      .withChannel(new UnknownCharacterChannel());
+
+    for (var preprocessor : preprocessors) {
+      builder.withPreprocessor(preprocessor);
+    }
+
+    return builder.build();
+  }
+
   public static Lexer create(Charset charset, Preprocessor... preprocessors) {
 
     //
     // changes here must be always aligned: CxxLexer.java <=> CppLexer.java
+    // and with the table-driven lexer create(Charset, boolean, Preprocessor...)
     //
     var builder = Lexer.builder()
       .withCharset(charset)
@@ -20,12 +20,17 @@
 package org.sonar.cxx.parser;
 
 import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.Parser;
 import java.io.File;
 import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.function.Predicate;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContextImpl;
 import org.sonar.cxx.squidbridge.api.SourceProject;
@@ -51,11 +56,41 @@ public final class CxxParser {
   }
 
   public static Parser<Grammar> create(SquidAstVisitorContext<Grammar> context, CxxSquidConfiguration squidConfig) {
-    var cxxpp = new CxxPreprocessor(context, squidConfig);
-    currentPreprocessorInstance = new WeakReference<>(cxxpp);
+    return create(createLexer(context, squidConfig), squidConfig);
+  }
+
+  /**
+   * Create a parser using an existing lexer, see {@link #createLexer(SquidAstVisitorContext, CxxSquidConfiguration)}.
+   */
+  public static Parser<Grammar> create(Lexer lexer, CxxSquidConfiguration squidConfig) {
     return Parser.builder(CxxGrammarImpl.create(squidConfig))
-      .withLexer(CxxLexer.create(squidConfig.getCharset(), cxxpp, new JoinStringsPreprocessor()))
+      .withLexer(lexer)
       .build();
   }
 
+  /**
+   * Create a parser which keeps the function bodies of the files accepted by the filter as unparsed token ranges,
+   * unless one of the visitors needs the AST of function bodies.
+   *
+   * @param parser parser to use, see {@link #create(Lexer, CxxSquidConfiguration)}
+   * @param context context providing the file being parsed
+   * @param filter files with lazy function bodies
+   * @param visitors visitors (checks) of the analysis
+   * @return parser
+   */
+  public static Parser<Grammar> createLazy(Parser<Grammar> parser, SquidAstVisitorContext<Grammar> context,
+                                           Predicate<InputFile> filter,
+                                           Collection<? extends SquidAstVisitor<Grammar>> visitors) {
+    return new LazyFunctionBodyParser(parser, context, filter, visitors);
+  }
+
+  /**
+   * Create a lexer with preprocessor. The lexer can be shared with a parser to lex files without parsing them.
+   */
+  public static Lexer createLexer(SquidAstVisitorContext<Grammar> context, CxxSquidConfiguration squidConfig) {
+    var cxxpp = new CxxPreprocessor(context, squidConfig);
+    currentPreprocessorInstance = new WeakReference<>(cxxpp);
+    return CxxLexer.create(squidConfig, cxxpp, new JoinStringsPreprocessor());
+  }
+
 }
@@ -0,0 +1,117 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import com.sonar.sslr.api.GenericTokenType;
+import org.sonar.sslr.internal.matchers.Matcher;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Matches a function body by brace matching instead of parsing its statements.
+ *
+ * The expression fails if lazy parsing is disabled (default), if the next token is not a '{', if there is no
+ * matching '}' or if the body defines a local class (its classes and member functions are counted by the metrics of
+ * the parsed tree). Otherwise all tokens of the body including the braces become leaf nodes of the rule. Files are
+ * parsed sequentially, therefore a single static switch is sufficient, see {@link LazyFunctionBodyParser}.
+ */
+final class LazyFunctionBodyExpression extends NativeExpression implements Matcher {
+
+  static final LazyFunctionBodyExpression INSTANCE = new LazyFunctionBodyExpression();
+
+  private static boolean enabled = false;
+
+  private LazyFunctionBodyExpression() {
+  }
+
+  static void setEnabled(boolean value) {
+    enabled = value;
+  }
+
+  static boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    int length = enabled ? bodyLength(machine) : 0;
+    if (length == 0) {
+      machine.backtrack();
+      return;
+    }
+    for (int i = 0; i < length; i++) {
+      machine.createLeafNode(this, 1);
+    }
+    machine.jump(1);
+  }
+
+  /**
+   * @return number of tokens from the '{' to the matching '}' or 0 if there is no body or it defines a local class
+   */
+  private static int bodyLength(Machine machine) {
+    var length = machine.length();
+    if (length == 0 || !CxxPunctuator.CURLBR_LEFT.equals(machine.tokenAt(0).getType())) {
+      return 0;
+    }
+    var depth = 0;
+    for (int i = 0; i < length; i++) {
+      var type = machine.tokenAt(i).getType();
+      if (CxxPunctuator.CURLBR_LEFT.equals(type)) {
+        depth++;
+      } else if (CxxPunctuator.CURLBR_RIGHT.equals(type)) {
+        depth--;
+        if (depth == 0) {
+          return i + 1;
+        }
+      } else if ((CxxKeyword.CLASS.equals(type) || CxxKeyword.STRUCT.equals(type) || CxxKeyword.UNION.equals(type))
+                   && isClassDefinition(machine, i + 1, length)) {
+        break;
+      } else if (GenericTokenType.EOF.equals(type)) {
+        break;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * A class key starts a class definition if a '{' follows before the end of the declaration, e.g.
+   * {@code struct S : Base {}} but not {@code struct S s = {};} or {@code f(struct S *p) {}}.
+   */
+  private static boolean isClassDefinition(Machine machine, int start, int length) {
+    for (int i = start; i < length; i++) {
+      var type = machine.tokenAt(i).getType();
+      if (CxxPunctuator.CURLBR_LEFT.equals(type)) {
+        return true;
+      } else if (CxxPunctuator.SEMICOLON.equals(type) || CxxPunctuator.ASSIGN.equals(type)
+                   || CxxPunctuator.BR_LEFT.equals(type) || CxxPunctuator.BR_RIGHT.equals(type)
+                   || CxxPunctuator.COMMA.equals(type) || CxxPunctuator.CURLBR_RIGHT.equals(type)
+                   || GenericTokenType.EOF.equals(type)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "LazyFunctionBody";
+  }
+
+}
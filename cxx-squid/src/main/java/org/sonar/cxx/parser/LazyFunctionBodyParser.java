@@ -0,0 +1,135 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Parser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+/**
+ * Parser which keeps the function bodies of selected files as unparsed token ranges, see
+ * {@link CxxGrammarImpl#lazyFunctionBody}.
+ *
+ * Bodies are only skipped if none of the given visitors subscribes to a node type which occurs in function bodies
+ * (statements, expressions including lambdas, exception handlers and the declarations of local variables, classes,
+ * member functions and enumerations). The visitors subscribe in their init method, the decision is
+ * therefore made on the first parse.
+ */
+final class LazyFunctionBodyParser extends Parser<Grammar> {
+
+  private static final Logger LOG = Loggers.get(LazyFunctionBodyParser.class);
+
+  private static final Set<CxxGrammarImpl> BODY_NODE_TYPES = EnumSet.range(CxxGrammarImpl.primaryExpression,
+                                                                            CxxGrammarImpl.declarationStatement);
+
+  static {
+    BODY_NODE_TYPES.add(CxxGrammarImpl.tryBlock);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.handlerSeq);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.handler);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.exceptionDeclaration);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.simpleDeclaration);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.classSpecifier);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.functionDefinition);
+    BODY_NODE_TYPES.add(CxxGrammarImpl.enumSpecifier);
+  }
+
+  private final Parser<Grammar> parser;
+  private final SquidAstVisitorContext<Grammar> context;
+  private final Predicate<InputFile> filter;
+  private final Collection<? extends SquidAstVisitor<Grammar>> visitors;
+  private Boolean bodiesNeeded = null;
+
+  LazyFunctionBodyParser(Parser<Grammar> parser, SquidAstVisitorContext<Grammar> context,
+                         Predicate<InputFile> filter, Collection<? extends SquidAstVisitor<Grammar>> visitors) {
+    super(parser.getGrammar());
+    this.parser = parser;
+    this.context = context;
+    this.filter = filter;
+    this.visitors = new ArrayList<>(visitors);
+  }
+
+  @Override
+  public AstNode parse(File file) {
+    return parse(() -> parser.parse(file));
+  }
+
+  @Override
+  public AstNode parse(String source) {
+    return parse(() -> parser.parse(source));
+  }
+
+  @Override
+  public AstNode parse(List<Token> tokens) {
+    return parse(() -> parser.parse(tokens));
+  }
+
+  private AstNode parse(Supplier<AstNode> parse) {
+    var inputFile = context.getInputFile();
+    LazyFunctionBodyExpression.setEnabled(inputFile != null && !bodiesNeeded() && filter.test(inputFile));
+    try {
+      return parse.get();
+    } finally {
+      LazyFunctionBodyExpression.setEnabled(false);
+    }
+  }
+
+  private boolean bodiesNeeded() {
+    if (bodiesNeeded == null) {
+      bodiesNeeded = Boolean.FALSE;
+      for (var visitor : visitors) {
+        var type = bodyNodeType(visitor);
+        if (type != null) {
+          LOG.info("Function bodies are parsed in all files, '{}' visits '{}' nodes", visitor.getClass().getName(),
+                   type);
+          bodiesNeeded = Boolean.TRUE;
+          break;
+        }
+      }
+    }
+    return bodiesNeeded;
+  }
+
+  @CheckForNull
+  private static AstNodeType bodyNodeType(SquidAstVisitor<Grammar> visitor) {
+    for (var type : visitor.getAstNodeTypesToVisit()) {
+      if (BODY_NODE_TYPES.contains(type)) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+}
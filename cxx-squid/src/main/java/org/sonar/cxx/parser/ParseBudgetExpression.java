@@ -0,0 +1,50 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import org.sonar.cxx.squidbridge.ParseBudget;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Zero-width expression counting a step of the {@link ParseBudget} of the running parse.
+ *
+ * The expression always matches and consumes no token. It is placed in front of the grammar rules which dominate
+ * backtracking (statements, declarations and primary expressions), if the budget is exceeded the parse is aborted.
+ */
+final class ParseBudgetExpression extends NativeExpression {
+
+  static final ParseBudgetExpression INSTANCE = new ParseBudgetExpression();
+
+  private ParseBudgetExpression() {
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    ParseBudget.step();
+    machine.jump(1);
+  }
+
+  @Override
+  public String toString() {
+    return "ParseBudget";
+  }
+
+}
@@ -31,14 +31,18 @@ import com.sonar.sslr.impl.Parser;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
@@ -66,6 +70,8 @@ import static org.sonar.cxx.preprocessor.CppPunctuator.COMMA;
 import static org.sonar.cxx.preprocessor.CppPunctuator.HASH;
 import static org.sonar.cxx.preprocessor.CppPunctuator.HASHHASH;
 import static org.sonar.cxx.preprocessor.CppPunctuator.LT;
+import org.sonar.cxx.squidbridge.AnalysisProfile;
+import org.sonar.cxx.squidbridge.AnalysisProfile.Phase;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
 
 /**
@@ -114,7 +120,22 @@ public class CxxPreprocessor extends Preprocessor {
   private File currentContextFile;
 
   private final Set<File> analysedFiles = new HashSet<>();
+  private final List<Path> lazyIncludeRoots;
+  private final IncludeIndex includeIndex = new IncludeIndex();
+  private Set<File> deferredIncludes = null;
+  private final Map<File, Set<String>> deferredMacroNames = new HashMap<>();
+  private final Map<String, Deque<File>> deferredIncludesByMacro = new HashMap<>();
+  private final Path cacheDirectory;
+  private List<MacroSnapshot.IncludeLookup> includeLookups = null; // recorded while creating a snapshot
+
+  // units with the same options (e.g. of a compilation database) share the parsed macros and resolved include roots
+  private final Map<List<String>, Map<String, Macro>> unitMacroProfiles = new HashMap<>();
+  private final Map<List<String>, List<Path>> includeRootProfiles = new HashMap<>();
   private final Parser<Grammar> pplineParser;
+  private final boolean tableDrivenLexer;
+
+  private long lexingStart;
+  private boolean processing = false;
 
   private static final String MISSING_INCLUDE_MSG = "Preprocessor: {} include directive error(s). "
                                                       + "This is only relevant if parser creates syntax errors."
@@ -142,6 +163,16 @@ public class CxxPreprocessor extends Preprocessor {
     this.squidConfig = squidConfig;
     this.mockCodeProvider = mockCodeProvider;
     pplineParser = CppParser.create(squidConfig.getCharset());
+    tableDrivenLexer = CxxLexer.isTableDriven(squidConfig);
+    lazyIncludeRoots = SourceCodeProvider.toDirectories(
+      squidConfig.getValues(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                            CxxSquidConfiguration.LAZY_INCLUDE_DIRECTORIES),
+      squidConfig.getBaseDir());
+    cacheDirectory = squidConfig.get(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                                     CxxSquidConfiguration.PREPROCESSOR_CACHE_DIRECTORY)
+      .filter(dir -> !dir.isBlank())
+      .map(dir -> Path.of(squidConfig.getBaseDir()).resolve(dir))
+      .orElse(null);
 
     if (this.mockCodeProvider != null) {
       this.mockCodeProvider.setIncludeRoots(
@@ -170,6 +201,7 @@ public class CxxPreprocessor extends Preprocessor {
     // make sure, that the following code is executed for a new file only
     if (currentContextFile != context.getFile()) {
       currentContextFile = context.getFile();
+      lexingStart = System.nanoTime();
 
       unitCodeProvider = new SourceCodeProvider(currentContextFile);
       unitMacros = new MapChain<>();
@@ -181,8 +213,16 @@ public class CxxPreprocessor extends Preprocessor {
       } else {
         // on project level do this only once for all units
         addGlobalIncludeDirectories();
-        addGlobalMacros();
-        addGlobalForcedIncludes();
+        String configurationKey = cacheDirectory != null ? globalConfigurationKey() : null;
+        if (configurationKey == null || !loadGlobalMacros(configurationKey)) {
+          includeLookups = configurationKey != null ? new ArrayList<>() : null;
+          addGlobalMacros();
+          addGlobalForcedIncludes();
+          if (configurationKey != null) {
+            saveGlobalMacros(configurationKey);
+          }
+          includeLookups = null;
+        }
         globalMacros = new MapChain<>();
         globalMacros.putAll(unitMacros);
 
@@ -204,6 +244,11 @@ public class CxxPreprocessor extends Preprocessor {
       if (changes && LOG.isDebugEnabled()) {
         LOG.debug("unit macros: {}", unitMacros);
       }
+
+      // from now on headers below the lazy include directories are processed on demand
+      deferredIncludes = lazyIncludeRoots.isEmpty() ? null : new HashSet<>();
+      deferredMacroNames.clear();
+      deferredIncludesByMacro.clear();
     }
   }
 
@@ -215,22 +260,70 @@ public class CxxPreprocessor extends Preprocessor {
    */
   @Override
   public PreprocessorAction process(List<Token> tokens) { //TODO: deprecated PreprocessorAction
+    var profile = AnalysisProfile.current();
+    if (profile == null || processing) {
+      return processTokens(tokens);
+    }
+
+    // measure only the tokens of the file under analysis, tokens of nested lexers (includes, macro expansion, ...)
+    // are part of the time of the token triggering them
+    processing = true;
+    try {
+      var type = tokens.get(0).getType();
+      if (type.equals(EOF)) {
+        profile.add(Phase.LEXING, System.nanoTime() - lexingStart);
+        return processTokens(tokens);
+      }
+      var skipping = unitCodeProvider.doSkipBlock();
+      var start = System.nanoTime();
+      var action = processTokens(tokens);
+      var elapsed = System.nanoTime() - start;
+      if (type.equals(PREPROCESSOR)) {
+        if (isIncludeDirective(tokens.get(0).getValue())) {
+          profile.add(Phase.INCLUDES, elapsed);
+        }
+      } else if (!skipping && !action.equals(PreprocessorAction.NO_OPERATION)) {
+        profile.add(Phase.MACROS, elapsed);
+      }
+      return action;
+    } finally {
+      processing = false;
+    }
+  }
+
+  private PreprocessorAction processTokens(List<Token> tokens) {
     var token = tokens.get(0);
     var type = token.getType();
 
     if (type.equals(PREPROCESSOR)) {
+      if (unitCodeProvider.doSkipBlock() && !isConditionalDirective(token.getValue())) {
+        // inactive conditional group: only the conditional directives are of interest
+        return oneConsumedToken(token);
+      }
       String rootFilePath = unitCodeProvider.getFileUnderAnalysisPath();
       return handlePreprocessorDirective(token, rootFilePath);
     }
 
     if (!type.equals(EOF)) {
       if (unitCodeProvider.doSkipBlock()) {
-        return oneConsumedToken(token);
+        return inactiveTokens(tokens);
       }
 
       if (!type.equals(STRING) && !type.equals(NUMBER)) {
         String rootFilePath = unitCodeProvider.getFileUnderAnalysisPath();
-        return handleIdentifiersAndKeywords(tokens, token, rootFilePath);
+        var event = new MacroExpansionEvent();
+        event.begin();
+        var action = handleIdentifiersAndKeywords(tokens, token, rootFilePath);
+        event.end();
+        if (event.shouldCommit() && !action.equals(PreprocessorAction.NO_OPERATION)) {
+          event.macro = token.getValue();
+          event.file = rootFilePath;
+          event.line = token.getLine();
+          event.consumedTokens = action.getNumberOfConsumedTokens();
+          event.producedTokens = action.getTokensToInject().size();
+          event.commit();
+        }
+        return action;
       }
     }
 
@@ -283,6 +376,39 @@ public class CxxPreprocessor extends Preprocessor {
     }
   }
 
+  private static boolean isIncludeDirective(String directive) {
+    var i = directive.indexOf('#') + 1;
+    while (i < directive.length() && Character.isWhitespace(directive.charAt(i))) {
+      i++;
+    }
+    return directive.startsWith("include", i) || directive.startsWith("import", i);
+  }
+
+  /**
+   * #if, #ifdef, #ifndef, #elif, #else and #endif.
+   */
+  private static boolean isConditionalDirective(String directive) {
+    var start = directive.indexOf('#') + 1;
+    while (start < directive.length() && Character.isWhitespace(directive.charAt(start))) {
+      start++;
+    }
+    var end = start;
+    while (end < directive.length() && Character.isJavaIdentifierPart(directive.charAt(end))) {
+      end++;
+    }
+    switch (directive.substring(start, end)) {
+      case "if":
+      case "ifdef":
+      case "ifndef":
+      case "elif":
+      case "else":
+      case "endif":
+        return true;
+      default:
+        return false;
+    }
+  }
+
   public static void finalReport() {
     if (missingIncludeFilesCounter != 0) {
       LOG.warn(MISSING_INCLUDE_MSG, missingIncludeFilesCounter);
@@ -576,6 +702,9 @@ public class CxxPreprocessor extends Preprocessor {
     // or (if none is encountered) until the end of the translation unit.
 
     analysedFiles.clear();
+    deferredIncludes = null;
+    deferredMacroNames.clear();
+    deferredIncludesByMacro.clear();
     unitMacros = null;
     unitCodeProvider = null;
     currentContextFile = null;
@@ -586,7 +715,28 @@ public class CxxPreprocessor extends Preprocessor {
   }
 
   public Macro getMacro(String macroname) {
-    return unitMacros.get(macroname);
+    Macro macro = unitMacros.get(macroname);
+    if (macro == null && deferredIncludes != null && !deferredIncludes.isEmpty()) {
+      processDeferredIncludes(macroname, false);
+      macro = unitMacros.get(macroname);
+    }
+    return macro;
+  }
+
+  /**
+   * Process the deferred headers which can define the macro, in the order they were included: until the macro is
+   * defined or, with all = true, all of them.
+   */
+  private void processDeferredIncludes(String macroname, boolean all) {
+    var includedFiles = deferredIncludesByMacro.get(macroname);
+    while (includedFiles != null && !includedFiles.isEmpty() && (all || unitMacros.get(macroname) == null)) {
+      // headers included by this one can be deferred again (added to the end of the queue)
+      var includedFile = includedFiles.poll();
+      if (deferredIncludes.remove(includedFile)) {
+        LOG.debug("process deferred include file '{}' (macro '{}')", includedFile, macroname);
+        processIncludedFile(includedFile, squidConfig.getCharset());
+      }
+    }
   }
 
   public String valueOf(String macroname) {
@@ -644,11 +794,76 @@ public class CxxPreprocessor extends Preprocessor {
     }
   }
 
+  /**
+   * Key of all settings having an influence on the project level macros (see {@link MacroSnapshot}).
+   */
+  private String globalConfigurationKey() {
+    var settings = new ArrayList<String>();
+    settings.add(Objects.toString(CxxPreprocessor.class.getPackage().getImplementationVersion(), ""));
+    settings.add(squidConfig.getCharset().name());
+    settings.add(squidConfig.getBaseDir());
+    settings.add(CxxSquidConfiguration.DEFINES);
+    settings.addAll(squidConfig.getValues(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.DEFINES));
+    settings.add(CxxSquidConfiguration.INCLUDE_DIRECTORIES);
+    settings.addAll(globalIncludeDirectories);
+    settings.add(CxxSquidConfiguration.FORCE_INCLUDES);
+    settings.addAll(squidConfig.getValues(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.FORCE_INCLUDES));
+    return MacroSnapshot.configurationKey(settings);
+  }
+
+  /**
+   * Use the project level macros of a previous analysis instead of parsing the defines and forced includes again.
+   */
+  private boolean loadGlobalMacros(String configurationKey) {
+    var snapshot = MacroSnapshot.file(cacheDirectory, configurationKey);
+    try {
+      var macros = MacroSnapshot.load(snapshot, configurationKey, this::repeatIncludeLookup);
+      if (macros != null) {
+        LOG.debug("global macros loaded from '{}'", snapshot);
+        unitMacros.putAll(macros);
+        return true;
+      }
+    } catch (IOException e) {
+      LOG.debug("Cannot read preprocessor snapshot '{}': {}", snapshot, e.getMessage());
+    }
+    return false;
+  }
+
+  @CheckForNull
+  private File repeatIncludeLookup(MacroSnapshot.IncludeLookup lookup) {
+    for (var file : lookup.getIncludingFiles()) {
+      unitCodeProvider.pushFileState(file);
+    }
+    try {
+      return getCodeProvider().getSourceCodeFile(lookup.getName(), lookup.isQuoted());
+    } finally {
+      for (var i = 0; i < lookup.getIncludingFiles().size(); i++) {
+        unitCodeProvider.popFileState();
+      }
+    }
+  }
+
+  private void saveGlobalMacros(String configurationKey) {
+    var snapshot = MacroSnapshot.file(cacheDirectory, configurationKey);
+    try {
+      // the files read so far are the forced includes and the files they include
+      if (MacroSnapshot.save(snapshot, configurationKey, new ArrayList<>(analysedFiles), includeLookups,
+                             unitMacros.getMap().values())) {
+        LOG.debug("global macros saved to '{}'", snapshot);
+      }
+    } catch (IOException e) {
+      LOG.warn("Cannot write preprocessor snapshot '{}': {}", snapshot, e.getMessage());
+    }
+  }
+
   private boolean addUnitMacros(String level) {
     var defines = squidConfig.getLevelValues(level, CxxSquidConfiguration.DEFINES);
     if (!defines.isEmpty()) {
-      Collections.reverse(defines);
-      var macros = parseMacroDefinitions(defines);
+      var macros = unitMacroProfiles.computeIfAbsent(defines, key -> {
+        var reversed = new ArrayList<>(key);
+        Collections.reverse(reversed);
+        return parseMacroDefinitions(reversed);
+      });
       if (!macros.isEmpty()) {
         unitMacros.putAll(macros);
         return true;
@@ -667,7 +882,8 @@ public class CxxPreprocessor extends Preprocessor {
     List<String> unitIncludeDirectories = squidConfig.getLevelValues(level, CxxSquidConfiguration.INCLUDE_DIRECTORIES);
     boolean hasUnitIncludes = !unitIncludeDirectories.isEmpty();
     unitIncludeDirectories.addAll(globalIncludeDirectories);
-    unitCodeProvider.setIncludeRoots(unitIncludeDirectories, squidConfig.getBaseDir());
+    unitCodeProvider.addIncludeRoots(includeRootProfiles.computeIfAbsent(
+      unitIncludeDirectories, key -> SourceCodeProvider.toDirectories(key, squidConfig.getBaseDir())));
     return hasUnitIncludes;
   }
 
@@ -752,7 +968,7 @@ public class CxxPreprocessor extends Preprocessor {
     List<Token> tokens = null;
     unitMacros.disable(macroName);
     try {
-      tokens = stripEOF(CxxLexer.create(this).lex(macroExpression));
+      tokens = stripEOF(CxxLexer.create(squidConfig.getCharset(), tableDrivenLexer, this).lex(macroExpression));
     } finally {
       unitMacros.enable(macroName);
     }
@@ -991,7 +1207,8 @@ public class CxxPreprocessor extends Preprocessor {
     } else if ((node = ast.getFirstDescendant(CppGrammarImpl.includeBodyFreeform)) != null) {
       // expand and recurse
       String includeBody = serialize(stripEOF(node.getTokens()), "");
-      String expandedIncludeBody = serialize(stripEOF(CxxLexer.create(this).lex(includeBody)), "");
+      String expandedIncludeBody = serialize(stripEOF(CxxLexer.create(squidConfig.getCharset(), tableDrivenLexer, this)
+        .lex(includeBody)), "");
       var parseError = false;
       AstNode includeBodyAst = null;
       try {
@@ -1012,7 +1229,12 @@ public class CxxPreprocessor extends Preprocessor {
     }
 
     if (includedFileName != null) {
-      return getCodeProvider().getSourceCodeFile(includedFileName, quoted);
+      var includedFile = getCodeProvider().getSourceCodeFile(includedFileName, quoted);
+      if (includeLookups != null) {
+        includeLookups.add(new MacroSnapshot.IncludeLookup(unitCodeProvider.getIncludingFiles(), includedFileName,
+                                                           quoted, includedFile));
+      }
+      return includedFile;
     }
 
     return null;
@@ -1089,6 +1311,10 @@ public class CxxPreprocessor extends Preprocessor {
   PreprocessorAction handleDefineLine(AstNode ast, Token token, String filename) {
     // Here we have a define directive. Parse it and store the macro in a dictionary.
     Macro macro = parseMacroDefinition(ast);
+    if (deferredIncludes != null && !deferredIncludes.isEmpty()) {
+      // a deferred header processed later must not overwrite this definition
+      processDeferredIncludes(macro.name, true);
+    }
     unitMacros.put(macro.name, macro);
 
     return oneConsumedToken(token);
@@ -1103,26 +1329,110 @@ public class CxxPreprocessor extends Preprocessor {
     // b) extract the filename out of the include body and try to find it
     // c) if not done yet, process it using a special lexer, which calls back only
     //    if it finds relevant preprocessor directives (currently: include's and define's)
+    var event = new IncludeEvent();
+    event.begin();
+    var start = event.isEnabled() ? System.nanoTime() : 0L;
     File includedFile = findIncludedFile(ast, token, filename);
+    var resolveTime = event.isEnabled() ? System.nanoTime() - start : 0L;
+    var processed = false;
     if (includedFile == null) {
       missingIncludeFilesCounter++;
       LOG.debug("[" + filename + ":" + token.getLine()
                   + "]: preprocessor cannot find include file '" + token.getValue() + "'");
-    } else if (analysedFiles.add(includedFile.getAbsoluteFile())) {
-      unitCodeProvider.pushFileState(includedFile);
-      try {
-        LOG.debug("process include file '{}'", includedFile.getAbsoluteFile());
-        IncludeLexer.create(this).lex(getCodeProvider().getSourceCode(includedFile, charset));
-      } catch (IOException e) {
-        LOG.error("[{}: preprocessor cannot read include file]: {}", includedFile.getAbsoluteFile(), e.getMessage());
-      } finally {
-        unitCodeProvider.popFileState();
-      }
+    } else if (analysedFiles.add(includedFile.getAbsoluteFile()) && !deferIncludedFile(includedFile)) {
+      processed = true;
+      processIncludedFile(includedFile, charset);
     }
 
+    event.end();
+    if (event.shouldCommit()) {
+      event.directive = token.getValue();
+      event.path = includedFile != null ? includedFile.getPath() : "";
+      event.includingFile = filename;
+      event.resolveTime = resolveTime;
+      event.processed = processed;
+      event.commit();
+    }
     return oneConsumedToken(token);
   }
 
+  private void processIncludedFile(File includedFile, Charset charset) {
+    unitCodeProvider.pushFileState(includedFile);
+    try {
+      LOG.debug("process include file '{}'", includedFile.getAbsoluteFile());
+      IncludeLexer.create(this).lex(getCodeProvider().getSourceCode(includedFile, charset));
+    } catch (IOException e) {
+      LOG.error("[{}: preprocessor cannot read include file]: {}", includedFile.getAbsoluteFile(), e.getMessage());
+    } finally {
+      unitCodeProvider.popFileState();
+    }
+  }
+
+  /**
+   * Headers below the lazy include directories are not processed when they are included, but when the unit uses one
+   * of the macros they (or the headers they include) can define (see {@link #getMacro}). Headers with include
+   * directives which can be resolved only by expanding macros are always processed immediately.
+   *
+   * @return true if the processing of the header is deferred
+   */
+  private boolean deferIncludedFile(File includedFile) {
+    if (deferredIncludes == null) {
+      return false;
+    }
+    // compare in normalized form: e.g. "dir/../x.h" is not below "dir"
+    var path = includedFile.toPath().toAbsolutePath().normalize();
+    if (lazyIncludeRoots.stream().noneMatch(path::startsWith)) {
+      return false;
+    }
+    var macroNames = getDeferredMacroNames(includedFile);
+    if (macroNames == null) {
+      return false;
+    }
+    LOG.debug("defer include file '{}'", includedFile.getAbsoluteFile());
+    deferredIncludes.add(includedFile);
+    for (var macroName : macroNames) {
+      deferredIncludesByMacro.computeIfAbsent(macroName, key -> new ArrayDeque<>()).add(includedFile);
+    }
+    return true;
+  }
+
+  /**
+   * Names of all macros a header and the headers it includes can define.
+   *
+   * @return null if the names are unknown
+   */
+  @CheckForNull
+  private Set<String> getDeferredMacroNames(File header) {
+    if (!deferredMacroNames.containsKey(header)) {
+      var names = new HashSet<String>();
+      deferredMacroNames.put(header, collectMacroNames(header, names, new HashSet<>()) ? names : null);
+    }
+    return deferredMacroNames.get(header);
+  }
+
+  private boolean collectMacroNames(File header, Set<String> names, Set<File> visited) {
+    if (!visited.add(header)) {
+      return true;
+    }
+    var entry = includeIndex.get(header, getCodeProvider(), squidConfig.getCharset());
+    if (!entry.isComplete()) {
+      return false;
+    }
+    names.addAll(entry.getMacros());
+    unitCodeProvider.pushFileState(header);
+    try {
+      for (var include : entry.getIncludes()) {
+        var includedFile = getCodeProvider().getSourceCodeFile(include.getName(), include.isQuoted());
+        if (includedFile != null && !collectMacroNames(includedFile, names, visited)) {
+          return false;
+        }
+      }
+    } finally {
+      unitCodeProvider.popFileState();
+    }
+    return true;
+  }
+
   PreprocessorAction handleImportLine(AstNode ast, Token token, String filename, Charset charset) {
     if (ast.getFirstDescendant(CppGrammarImpl.expandedIncludeBody) != null) {
       // import <file>
@@ -1144,7 +1454,7 @@ public class CxxPreprocessor extends Preprocessor {
       String value = ppToken.getValue();
       if (!value.isBlank()) {
         // call CXX lexer to create a CXX token
-        List<Token> cxxTokens = CxxLexer.create().lex(value);
+        List<Token> cxxTokens = CxxLexer.create(squidConfig.getCharset(), tableDrivenLexer).lex(value);
         var cxxToken = cxxTokens.get(0);
         var cxxType = cxxToken.getType();
 
@@ -1167,6 +1477,10 @@ public class CxxPreprocessor extends Preprocessor {
 
   PreprocessorAction handleUndefLine(AstNode ast, Token token) {
     String macroName = ast.getFirstDescendant(IDENTIFIER).getTokenValue();
+    if (deferredIncludes != null && !deferredIncludes.isEmpty()) {
+      // otherwise a deferred header defines the macro again when it is used
+      processDeferredIncludes(macroName, true);
+    }
     unitMacros.remove(macroName);
     return oneConsumedToken(token);
   }
@@ -1239,6 +1553,22 @@ public class CxxPreprocessor extends Preprocessor {
     return new PreprocessorAction(1, Collections.singletonList(Trivia.createSkippedText(token)), Collections.emptyList());
   }
 
+  /**
+   * Consume all tokens of an inactive conditional group up to the next preprocessor directive with one action
+   * instead of one action per token.
+   */
+  private static PreprocessorAction inactiveTokens(List<Token> tokens) {
+    var trivia = new ArrayList<Trivia>();
+    for (var token : tokens) {
+      var type = token.getType();
+      if (type.equals(PREPROCESSOR) || type.equals(EOF)) {
+        break;
+      }
+      trivia.add(Trivia.createSkippedText(token));
+    }
+    return new PreprocessorAction(trivia.size(), trivia, Collections.emptyList());
+  }
+
   static class MismatchException extends Exception {
 
     private static final long serialVersionUID = 1960113363232807009L;
@@ -0,0 +1,61 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event emitted by {@link CxxPreprocessor} for each include or import directive.
+ *
+ * The duration covers resolving the included file and (if not done yet) harvesting its macros.
+ */
+@Name(IncludeEvent.NAME)
+@Label("Include Processed")
+@Description("Resolving and processing of an include directive")
+@Category({"SonarCXX", "Preprocessor"})
+@StackTrace(false)
+class IncludeEvent extends jdk.jfr.Event {
+
+  static final String NAME = "org.sonar.cxx.IncludeProcessed";
+
+  @Label("Directive")
+  String directive;
+
+  @Label("Path")
+  @Description("Resolved path of the included file, empty if it cannot be found")
+  String path;
+
+  @Label("Including File")
+  String includingFile;
+
+  @Label("Resolve Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long resolveTime;
+
+  @Label("Processed")
+  @Description("False if the file was not found or processed before")
+  boolean processed;
+
+}
@@ -0,0 +1,183 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.parser.CxxTokenType;
+
+/**
+ * Index of the macro definitions and include directives of header files. Used to process the headers below the
+ * lazy include directories on demand (see {@link org.sonar.cxx.config.CxxSquidConfiguration#LAZY_INCLUDE_DIRECTORIES}).
+ *
+ * Only the directive lines of a header are scanned (see {@link IncludeLexer}), they are neither parsed nor are
+ * conditions evaluated: the index contains the names of all macros a header can define and all headers it can include.
+ * The index of a file is created once and reused for all translation units.
+ */
+final class IncludeIndex {
+
+  private static final Logger LOG = Loggers.get(IncludeIndex.class);
+
+  private final Map<File, Entry> entries = new HashMap<>();
+
+  /**
+   * Get the index of a file, the file is scanned on first use.
+   */
+  Entry get(File file, SourceCodeProvider codeProvider, Charset charset) {
+    return entries.computeIfAbsent(file, f -> scan(f, codeProvider, charset));
+  }
+
+  private static Entry scan(File file, SourceCodeProvider codeProvider, Charset charset) {
+    var entry = new Entry();
+    try {
+      var source = codeProvider.getSourceCode(file, charset);
+      for (var token : IncludeLexer.create().lex(source)) {
+        if (token.getType().equals(CxxTokenType.PREPROCESSOR)) {
+          entry.add(token.getValue());
+        }
+      }
+    } catch (IOException e) {
+      LOG.debug("[{}: cannot index include file]: {}", file, e.getMessage());
+    }
+    return entry;
+  }
+
+  /**
+   * Macro names and included headers of one file.
+   */
+  static final class Entry {
+
+    private final Set<String> macros = new HashSet<>();
+    private final List<Include> includes = new ArrayList<>();
+    private boolean complete = true;
+
+    /**
+     * Names of the macros defined with #define.
+     */
+    Set<String> getMacros() {
+      return Collections.unmodifiableSet(macros);
+    }
+
+    /**
+     * Headers included with #include, #include_next or #import.
+     */
+    List<Include> getIncludes() {
+      return Collections.unmodifiableList(includes);
+    }
+
+    /**
+     * False if the file contains an include directive which can be resolved only by expanding macros.
+     */
+    boolean isComplete() {
+      return complete;
+    }
+
+    private void add(String directive) {
+      var start = skipWhitespace(directive, directive.indexOf('#') + 1);
+      var end = identifierEnd(directive, start);
+      switch (directive.substring(start, end)) {
+        case "define":
+          start = skipWhitespace(directive, end);
+          end = identifierEnd(directive, start);
+          if (end > start) {
+            macros.add(directive.substring(start, end));
+          }
+          break;
+        case "include":
+        case "include_next":
+          if (!addInclude(directive, end)) {
+            complete = false;
+          }
+          break;
+        case "import":
+          // import <file> or "file", otherwise a module import
+          addInclude(directive, end);
+          break;
+        default:
+          break;
+      }
+    }
+
+    private boolean addInclude(String directive, int index) {
+      var start = skipWhitespace(directive, index);
+      if (start < directive.length()) {
+        var open = directive.charAt(start);
+        var end = -1;
+        if (open == '<') {
+          end = directive.indexOf('>', start + 1);
+        } else if (open == '"') {
+          end = directive.indexOf('"', start + 1);
+        }
+        if (end > start + 1) {
+          includes.add(new Include(directive.substring(start + 1, end), open == '"'));
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static int skipWhitespace(String str, int index) {
+      while (index < str.length() && Character.isWhitespace(str.charAt(index))) {
+        index++;
+      }
+      return index;
+    }
+
+    private static int identifierEnd(String str, int index) {
+      while (index < str.length() && (Character.isLetterOrDigit(str.charAt(index)) || str.charAt(index) == '_')) {
+        index++;
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Header name of an include directive.
+   */
+  static final class Include {
+
+    private final String name;
+    private final boolean quoted;
+
+    Include(String name, boolean quoted) {
+      this.name = name;
+      this.quoted = quoted;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isQuoted() {
+      return quoted;
+    }
+  }
+
+}
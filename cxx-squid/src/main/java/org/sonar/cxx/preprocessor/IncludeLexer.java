@@ -21,9 +21,7 @@ package org.sonar.cxx.preprocessor;
 
 import com.sonar.sslr.api.Preprocessor;
 import com.sonar.sslr.impl.Lexer;
-import com.sonar.sslr.impl.channel.BlackHoleChannel;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.ANY_CHAR;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.commentRegexp;
+import org.sonar.cxx.channels.IncludeSkipChannel;
 import org.sonar.cxx.channels.PreprocessorChannel;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 
@@ -40,10 +38,8 @@ public final class IncludeLexer {
     var builder = Lexer.builder()
       .withCharset(squidConfig.getCharset())
       .withFailIfNoChannelToConsumeOneCharacter(true)
-      .withChannel(new BlackHoleChannel("\\s"))
-      .withChannel(new PreprocessorChannel())
-      .withChannel(commentRegexp("/\\*", ANY_CHAR + "*?", "\\*/"))
-      .withChannel(new BlackHoleChannel(".*"));
+      .withChannel(new IncludeSkipChannel())
+      .withChannel(new PreprocessorChannel());
 
     for (var preprocessor : preprocessors) {
       builder.withPreprocessor(preprocessor);
@@ -0,0 +1,60 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event emitted by {@link CxxPreprocessor} for the expansion of a macro.
+ *
+ * Only expansions taking longer than the threshold (default 1 ms) are recorded, this shows macro expansion storms
+ * (deeply nested or huge macros) without recording each of the many cheap expansions.
+ */
+@Name(MacroExpansionEvent.NAME)
+@Label("Macro Expansion")
+@Description("Expansion of a macro including the rescanning of its replacement")
+@Category({"SonarCXX", "Preprocessor"})
+@StackTrace(false)
+@Threshold("1 ms")
+class MacroExpansionEvent extends jdk.jfr.Event {
+
+  static final String NAME = "org.sonar.cxx.MacroExpansion";
+
+  @Label("Macro")
+  String macro;
+
+  @Label("File")
+  String file;
+
+  @Label("Line")
+  int line;
+
+  @Label("Consumed Tokens")
+  int consumedTokens;
+
+  @Label("Produced Tokens")
+  int producedTokens;
+
+}
@@ -0,0 +1,346 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.cxx.parser.CxxKeyword;
+import org.sonar.cxx.parser.CxxPunctuator;
+import org.sonar.cxx.parser.CxxTokenType;
+
+/**
+ * Persisted project level state of the preprocessor: the macros defined by the predefined macros,
+ * <code>sonar.cxx.defines</code> and the files of <code>sonar.cxx.forceIncludes</code>.
+ *
+ * A snapshot is stored per configuration in the preprocessor cache directory (see
+ * {@link org.sonar.cxx.config.CxxSquidConfiguration#PREPROCESSOR_CACHE_DIRECTORY}). The name of the snapshot file is
+ * derived from the configuration key (a hash of all settings having an influence on the project level state). The
+ * snapshot contains the hashes of all files read to create it and the results of all include file lookups (also the
+ * failed ones). It is only used if none of the files has changed and all lookups still find the same files, e.g. a
+ * generated header created after the snapshot or a header shadowing another one makes it invalid. The trivia of the
+ * macro tokens are not stored, the macro expansion uses only type and value of the tokens.
+ */
+final class MacroSnapshot {
+
+  private static final int MAGIC = 0x43585050; // "CXPP"
+  private static final int VERSION = 2;
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  /**
+   * Token types which can be part of a macro, a type is stored as index into this list and enum constant name.
+   */
+  private static final List<Class<? extends Enum<?>>> TOKEN_TYPES = List.of(
+    GenericTokenType.class, CxxTokenType.class, CppKeyword.class, CppPunctuator.class, CxxKeyword.class,
+    CxxPunctuator.class);
+
+  private MacroSnapshot() {
+    // only static methods
+  }
+
+  /**
+   * Hash of all settings having an influence on the project level state.
+   *
+   * @param settings settings in a fixed order
+   * @return key of the configuration (hex string)
+   */
+  static String configurationKey(List<String> settings) {
+    var digest = digest();
+    digest.update(Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+    for (var setting : settings) {
+      digest.update((byte) 0);
+      digest.update(setting.getBytes(StandardCharsets.UTF_8));
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Name of the snapshot file for a configuration.
+   */
+  static Path file(Path directory, String configurationKey) {
+    return directory.resolve("cxx-preprocessor-" + configurationKey.substring(0, 16) + ".bin");
+  }
+
+  /**
+   * Load the macros of a snapshot.
+   *
+   * @param snapshot snapshot file
+   * @param configurationKey key of the current configuration
+   * @param resolver repeats an include file lookup in the current environment
+   * @return macros in the order they were stored or null if there is no snapshot for the configuration, one of the
+   * files has changed or an include file lookup has another result
+   * @throws IOException if the snapshot cannot be read
+   */
+  @CheckForNull
+  static Map<String, Macro> load(Path snapshot, String configurationKey,
+                                 Function<IncludeLookup, File> resolver) throws IOException {
+    if (!Files.isRegularFile(snapshot)) {
+      return null;
+    }
+    try ( var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || !configurationKey.equals(in.readUTF())) {
+        return null;
+      }
+      var files = in.readInt();
+      for (var i = 0; i < files; i++) {
+        var file = new File(in.readUTF());
+        var hash = in.readUTF();
+        if (!file.isFile() || !hash.equals(hash(file))) {
+          return null;
+        }
+      }
+      var lookups = in.readInt();
+      for (var i = 0; i < lookups; i++) {
+        var lookup = readLookup(in);
+        var result = resolver.apply(lookup);
+        if (!lookup.getResult().equals(result != null ? result.getAbsolutePath() : "")) {
+          return null;
+        }
+      }
+      var count = in.readInt();
+      var macros = new LinkedHashMap<String, Macro>(count * 2);
+      for (var i = 0; i < count; i++) {
+        var name = in.readUTF();
+        var params = readTokens(in);
+        var body = readTokens(in);
+        macros.put(name, new Macro(name, params, body, in.readBoolean()));
+      }
+      return macros;
+    }
+  }
+
+  /**
+   * Store the macros in a snapshot.
+   *
+   * @param snapshot snapshot file
+   * @param configurationKey key of the current configuration
+   * @param files files read to create the macros
+   * @param lookups include file lookups done to create the macros
+   * @param macros macros to store
+   * @return false if the macros contain tokens which cannot be stored
+   * @throws IOException if the snapshot cannot be written
+   */
+  static boolean save(Path snapshot, String configurationKey, Collection<File> files,
+                      Collection<IncludeLookup> lookups, Collection<Macro> macros) throws IOException {
+    for (var macro : macros) {
+      if (!isSupported(macro.params) || !isSupported(macro.body)) {
+        return false;
+      }
+    }
+
+    Files.createDirectories(snapshot.getParent());
+    var tmp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+    try {
+      try ( var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(configurationKey);
+        out.writeInt(files.size());
+        for (var file : files) {
+          out.writeUTF(file.getAbsolutePath());
+          out.writeUTF(hash(file));
+        }
+        out.writeInt(lookups.size());
+        for (var lookup : lookups) {
+          writeLookup(out, lookup);
+        }
+        out.writeInt(macros.size());
+        for (var macro : macros) {
+          out.writeUTF(macro.name);
+          writeTokens(out, macro.params);
+          writeTokens(out, macro.body);
+          out.writeBoolean(macro.isVariadic);
+        }
+      }
+      // concurrent analyses must not see a partially written snapshot
+      Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    return true;
+  }
+
+  private static void writeLookup(DataOutputStream out, IncludeLookup lookup) throws IOException {
+    out.writeInt(lookup.getIncludingFiles().size());
+    for (var file : lookup.getIncludingFiles()) {
+      out.writeUTF(file.getAbsolutePath());
+    }
+    out.writeUTF(lookup.getName());
+    out.writeBoolean(lookup.isQuoted());
+    out.writeUTF(lookup.getResult());
+  }
+
+  private static IncludeLookup readLookup(DataInputStream in) throws IOException {
+    var count = in.readInt();
+    var includingFiles = new ArrayList<File>(count);
+    for (var i = 0; i < count; i++) {
+      includingFiles.add(new File(in.readUTF()));
+    }
+    var name = in.readUTF();
+    var quoted = in.readBoolean();
+    return new IncludeLookup(includingFiles, name, quoted, in.readUTF());
+  }
+
+  private static boolean isSupported(@Nullable List<Token> tokens) {
+    if (tokens != null) {
+      for (var token : tokens) {
+        if (!TOKEN_TYPES.contains(token.getType().getClass())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void writeTokens(DataOutputStream out, @Nullable List<Token> tokens) throws IOException {
+    if (tokens == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(tokens.size());
+    for (var token : tokens) {
+      var type = (Enum<?>) token.getType();
+      out.writeByte(TOKEN_TYPES.indexOf(type.getClass()));
+      out.writeUTF(type.name());
+      out.writeUTF(token.getValue());
+      out.writeUTF(token.getOriginalValue());
+      out.writeInt(token.getLine());
+      out.writeInt(token.getColumn());
+      out.writeUTF(token.getURI() != null ? token.getURI().toString() : "");
+      out.writeBoolean(token.isGeneratedCode());
+    }
+  }
+
+  @CheckForNull
+  private static List<Token> readTokens(DataInputStream in) throws IOException {
+    var count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    var tokens = new ArrayList<Token>(count);
+    for (var i = 0; i < count; i++) {
+      var type = tokenType(in.readByte(), in.readUTF());
+      var value = in.readUTF();
+      var originalValue = in.readUTF();
+      tokens.add(Token.builder()
+        .setType(type)
+        .setValueAndOriginalValue(value, originalValue)
+        .setLine(in.readInt())
+        .setColumn(in.readInt())
+        .setURI(URI.create(in.readUTF()))
+        .setGeneratedCode(in.readBoolean())
+        .build());
+    }
+    return tokens;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static TokenType tokenType(int index, String name) throws IOException {
+    if (index < 0 || index >= TOKEN_TYPES.size()) {
+      throw new IOException("Unsupported token type in preprocessor snapshot");
+    }
+    try {
+      return (TokenType) Enum.valueOf((Class) TOKEN_TYPES.get(index), name);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unsupported token type in preprocessor snapshot", e);
+    }
+  }
+
+  private static String hash(File file) throws IOException {
+    return toHex(digest().digest(Files.readAllBytes(file.toPath())));
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    var sb = new StringBuilder(2 * bytes.length);
+    for (var b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Lookup of an include file: the files opened by include directives at the time of the lookup (from the outermost
+   * to the current one), the name of the include directive and the absolute path of the file found (empty if none).
+   */
+  static final class IncludeLookup {
+
+    private final List<File> includingFiles;
+    private final String name;
+    private final boolean quoted;
+    private final String result;
+
+    IncludeLookup(List<File> includingFiles, String name, boolean quoted, @Nullable File result) {
+      this(includingFiles, name, quoted, result != null ? result.getAbsolutePath() : "");
+    }
+
+    private IncludeLookup(List<File> includingFiles, String name, boolean quoted, String result) {
+      this.includingFiles = includingFiles;
+      this.name = name;
+      this.quoted = quoted;
+      this.result = result;
+    }
+
+    List<File> getIncludingFiles() {
+      return includingFiles;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isQuoted() {
+      return quoted;
+    }
+
+    String getResult() {
+      return result;
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
@@ -61,6 +62,23 @@ public class SourceCodeProvider {
   }
 
   public void setIncludeRoots(List<String> roots, String baseDir) {
+    includeRoots.addAll(toDirectories(roots, baseDir));
+  }
+
+  /**
+   * Add already resolved include roots (see {@link #toDirectories}).
+   */
+  void addIncludeRoots(List<Path> roots) {
+    includeRoots.addAll(roots);
+  }
+
+  /**
+   * Resolve directories relative to the base directory, invalid directories are skipped.
+   *
+   * @return real paths of the existing directories
+   */
+  static List<Path> toDirectories(List<String> roots, String baseDir) {
+    var directories = new ArrayList<Path>(roots.size());
     for (var root : roots) {
       var path = Paths.get(root);
       try {
@@ -70,7 +88,7 @@ public class SourceCodeProvider {
         path = path.toRealPath(); // IOException if the file does not exist
 
         if (Files.isDirectory(path)) {
-          includeRoots.add(path);
+          directories.add(path);
         } else {
           LOG.warn("preprocessor: invalid include file directory '{}'", path.toString());
         }
@@ -78,6 +96,7 @@ public class SourceCodeProvider {
         LOG.error("preprocessor: invalid include file directory '{}'", path.toString());
       }
     }
+    return directories;
   }
 
   public List<Path> getIncludeRoots() {
@@ -94,6 +113,21 @@ public class SourceCodeProvider {
     fileUnderAnalysisPath = getFileUnderAnalysis().getAbsolutePath();
   }
 
+  /**
+   * Files opened by include directives, from the outermost to the current one (without the context file).
+   */
+  List<File> getIncludingFiles() {
+    var files = new ArrayList<File>(ppState.size());
+    var states = ppState.descendingIterator();
+    while (states.hasNext()) {
+      var file = states.next().fileUnderAnalysis;
+      if (file != contextFile) {
+        files.add(file);
+      }
+    }
+    return files;
+  }
+
   public void skipBlock(boolean state) {
     ppState.peek().skipBlock = state;
   }
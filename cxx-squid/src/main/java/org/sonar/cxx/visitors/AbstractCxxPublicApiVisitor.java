@@ -25,7 +25,11 @@ import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.impl.ast.AstXmlPrinter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.sonar.api.utils.log.Logger;
@@ -79,9 +83,25 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   private static final String UNNAMED_ENUM_ID = "<unnamed enumeration>";
 
   private static final String TOKEN_OVERRIDE = "override";
+
+  private static final int DOXYGEN_INLINE = 1;
+  private static final int DOXYGEN_BLOCK = 2;
+
   private String[] headerFileSuffixes = null;
   protected boolean skipFile = true;
 
+  /**
+   * Per file: access specifier preceding a node on the same level, filled by one forward pass over the children of a
+   * parent (see {@link #getAccessSpecifier(AstNode)}).
+   */
+  private final Map<AstNode, AstNode> precedingAccessSpecifiers = new IdentityHashMap<>();
+  private final Set<AstNode> scannedParents = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Per file: Doxygen classification of comment tokens (DOXYGEN_INLINE, DOXYGEN_BLOCK).
+   */
+  private final Map<Token, Integer> commentKinds = new IdentityHashMap<>();
+
   private static boolean isTypedef(AstNode declaratorList) {
     var simpleDeclSpezifierSeq = declaratorList.getPreviousSibling();
     if (simpleDeclSpezifierSeq != null) {
@@ -223,7 +243,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     return builder.toString();
   }
 
-  private static List<Token> getDeclaratorInlineComment(AstNode declarator) {
+  private List<Token> getDeclaratorInlineComment(AstNode declarator) {
     List<Token> comments;
 
     // inline comments are attached to the next AST node (not sibling, because the last attribute inline comment
@@ -247,14 +267,37 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     return comments;
   }
 
-  private static boolean isPublicApiMember(AstNode node) {
-    AstNode access = node;
+  /**
+   * Retrieve the accessSpecifier which is the nearest previous sibling of the node or of one of its ancestors (same
+   * result as walking backwards with getPreviousAstNode()). The children of each parent are scanned only once per
+   * file, tracking the current access specifier.
+   */
+  @CheckForNull
+  private AstNode getAccessSpecifier(AstNode node) {
+    var child = node;
+    for (var parent = node.getParent(); parent != null; parent = parent.getParent()) {
+      if (scannedParents.add(parent)) {
+        AstNode current = null;
+        for (var sibling : parent.getChildren()) {
+          if (current != null) {
+            precedingAccessSpecifiers.put(sibling, current);
+          }
+          if (sibling.is(CxxGrammarImpl.accessSpecifier)) {
+            current = sibling;
+          }
+        }
+      }
+      var access = precedingAccessSpecifiers.get(child);
+      if (access != null) {
+        return access;
+      }
+      child = parent;
+    }
+    return null;
+  }
 
-    // retrieve the accessSpecifier
-    do {
-      access = access.getPreviousAstNode();
-    } while (access != null
-               && !access.getType().equals(CxxGrammarImpl.accessSpecifier));
+  private boolean isPublicApiMember(AstNode node) {
+    var access = getAccessSpecifier(node);
 
     if (access != null) {
       return access.getToken().getType().equals(CxxKeyword.PUBLIC)
@@ -310,13 +353,13 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
    * @param token the token to inspect
    * @return true if documentation is found for specified line, false otherwise
    */
-  private static List<Token> getInlineDocumentation(Token token) {
+  private List<Token> getInlineDocumentation(Token token) {
     var comments = new ArrayList<Token>();
 
     for (var trivia : token.getTrivia()) {
       if (trivia.isComment()) {
         var triviaToken = trivia.getToken();
-        if ((triviaToken != null) && (isDoxygenInlineComment(triviaToken.getValue()))) {
+        if ((triviaToken != null) && (getCommentKind(triviaToken) & DOXYGEN_INLINE) != 0) {
           comments.add(triviaToken);
         }
       }
@@ -324,19 +367,15 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     return comments;
   }
 
-  private static List<Token> getBlockDocumentation(AstNode node) {
+  private List<Token> getBlockDocumentation(AstNode node) {
     var commentTokens = new ArrayList<Token>();
 
     var token = node.getToken();
     for (var trivia : token.getTrivia()) {
       if (trivia.isComment()) {
         var triviaToken = trivia.getToken();
-        if (triviaToken != null) {
-          String comment = triviaToken.getValue();
-          if (isDoxygenCommentBlock(comment)
-                && !isDoxygenInlineComment(comment)) {
-            commentTokens.add(triviaToken);
-          }
+        if (triviaToken != null && getCommentKind(triviaToken) == DOXYGEN_BLOCK) {
+          commentTokens.add(triviaToken);
         }
       }
     }
@@ -344,6 +383,19 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     return commentTokens;
   }
 
+  /**
+   * Classify a comment token once per file.
+   *
+   * @param comment comment token
+   * @return combination of DOXYGEN_INLINE and DOXYGEN_BLOCK
+   */
+  private int getCommentKind(Token comment) {
+    return commentKinds.computeIfAbsent(comment, t -> {
+      var value = t.getValue();
+      return (isDoxygenInlineComment(value) ? DOXYGEN_INLINE : 0) | (isDoxygenCommentBlock(value) ? DOXYGEN_BLOCK : 0);
+    });
+  }
+
   private static boolean isDoxygenInlineComment(String comment) {
 
     return comment.startsWith("/*!<") || comment.startsWith("/**<")
@@ -370,6 +422,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
   @Override
   public void visitFile(AstNode astNode) {
     skipFile = true;
+    clearCaches();
 
     if (headerFileSuffixes != null) {
       for (var suffix : headerFileSuffixes) {
@@ -386,6 +439,17 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
 
   }
 
+  @Override
+  public void leaveFile(AstNode astNode) {
+    clearCaches();
+  }
+
+  private void clearCaches() {
+    precedingAccessSpecifiers.clear();
+    scannedParents.clear();
+    commentKinds.clear();
+  }
+
   @Override
   public void visitNode(AstNode astNode) {
     if (skipFile) {
@@ -422,8 +486,7 @@ public abstract class AbstractCxxPublicApiVisitor<G extends Grammar> extends Squ
     var doxygenComments = new ArrayList<Token>();
 
     for (var token : comments) {
-      String comment = token.getValue();
-      if (isDoxygenInlineComment(comment) || isDoxygenCommentBlock(comment)) {
+      if (getCommentKind(token) != 0) {
         doxygenComments.add(token);
       }
     }
@@ -24,22 +24,27 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.parser.CxxTokenType;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.squidbridge.AstScanner;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
 
 public class CxxCpdVisitor extends SquidAstVisitor<Grammar> implements AstAndTokenVisitor {
 
+  private static final int MAX_TEXTS = 100_000;
+
   private final boolean ignoreLiterals;
   private final boolean ignoreIdentifiers;
   private int isFunctionDefinition;
 
-  private List<CpdToken> cpdTokens = null;
+  private CpdTokens cpdTokens = null;
+  private final Map<String, String> texts = new HashMap<>();
 
   public CxxCpdVisitor(CxxSquidConfiguration squidConfig) {
     this.ignoreLiterals = squidConfig.getBoolean(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
@@ -50,12 +55,16 @@ public class CxxCpdVisitor extends SquidAstVisitor<Grammar> implements AstAndTok
 
   @Override
   public void init() {
-    subscribeTo(CxxGrammarImpl.functionDefinition);
+    // files analyzed on token level have no function definitions: use all tokens
+    subscribeTo(CxxGrammarImpl.functionDefinition, AstScanner.TokenOnly.TOKENS);
   }
 
   @Override
   public void visitFile(@Nullable AstNode astNode) {
-    cpdTokens = new ArrayList<>();
+    cpdTokens = new CpdTokens();
+    if (texts.size() > MAX_TEXTS) {
+      texts.clear();
+    }
   }
 
   @Override
@@ -92,26 +101,53 @@ public class CxxCpdVisitor extends SquidAstVisitor<Grammar> implements AstAndTok
         text = token.getValue();
       }
 
-      cpdTokens.add(new CpdToken(token.getLine(), token.getColumn(),
-                                 token.getLine(), token.getColumn() + token.getValue().length(),
-                                 text));
+      int column = token.getColumn();
+      cpdTokens.add(token.getLine(), column, column + token.getValue().length(), texts.computeIfAbsent(text, t -> t));
     }
   }
 
-  public static class CpdToken {
+  /**
+   * CPD tokens of a file. A CPD token does not span lines, the line and the columns of all tokens are stored in one int
+   * array, the texts of equal tokens share one String instance.
+   */
+  public static final class CpdTokens {
+
+    private static final int STRIDE = 3;
+
+    private int[] ranges = new int[STRIDE * 64];
+    private String[] texts = new String[64];
+    private int size;
+
+    void add(int line, int startCol, int endCol, String text) {
+      if (size == texts.length) {
+        texts = Arrays.copyOf(texts, 2 * size);
+        ranges = Arrays.copyOf(ranges, STRIDE * texts.length);
+      }
+      var i = STRIDE * size;
+      ranges[i] = line;
+      ranges[i + 1] = startCol;
+      ranges[i + 2] = endCol;
+      texts[size++] = text;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public int line(int index) {
+      return ranges[STRIDE * index];
+    }
 
-    public final int startLine;
-    public final int startCol;
-    public final int endLine;
-    public final int endCol;
-    public final String token;
+    public int startCol(int index) {
+      return ranges[STRIDE * index + 1];
+    }
+
+    public int endCol(int index) {
+      return ranges[STRIDE * index + 2];
+    }
 
-    CpdToken(int startLine, int startCol, int endLine, int endCol, String token) {
-      this.startLine = startLine;
-      this.startCol = startCol;
-      this.endLine = endLine;
-      this.endCol = endCol;
-      this.token = token;
+    public String text(int index) {
+      return texts[index];
     }
   }
 
@@ -24,8 +24,7 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -37,11 +36,11 @@ import org.sonar.cxx.squidbridge.SquidAstVisitor;
 public class CxxHighlighterVisitor extends SquidAstVisitor<Grammar> implements AstAndTokenVisitor {
 
   private static final Pattern EOL_PATTERN = Pattern.compile("\\R");
-  private List<Highlight> highlighting = null;
+  private Highlighting highlighting = null;
 
   @Override
   public void visitFile(@Nullable AstNode astNode) {
-    highlighting = new ArrayList<>();
+    highlighting = new Highlighting();
   }
 
   @Override
@@ -55,27 +54,27 @@ public class CxxHighlighterVisitor extends SquidAstVisitor<Grammar> implements A
     if (!token.isGeneratedCode()) {
       TokenLocation last = null;
       if (token.getType().equals(CxxTokenType.NUMBER)) {
-        last = highlight(last, new TokenLocation(token), "c");
+        last = highlight(last, new TokenLocation(token), Highlighting.CONSTANT);
       } else if (token.getType() instanceof CxxKeyword) {
-        last = highlight(last, new TokenLocation(token), "k");
+        last = highlight(last, new TokenLocation(token), Highlighting.KEYWORD);
       } else if (token.getType().equals(CxxTokenType.CHARACTER)) {
-        last = highlight(last, new TokenLocation(token), "s");
+        last = highlight(last, new TokenLocation(token), Highlighting.STRING);
       } else if (token.getType().equals(CxxTokenType.STRING)) {
         Optional<Trivia> triviaWithConcatenatedLiterals = getTriviaWithConcatenatedLiterals(token);
         if (!triviaWithConcatenatedLiterals.isPresent()) {
-          last = highlight(last, new StringLocation(token), "s");
+          last = highlight(last, new StringLocation(token), Highlighting.STRING);
         } else {
           for (var concatenatedLiterals : triviaWithConcatenatedLiterals.get().getTokens()) {
-            last = highlight(last, new StringLocation(concatenatedLiterals), "s");
+            last = highlight(last, new StringLocation(concatenatedLiterals), Highlighting.STRING);
           }
         }
       }
 
       for (var trivia : token.getTrivia()) {
         if (trivia.isComment()) {
-          highlight(last, new CommentLocation(trivia.getToken()), "cd");
+          highlight(last, new CommentLocation(trivia.getToken()), Highlighting.COMMENT);
         } else if (trivia.isSkippedText() && trivia.getToken().getType().equals(CxxTokenType.PREPROCESSOR)) {
-          highlight(last, new PreprocessorDirectiveLocation(trivia.getToken()), "p");
+          highlight(last, new PreprocessorDirectiveLocation(trivia.getToken()), Highlighting.PREPROCESS_DIRECTIVE);
         }
       }
     }
@@ -86,31 +85,83 @@ public class CxxHighlighterVisitor extends SquidAstVisitor<Grammar> implements A
       .filter(t -> t.isSkippedText() && CxxTokenType.STRING.equals(t.getToken().getType())).findFirst();
   }
 
-  private TokenLocation highlight(@Nullable TokenLocation last, TokenLocation current, String typeOfText) {
+  private TokenLocation highlight(@Nullable TokenLocation last, TokenLocation current, byte typeOfText) {
     if (!current.overlaps(last)) {
-      highlighting.add(new Highlight(current.startLine(), current.startLineOffset(),
-                                     current.endLine(), current.endLineOffset(), typeOfText));
+      highlighting.add(current.startLine(), current.startLineOffset(), current.endLine(), current.endLineOffset(),
+                       typeOfText);
     }
 
     return current;
   }
 
-  public static class Highlight {
+  /**
+   * Highlighting of a file. The ranges are stored in one int array, four values per range, followed by the type of
+   * text. A range starting where the previous range of the same type ends is merged into the previous one.
+   */
+  public static final class Highlighting {
+
+    static final byte CONSTANT = 0;
+    static final byte KEYWORD = 1;
+    static final byte STRING = 2;
+    static final byte COMMENT = 3;
+    static final byte PREPROCESS_DIRECTIVE = 4;
+
+    private static final String[] CSS_CLASSES = {"c", "k", "s", "cd", "p"};
+    private static final int STRIDE = 4;
+
+    private int[] ranges = new int[STRIDE * 64];
+    private byte[] types = new byte[64];
+    private int size;
+
+    void add(int startLine, int startLineOffset, int endLine, int endLineOffset, byte typeOfText) {
+      if (size > 0 && types[size - 1] == typeOfText) {
+        var last = STRIDE * (size - 1);
+        if (ranges[last + 2] == startLine && ranges[last + 3] == startLineOffset) {
+          ranges[last + 2] = endLine;
+          ranges[last + 3] = endLineOffset;
+          return;
+        }
+      }
+      if (size == types.length) {
+        types = Arrays.copyOf(types, 2 * size);
+        ranges = Arrays.copyOf(ranges, STRIDE * types.length);
+      }
+      var i = STRIDE * size;
+      ranges[i] = startLine;
+      ranges[i + 1] = startLineOffset;
+      ranges[i + 2] = endLine;
+      ranges[i + 3] = endLineOffset;
+      types[size++] = typeOfText;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public int startLine(int index) {
+      return ranges[STRIDE * index];
+    }
+
+    public int startLineOffset(int index) {
+      return ranges[STRIDE * index + 1];
+    }
 
-    public final int startLine;
-    public final int startLineOffset;
-    public final int endLine;
-    public final int endLineOffset;
-    public final String typeOfText;
+    public int endLine(int index) {
+      return ranges[STRIDE * index + 2];
+    }
 
-    Highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, String typeOfText) {
-      this.startLine = startLine;
-      this.startLineOffset = startLineOffset;
-      this.endLine = endLine;
-      this.endLineOffset = endLineOffset;
-      this.typeOfText = typeOfText;
+    public int endLineOffset(int index) {
+      return ranges[STRIDE * index + 3];
     }
-  };
+
+    /**
+     * @param index index of the range
+     * @return CSS class of the type of text, see org.sonar.api.batch.sensor.highlighting.TypeOfText
+     */
+    public String typeOfText(int index) {
+      return CSS_CLASSES[types[index]];
+    }
+  }
 
   private static class TokenLocation {
 
@@ -0,0 +1,168 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.parser.CxxKeyword;
+import org.sonar.cxx.parser.CxxPunctuator;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+
+/**
+ * Visitor that computes the number of statements of unparsed function bodies ({@link CxxGrammarImpl#lazyFunctionBody})
+ * from their tokens. Cyclomatic complexity needs no special handling, it is based on keywords and operators which are
+ * also available as leaf nodes of unparsed bodies.
+ *
+ * @param <G>
+ */
+public class CxxLazyFunctionBodyVisitor<G extends Grammar> extends SquidAstVisitor<G> {
+
+  /**
+   * First tokens of the statements of an unparsed function body. The statements are detected by a token heuristic:
+   * a statement starts at the first token after a ';', '{', '}', 'else', 'do', a label or the condition of
+   * 'if', 'for', 'while' and 'switch'. A ';' at the start of a statement is an empty statement. Tokens within
+   * parentheses, initializer lists and class bodies are skipped. The 'while' of a do-while loop belongs to the 'do'
+   * statement. The result is an approximation of the statements of the parsed body.
+   *
+   * @param lazyFunctionBody node of type {@link CxxGrammarImpl#lazyFunctionBody}
+   * @return first token of each statement
+   */
+  public static List<Token> statements(AstNode lazyFunctionBody) {
+    var tokens = lazyFunctionBody.getChildren();
+    var result = new ArrayList<Token>();
+    var braces = new ArrayDeque<Boolean>(); // expectStatement after the closing '}'
+    var doLoops = new ArrayDeque<Integer>(); // brace nesting of the 'do' statements waiting for their 'while'
+    var parentheses = 0;
+    var opaqueBraces = 0;
+    var expectStatement = true;
+    var header = false;
+    var catchHeader = false;
+    var blockFollows = false;
+    var doBodyFollows = false;
+    var doWhile = false;
+    Token start = null;
+    Token previous = null;
+
+    // skip the braces of the body itself
+    for (int i = 1; i < tokens.size() - 1; i++) {
+      var token = tokens.get(i).getToken();
+      var type = token.getType();
+      if (opaqueBraces > 0) {
+        if (CxxPunctuator.CURLBR_LEFT.equals(type)) {
+          opaqueBraces++;
+        } else if (CxxPunctuator.CURLBR_RIGHT.equals(type)) {
+          opaqueBraces--;
+        }
+      } else if (CxxPunctuator.BR_LEFT.equals(type) || CxxPunctuator.SQBR_LEFT.equals(type)) {
+        parentheses++;
+      } else if (CxxPunctuator.BR_RIGHT.equals(type) || CxxPunctuator.SQBR_RIGHT.equals(type)) {
+        parentheses--;
+        if (parentheses == 0 && header) {
+          header = false;
+          blockFollows = catchHeader;
+          expectStatement = !catchHeader && !doWhile;
+          catchHeader = false;
+          doWhile = false;
+        }
+      } else if (parentheses > 0) {
+        // condition, arguments or subscript
+      } else if (CxxPunctuator.CURLBR_LEFT.equals(type)) {
+        if (blockFollows) {
+          blockFollows = false;
+          braces.push(Boolean.TRUE);
+        } else if (expectStatement) {
+          result.add(token);
+          braces.push(Boolean.TRUE);
+          doBodyFollows = false;
+        } else if (previous != null && (CxxPunctuator.BR_RIGHT.equals(previous.getType())
+                                        || CxxPunctuator.SQBR_RIGHT.equals(previous.getType())
+                                        || CxxKeyword.MUTABLE.equals(previous.getType()))) {
+          // lambda body
+          braces.push(Boolean.FALSE);
+          expectStatement = true;
+        } else {
+          opaqueBraces++;
+        }
+      } else if (CxxPunctuator.CURLBR_RIGHT.equals(type)) {
+        expectStatement = braces.isEmpty() || braces.pop();
+        start = null;
+      } else if (CxxPunctuator.SEMICOLON.equals(type)) {
+        if (expectStatement) {
+          result.add(token);
+          doBodyFollows = false;
+        }
+        expectStatement = true;
+        start = null;
+      } else if (CxxPunctuator.COLON.equals(type)) {
+        if (start != null && (start == previous || CxxKeyword.CASE.equals(start.getType())
+                                || CxxKeyword.DEFAULT.equals(start.getType()))) {
+          // label
+          expectStatement = true;
+          start = null;
+        }
+      } else if (CxxKeyword.ELSE.equals(type)) {
+        expectStatement = true;
+      } else if (CxxKeyword.CATCH.equals(type)) {
+        header = true;
+        catchHeader = true;
+        expectStatement = false;
+      } else if (expectStatement && CxxKeyword.WHILE.equals(type) && !doBodyFollows && !doLoops.isEmpty()
+                   && doLoops.peek() == braces.size()) {
+        // end of a do-while loop
+        doLoops.pop();
+        header = true;
+        doWhile = true;
+        expectStatement = false;
+      } else if (expectStatement && !GenericTokenType.EOF.equals(type)) {
+        result.add(token);
+        doBodyFollows = CxxKeyword.DO.equals(type);
+        if (doBodyFollows) {
+          doLoops.push(braces.size());
+        }
+        start = type.equals(GenericTokenType.IDENTIFIER) || CxxKeyword.CASE.equals(type)
+                  || CxxKeyword.DEFAULT.equals(type) ? token : null;
+        expectStatement = CxxKeyword.DO.equals(type);
+        header = CxxKeyword.IF.equals(type) || CxxKeyword.FOR.equals(type) || CxxKeyword.WHILE.equals(type)
+                   || CxxKeyword.SWITCH.equals(type);
+        blockFollows = CxxKeyword.TRY.equals(type);
+      }
+      previous = token;
+    }
+    return result;
+  }
+
+  @Override
+  public void init() {
+    subscribeTo(CxxGrammarImpl.lazyFunctionBody);
+  }
+
+  @Override
+  public void visitNode(AstNode node) {
+    getContext().peekSourceCode().add(CxxMetric.STATEMENTS, statements(node).size());
+  }
+
+}
@@ -22,7 +22,9 @@ package org.sonar.cxx.visitors;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.AstVisitor;
 import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.parser.CxxGrammarImpl;
 import org.sonar.cxx.preprocessor.CppPunctuator;
@@ -43,12 +45,35 @@ public class CxxLinesOfCodeInFunctionBodyVisitor<GRAMMAR extends Grammar> extend
 
   @Override
   public void visitNode(AstNode node) {
-    List<AstNode> allChilds = node.getDescendants(CxxGrammarImpl.statement, CppPunctuator.CURLBR_LEFT,
-                                                  CppPunctuator.CURLBR_RIGHT);
+    getContext().peekSourceCode().add(CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY, linesOfCode(node, null));
+  }
+
+  /**
+   * NCLOCs of a function body.
+   *
+   * @param functionBody node of type {@link CxxGrammarImpl#functionBody}
+   * @param lazyStatements result of {@link CxxLazyFunctionBodyVisitor#statements} for an unparsed body if already
+   * available, null otherwise
+   * @return NCLOCs in the function body
+   */
+  static int linesOfCode(AstNode functionBody, @Nullable List<Token> lazyStatements) {
     var lines = 1;
-    int firstLine = node.getTokenLine();
-    if (allChilds != null && !allChilds.isEmpty()) {
-      int previousLine = firstLine;
+    int previousLine = functionBody.getTokenLine();
+    var lazyFunctionBody = functionBody.getFirstChild(CxxGrammarImpl.lazyFunctionBody);
+    if (lazyFunctionBody != null) {
+      // unparsed body: use the statements found by the token heuristic
+      if (lazyStatements == null) {
+        lazyStatements = CxxLazyFunctionBodyVisitor.statements(lazyFunctionBody);
+      }
+      for (var token : lazyStatements) {
+        if (token.getLine() != previousLine) {
+          lines++;
+          previousLine = token.getLine();
+        }
+      }
+    } else {
+      List<AstNode> allChilds = functionBody.getDescendants(CxxGrammarImpl.statement, CppPunctuator.CURLBR_LEFT,
+                                                            CppPunctuator.CURLBR_RIGHT);
       for (var child : allChilds) {
         int currentLine = child.getTokenLine();
         if (currentLine != previousLine) {
@@ -57,7 +82,7 @@ public class CxxLinesOfCodeInFunctionBodyVisitor<GRAMMAR extends Grammar> extend
         }
       }
     }
-    getContext().peekSourceCode().add(CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY, lines);
+    return lines;
   }
 
 }
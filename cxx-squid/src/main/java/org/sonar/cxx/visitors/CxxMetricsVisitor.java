@@ -0,0 +1,223 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.sonar.cxx.CxxComplexityConstants;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.SourceCode;
+import org.sonar.cxx.squidbridge.api.SourceFile;
+
+/**
+ * Visitor that computes the size and complexity metrics of the built-in pipeline in one pass:
+ * {@link CxxMetric#FUNCTIONS}, {@link CxxMetric#CLASSES}, {@link CxxMetric#STATEMENTS}, {@link CxxMetric#COMPLEXITY},
+ * {@link CxxMetric#LINES}, {@link CxxMetric#LINES_OF_CODE}, {@link CxxMetric#LINES_OF_CODE_IN_FUNCTION_BODY},
+ * {@link CxxMetric#COMMENT_LINES} and the NOSONAR lines of a file.
+ *
+ * The measures are the same as the ones of the separate visitors (CounterVisitor, ComplexityVisitor, LinesVisitor,
+ * CommentsVisitor, {@link CxxLinesOfCodeVisitor}, {@link CxxLinesOfCodeInFunctionBodyVisitor} and
+ * {@link CxxLazyFunctionBodyVisitor}). Nodes are dispatched with a table from node type to the metrics it
+ * contributes to, comment and NOSONAR lines of a file are collected in line bitmaps.
+ *
+ * @param <G>
+ */
+public class CxxMetricsVisitor<G extends Grammar> extends SquidAstVisitor<G> implements AstAndTokenVisitor {
+
+  private static final int FUNCTION = 1;
+  private static final int CLASS = 1 << 1;
+  private static final int STATEMENT = 1 << 2;
+  private static final int DECISION = 1 << 3;
+  private static final int FUNCTION_BODY = 1 << 4;
+
+  private static final Pattern COMMENT_EOL_PATTERN = Pattern.compile("(\r)?\n|\r");
+
+  private final Map<AstNodeType, Integer> nodeKinds = new IdentityHashMap<>();
+
+  private final BitSet commentLines = new BitSet();
+  private final BitSet noSonarLines = new BitSet();
+  private int lastTokenLine;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void init() {
+    addNodeKind(CxxGrammarImpl.functionDefinition, FUNCTION);
+    addNodeKind(CxxGrammarImpl.classSpecifier, CLASS);
+    addNodeKind(CxxGrammarImpl.statement, STATEMENT);
+    addNodeKind(CxxGrammarImpl.functionBody, FUNCTION_BODY);
+    for (var type : CxxComplexityConstants.getCyclomaticComplexityTypes()) {
+      addNodeKind(type, DECISION);
+    }
+    for (var type : nodeKinds.keySet()) {
+      subscribeTo(type);
+    }
+  }
+
+  private void addNodeKind(AstNodeType type, int kind) {
+    nodeKinds.merge(type, kind, (a, b) -> a | b);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void visitFile(AstNode node) {
+    commentLines.clear();
+    noSonarLines.clear();
+    lastTokenLine = -1;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void visitNode(AstNode node) {
+    int kinds = nodeKinds.get(node.getType());
+    var sourceCode = getContext().peekSourceCode();
+    if ((kinds & FUNCTION) != 0) {
+      sourceCode.add(CxxMetric.FUNCTIONS, 1);
+    }
+    if ((kinds & CLASS) != 0) {
+      sourceCode.add(CxxMetric.CLASSES, 1);
+    }
+    if ((kinds & STATEMENT) != 0) {
+      sourceCode.add(CxxMetric.STATEMENTS, 1);
+    }
+    if ((kinds & DECISION) != 0) {
+      var token = node.getToken();
+      if (token == null || !token.isGeneratedCode()) {
+        sourceCode.add(CxxMetric.COMPLEXITY, 1);
+      }
+    }
+    if ((kinds & FUNCTION_BODY) != 0) {
+      visitFunctionBody(node, sourceCode);
+    }
+  }
+
+  private static void visitFunctionBody(AstNode node, SourceCode sourceCode) {
+    var lazyFunctionBody = node.getFirstChild(CxxGrammarImpl.lazyFunctionBody);
+    if (lazyFunctionBody != null) {
+      // unparsed body: the statement heuristic is used for both metrics
+      var statements = CxxLazyFunctionBodyVisitor.statements(lazyFunctionBody);
+      sourceCode.add(CxxMetric.STATEMENTS, statements.size());
+      sourceCode.add(CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY,
+                     CxxLinesOfCodeInFunctionBodyVisitor.linesOfCode(node, statements));
+    } else {
+      sourceCode.add(CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY,
+                     CxxLinesOfCodeInFunctionBodyVisitor.linesOfCode(node, null));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void visitToken(Token token) {
+    if (GenericTokenType.EOF.equals(token.getType())) {
+      getContext().peekSourceCode().setMeasure(CxxMetric.LINES, token.getLine());
+    } else {
+      var lines = lineCount(token.getValue());
+      var linesOfCode = lastTokenLine == token.getLine() ? lines - 1 : lines;
+      if (linesOfCode > 0) {
+        getContext().peekSourceCode().add(CxxMetric.LINES_OF_CODE, linesOfCode);
+      }
+      lastTokenLine = token.getLine() + lines - 1;
+    }
+
+    if (token.hasTrivia()) {
+      for (var trivia : token.getTrivia()) {
+        if (trivia.isComment()) {
+          visitComment(trivia.getToken());
+        }
+      }
+    }
+  }
+
+  private void visitComment(Token comment) {
+    var analyser = getContext().getCommentAnalyser();
+    int line = comment.getLine();
+    for (var commentLine : COMMENT_EOL_PATTERN.split(analyser.getContents(comment.getOriginalValue()), -1)) {
+      if (commentLine.contains("NOSONAR")) {
+        noSonarLines.set(line);
+      } else if (!analyser.isBlank(commentLine)) {
+        commentLines.set(line);
+      }
+      line++;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void leaveFile(AstNode node) {
+    var sourceCode = getContext().peekSourceCode();
+    if (sourceCode instanceof SourceFile) {
+      var sourceFile = (SourceFile) sourceCode;
+      for (int line = noSonarLines.nextSetBit(0); line >= 0; line = noSonarLines.nextSetBit(line + 1)) {
+        sourceFile.addNoSonarTagLine(line);
+      }
+    }
+    commentLines.andNot(noSonarLines);
+    sourceCode.add(CxxMetric.COMMENT_LINES, commentLines.cardinality());
+  }
+
+  /**
+   * Number of lines of a token value, line terminators are the ones of {@link CxxLinesOfCodeVisitor#EOL_PATTERN}.
+   */
+  static int lineCount(String value) {
+    var lines = 1;
+    var length = value.length();
+    for (int i = 0; i < length; i++) {
+      switch (value.charAt(i)) {
+        case '\r':
+          if (i + 1 < length && value.charAt(i + 1) == '\n') {
+            i++;
+          }
+          lines++;
+          break;
+        case '\n':
+        case '\u000B':
+        case '\f':
+        case '\u0085':
+        case '\u2028':
+        case '\u2029':
+          lines++;
+          break;
+        default:
+          break;
+      }
+    }
+    return lines;
+  }
+
+}
@@ -19,19 +19,26 @@
  */
 package org.sonar.cxx;
 
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Test;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.squidbridge.AstScannerExceptionHandler;
+import org.sonar.cxx.squidbridge.ParseBudget;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
 import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.QueryByType;
+import org.sonar.cxx.visitors.CxxCpdVisitor;
 
 public class CxxAstScannerTest {
 
@@ -131,4 +138,94 @@ public class CxxAstScannerTest {
     assertThat(file.getNoSonarTagLines()).containsOnlyElementsOf(Arrays.asList(3, 6, 9, 11));
   }
 
+  @Test
+  public void tokenOnly() throws UnsupportedEncodingException, IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/comments.cc", ".", "");
+    SourceFile parsed = CxxAstScanner.scanSingleInputFile(tester.asInputFile());
+
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TOKEN_ONLY_FILES,
+                    "**/metrics/comments.cc");
+    SourceFile file = CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig);
+
+    var softly = new SoftAssertions();
+    softly.assertThat(parsed.isTokenOnly()).isFalse();
+    softly.assertThat(file.isTokenOnly()).isTrue();
+    softly.assertThat(file.getInt(CxxMetric.LINES_OF_CODE)).isEqualTo(parsed.getInt(CxxMetric.LINES_OF_CODE));
+    softly.assertThat(file.getInt(CxxMetric.COMMENT_LINES)).isEqualTo(parsed.getInt(CxxMetric.COMMENT_LINES));
+    softly.assertThat(file.getNoSonarTagLines()).isEqualTo(parsed.getNoSonarTagLines());
+    softly.assertThat(((CxxCpdVisitor.CpdTokens) file.getData(CxxMetric.CPD_TOKENS_DATA)).size())
+      .isGreaterThanOrEqualTo(((CxxCpdVisitor.CpdTokens) parsed.getData(CxxMetric.CPD_TOKENS_DATA)).size());
+    softly.assertThat(parsed.getInt(CxxMetric.FUNCTIONS)).isPositive();
+    softly.assertThat(file.getInt(CxxMetric.FUNCTIONS)).isZero();
+    softly.assertAll();
+  }
+
+  @Test
+  public void tokenOnlyThreshold() throws UnsupportedEncodingException, IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/classes.cc", ".", "");
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TOKEN_ONLY_THRESHOLD, "7");
+    assertThat(CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig).isTokenOnly()).isFalse();
+
+    squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TOKEN_ONLY_THRESHOLD, "6");
+    assertThat(CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig).isTokenOnly()).isTrue();
+  }
+
+  @Test
+  public void parseBudget() throws UnsupportedEncodingException, IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/classes.cc", ".", "");
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_BUDGET_STEPS,
+                    "1000000");
+    var scanner = CxxAstScanner.create(squidConfig);
+    scanner.scanInputFile(tester.asInputFile());
+    var file = (SourceFile) scanner.getIndex().search(new QueryByType(SourceFile.class)).iterator().next();
+    var softly = new SoftAssertions();
+    softly.assertThat(file.isTokenOnly()).isFalse();
+    softly.assertThat(file.getInt(CxxMetric.CLASSES)).isEqualTo(2);
+    softly.assertThat(scanner.getDegradedFiles()).isEmpty();
+    softly.assertAll();
+  }
+
+  @Test
+  public void parseBudgetExceeded() throws UnsupportedEncodingException, IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/classes.cc", ".", "");
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSE_BUDGET_STEPS, "2");
+    var exceptions = new ArrayList<Exception>();
+    var handler = new ExceptionHandler(exceptions);
+    var scanner = CxxAstScanner.create(squidConfig, handler);
+    scanner.scanInputFile(tester.asInputFile());
+    var file = (SourceFile) scanner.getIndex().search(new QueryByType(SourceFile.class)).iterator().next();
+    var softly = new SoftAssertions();
+    softly.assertThat(file.isTokenOnly()).isTrue();
+    softly.assertThat(file.getInt(CxxMetric.LINES_OF_CODE)).isEqualTo(5);
+    softly.assertThat(file.getInt(CxxMetric.CLASSES)).isZero();
+    softly.assertThat(scanner.getDegradedFiles()).hasSize(1);
+    softly.assertThat(exceptions).hasSize(1);
+    softly.assertThat(exceptions.get(0)).isInstanceOf(ParseBudget.ExceededException.class);
+    softly.assertAll();
+  }
+
+  private static class ExceptionHandler extends SquidAstVisitor<Grammar> implements AstScannerExceptionHandler {
+
+    private final List<Exception> exceptions;
+
+    ExceptionHandler(List<Exception> exceptions) {
+      this.exceptions = exceptions;
+    }
+
+    @Override
+    public void processException(Exception e) {
+      exceptions.add(e);
+    }
+
+    @Override
+    public void processRecognitionException(RecognitionException e) {
+      exceptions.add(e);
+    }
+  }
+
 }
@@ -25,8 +25,10 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import static org.assertj.core.api.Assertions.assertThat;
+import org.assertj.core.api.SoftAssertions;
 import org.junit.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -140,6 +142,48 @@ public class CxxLexerIncludeTest {
     assertThat(result).isEqualTo("\"using: include/a.h\"");
   }
 
+  @Test
+  public void lazy_include_is_processed_on_demand() {
+    var softly = new SoftAssertions();
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\nSYS_FUNC(SYS_VALUE)")))
+      .as("macro of an include of a lazy include").isEqualTo("( 1 + 2 ) EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\n#ifdef SYS_H\nyes\n#else\nno\n#endif")))
+      .as("macro in #ifdef").isEqualTo("yes EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\n#if IMPL_VALUE == 2\nyes\n#else\nno\n#endif")))
+      .as("macro in #if").isEqualTo("yes EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\nUNKNOWN")))
+      .as("unknown identifier").isEqualTo("UNKNOWN EOF");
+    softly.assertThat(serialize(lexLazy("#include <computed.h>\nCOMPUTED_VALUE")))
+      .as("include with macro").isEqualTo("1 EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\n#undef SYS_VALUE\nSYS_VALUE")))
+      .as("#undef of a deferred macro").isEqualTo("SYS_VALUE EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\n#undef IMPL_VALUE\nIMPL_VALUE SYS_FUNC(1)")))
+      .as("#undef of a macro of an include of a lazy include").isEqualTo("IMPL_VALUE ( 1 + IMPL_VALUE ) EOF");
+    softly.assertThat(serialize(lexLazy("#include <sys.h>\n#define SYS_VALUE 5\nSYS_FUNC(SYS_VALUE)")))
+      .as("#define of a deferred macro").isEqualTo("( 5 + 2 ) EOF");
+    softly.assertAll();
+  }
+
+  private List<Token> lexLazy(String source) {
+    var includeDirectory = new File(root(), "../lazy/sys").getAbsolutePath();
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
+                    includeDirectory);
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.LAZY_INCLUDE_DIRECTORIES,
+                    includeDirectory);
+
+    var file = new File(root(), "root.cpp");
+    SquidAstVisitorContext<Grammar> context = mock(SquidAstVisitorContext.class);
+    when(context.getFile()).thenReturn(file);
+
+    var pp = new CxxPreprocessor(context, squidConfig);
+    return CxxLexer.create(squidConfig.getCharset(), pp, new JoinStringsPreprocessor()).lex(source);
+  }
+
+  private static String serialize(List<Token> tokens) {
+    return tokens.stream().map(Token::getValue).collect(Collectors.joining(" "));
+  }
+
   private File root() {
     return TestUtils.loadResource("/preprocessor/include");
   }
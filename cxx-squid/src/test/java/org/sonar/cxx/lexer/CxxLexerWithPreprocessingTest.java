@@ -22,6 +22,7 @@ package org.sonar.cxx.lexer;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
 import com.sonar.sslr.impl.Lexer;
 import java.io.File;
 import java.io.IOException;
@@ -30,11 +31,14 @@ import java.util.Collections;
 import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
+import org.junit.Rule;
 import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mockito;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.sonar.cxx.config.CxxSquidConfiguration;
@@ -50,6 +54,9 @@ import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
 
 public class CxxLexerWithPreprocessingTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   private static Lexer lexer;
   private final SquidAstVisitorContext<Grammar> context;
 
@@ -593,6 +600,34 @@ public class CxxLexerWithPreprocessingTest {
     softly.assertAll();
   }
 
+  @Test
+  public void inactive_conditional_group_is_skipped() {
+    List<Token> tokens = lexer.lex("#if 0\n"
+                                     + "  a = \"#endif\"; // comment 1\n"
+                                     + "  #define LALA nota\n"
+                                     + "  #include \"missing.h\"\n"
+                                     + "  #error (\n"
+                                     + "  #elsewhere (\n"
+                                     + "  /* comment 2 */ b\n"
+                                     + "  #ifdef LALA\n"
+                                     + "    c\n"
+                                     + "  #endif\n"
+                                     + "#else\n"
+                                     + "  LALA // comment 3\n"
+                                     + "#endif\n");
+
+    var softly = new SoftAssertions();
+    softly.assertThat(tokens).hasSize(2); // LALA + EOF
+    softly.assertThat(tokens.get(0)).satisfies(token -> assertThat(token).isValue("LALA")
+      .hasType(GenericTokenType.IDENTIFIER));
+    softly.assertThat(tokens.get(0).getTrivia()).filteredOn(Trivia::isComment)
+      .extracting(trivia -> trivia.getToken().getValue()).containsExactly("// comment 1", "/* comment 2 */");
+    softly.assertThat(tokens.get(1).getTrivia()).filteredOn(Trivia::isComment)
+      .extracting(trivia -> trivia.getToken().getValue()).containsExactly("// comment 3");
+    softly.assertThat(logTester.logs(LoggerLevel.WARN)).as("only conditional directives are parsed").isEmpty();
+    softly.assertAll();
+  }
+
   // Proper separation of parameterized macros and macros expand to a string enclosed
   // in parentheses
   @Test
@@ -0,0 +1,142 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.lexer;
+
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Lexer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxLexer;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+/**
+ * The table-driven lexer must create the same tokens as the regular expression based lexer.
+ */
+public class CxxTableDrivenLexerTest {
+
+  private static final String[] SNIPPETS = {
+    "// comment\n/* multi\r\nline */ /**/ /*/ x */ /* unterminated",
+    "a // comment at EOF",
+    "1 12 1'000 1'' 0x 0x1F 0X1f.8p-3 0x.p1 0xg 0b101 0b2 0b1'0 0B 07 1. 1.5 .5 .5e+3 1e 1e+ 1e_1 1E5f",
+    "1.5_km 42ul 3.14L 1..2 1.e5 x.5 ... .x 0x1'f'g 1'2'3'4u",
+    "nullptr nullptr_t nullptrX nullptr; nullptr\u00E4 _nullptr",
+    "int i = 0; auto x = y->z; a<b<c>>> d; std::vector<int> v;",
+    "L\"wide\" u8\"utf8\" R\"x(raw)x\" u'c' 'a' U\"u\"_s",
+    "#include <iostream>\n# define A 1\\\n2\nimport std;\nexport module m;\nmodule; importer x;",
+    "a\\\nb \\ c \t\u000B\f\r\n\u00E4\u00FC \uFEFF x",
+    "template<typename T> class C { public: C() = default; virtual ~C() override; };",
+  };
+
+  private static List<String> describe(List<Token> tokens) {
+    var result = new ArrayList<String>(tokens.size());
+    for (var token : tokens) {
+      var trivia = token.getTrivia().stream()
+        .map(t -> t.getToken().getLine() + ":" + t.getToken().getColumn() + " " + t.getToken().getType() + " "
+                    + t.getToken().getValue())
+        .collect(Collectors.joining(", "));
+      result.add(token.getLine() + ":" + token.getColumn() + " " + token.getType() + " '" + token.getValue() + "' '"
+                   + token.getOriginalValue() + "' " + token.isGeneratedCode() + " [" + trivia + "]");
+    }
+    return result;
+  }
+
+  private static Lexer createWithPreprocessor(boolean tableDriven) {
+    var file = new File("snippet.cpp").getAbsoluteFile();
+    SquidAstVisitorContext<Grammar> context = mock(SquidAstVisitorContext.class);
+    when(context.getFile()).thenReturn(file);
+
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TABLE_DRIVEN_LEXER_ENABLED,
+                    Boolean.toString(tableDriven));
+    return CxxLexer.create(squidConfig, new CxxPreprocessor(context, squidConfig), new JoinStringsPreprocessor());
+  }
+
+  @Test
+  public void selectedByConfiguration() {
+    var squidConfig = new CxxSquidConfiguration();
+    assertThat(CxxLexer.isTableDriven(squidConfig)).isFalse();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TABLE_DRIVEN_LEXER_ENABLED,
+                    "true");
+    assertThat(CxxLexer.isTableDriven(squidConfig)).isTrue();
+  }
+
+  @Test
+  public void sameTokensForSnippets() {
+    var regexp = CxxLexer.create(StandardCharsets.UTF_8, false);
+    var table = CxxLexer.create(StandardCharsets.UTF_8, true);
+
+    var softly = new SoftAssertions();
+    for (var snippet : SNIPPETS) {
+      softly.assertThat(describe(table.lex(snippet))).as(snippet).isEqualTo(describe(regexp.lex(snippet)));
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  public void sameTokensWithPreprocessor() {
+    var regexp = createWithPreprocessor(false);
+    var table = createWithPreprocessor(true);
+    var code = "#define M(a, b) a ## b + 0x1F /* c */\n"
+                 + "#define S(x) #x\n"
+                 + "int i = M(1, 2) + nullptr; const char* s = S(a // b);\n"
+                 + "#if M(0, 1) > 0\n"
+                 + "double d = 1.5e3;\n"
+                 + "#endif\n";
+
+    assertThat(describe(table.lex(code))).isEqualTo(describe(regexp.lex(code)));
+  }
+
+  @Test
+  public void sameTokensForTestResources() throws IOException {
+    var regexp = CxxLexer.create(StandardCharsets.UTF_8, false);
+    var table = CxxLexer.create(StandardCharsets.UTF_8, true);
+
+    List<Path> files;
+    try (var paths = Files.walk(Path.of("src/test/resources"))) {
+      files = paths
+        .filter(p -> p.toString().matches(".*\\.(c|cc|cpp|cxx|h|hh|hpp)$"))
+        .collect(Collectors.toList());
+    }
+    assertThat(files).isNotEmpty();
+
+    var softly = new SoftAssertions();
+    for (var file : files) {
+      var code = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      softly.assertThat(describe(table.lex(code))).as(file.toString()).isEqualTo(describe(regexp.lex(code)));
+    }
+    softly.assertAll();
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.cxx.CxxAstScanner;
+
+public class CxxPreprocessorEventTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void recordIncludesAndMacroExpansions() throws IOException {
+    var dir = tempFolder.newFolder().toPath();
+    Files.writeString(dir.resolve("macros.h"), "#define SQUARE(x) ((x) * (x))\n#define VALUE SQUARE(2)\n");
+    Files.writeString(dir.resolve("main.cc"), "#include \"macros.h\"\nint i = VALUE;\n");
+    var inputFile = TestInputFileBuilder.create("", dir.toFile(), dir.resolve("main.cc").toFile())
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(Files.readString(dir.resolve("main.cc")))
+      .build();
+
+    List<RecordedEvent> events;
+    try (var recording = new Recording()) {
+      recording.enable(IncludeEvent.class);
+      recording.enable(MacroExpansionEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+      CxxAstScanner.scanSingleInputFile(inputFile);
+      recording.stop();
+      var file = tempFolder.newFile().toPath();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    }
+
+    assertThat(events)
+      .filteredOn(event -> IncludeEvent.NAME.equals(event.getEventType().getName()))
+      .anySatisfy(event -> {
+        assertThat(event.getString("path")).endsWith("macros.h");
+        assertThat(event.getString("includingFile")).endsWith("main.cc");
+        assertThat(event.getBoolean("processed")).isTrue();
+      });
+    assertThat(events)
+      .filteredOn(event -> MacroExpansionEvent.NAME.equals(event.getEventType().getName()))
+      .anySatisfy(event -> {
+        assertThat(event.getString("macro")).isEqualTo("VALUE");
+        assertThat(event.getInt("line")).isEqualTo(2);
+        assertThat(event.getInt("producedTokens")).isGreaterThan(event.getInt("consumedTokens"));
+      });
+  }
+
+}
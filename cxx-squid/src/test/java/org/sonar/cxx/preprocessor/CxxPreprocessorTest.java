@@ -0,0 +1,75 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import java.io.File;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxLexer;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+import org.sonar.cxx.utils.TestUtils;
+
+public class CxxPreprocessorTest {
+
+  private final File root = TestUtils.loadResource("/preprocessor/include");
+  private final SquidAstVisitorContext<Grammar> context = mock(SquidAstVisitorContext.class);
+
+  @Test
+  public void units_with_same_options_share_the_setup() {
+    var squidConfig = new CxxSquidConfiguration(root.getAbsolutePath());
+    var unit1 = new File(root, "unit1.cpp");
+    var unit2 = new File(root, "unit2.cpp");
+    var unit3 = new File(root, "unit3.cpp");
+    for (var unit : new File[]{unit1, unit2}) {
+      squidConfig.add(unit.getAbsolutePath(), CxxSquidConfiguration.DEFINES, "UNIT 1");
+      squidConfig.add(unit.getAbsolutePath(), CxxSquidConfiguration.INCLUDE_DIRECTORIES, "B");
+    }
+    squidConfig.add(unit3.getAbsolutePath(), CxxSquidConfiguration.DEFINES, "UNIT 3");
+    squidConfig.add(unit3.getAbsolutePath(), CxxSquidConfiguration.INCLUDE_DIRECTORIES, "C");
+    var pp = new CxxPreprocessor(context, squidConfig);
+
+    assertThat(lex(pp, unit1, "UNIT\n#include <b.h>\nINCLUDE")).isEqualTo("1 \"using: include/B/b.h\" EOF");
+    var macro1 = pp.getMacro("UNIT");
+    pp.finishedPreprocessing(unit1);
+
+    assertThat(lex(pp, unit2, "UNIT\n#include <b.h>\nINCLUDE")).isEqualTo("1 \"using: include/B/b.h\" EOF");
+    var macro2 = pp.getMacro("UNIT");
+    pp.finishedPreprocessing(unit2);
+
+    assertThat(lex(pp, unit3, "UNIT\n#include <c.h>\nINCLUDE")).isEqualTo("3 \"using: include/C/c.h\" EOF");
+    var macro3 = pp.getMacro("UNIT");
+    pp.finishedPreprocessing(unit3);
+
+    assertThat(macro2).isSameAs(macro1);
+    assertThat(macro3).isNotSameAs(macro1);
+  }
+
+  private String lex(CxxPreprocessor pp, File unit, String source) {
+    when(context.getFile()).thenReturn(unit);
+    return CxxLexer.create(pp).lex(source).stream().map(Token::getValue).collect(Collectors.joining(" "));
+  }
+
+}
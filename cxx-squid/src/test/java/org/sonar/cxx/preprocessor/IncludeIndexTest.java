@@ -0,0 +1,69 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.Test;
+
+public class IncludeIndexTest {
+
+  private final File root = new File(new File("src/test/resources/preprocessor/lazy").getAbsolutePath());
+  private final SourceCodeProvider codeProvider = new SourceCodeProvider(new File(root, "dummy.cpp"));
+
+  @Test
+  public void directives_are_indexed() {
+    var entry = new IncludeIndex().get(new File(root, "index.h"), codeProvider, StandardCharsets.UTF_8);
+
+    assertThat(entry.isComplete()).isTrue();
+    assertThat(entry.getMacros()).containsOnly("FIRST", "SECOND");
+    assertThat(entry.getIncludes()).extracting(IncludeIndex.Include::getName, IncludeIndex.Include::isQuoted)
+      .containsExactly(tuple("next.h", false), tuple("imported.h", true));
+  }
+
+  @Test
+  public void include_with_macro_is_incomplete() {
+    var entry = new IncludeIndex().get(new File(root, "sys/computed.h"), codeProvider, StandardCharsets.UTF_8);
+
+    assertThat(entry.isComplete()).isFalse();
+    assertThat(entry.getMacros()).containsOnly("SYS_HEADER", "COMPUTED_VALUE");
+  }
+
+  @Test
+  public void entries_are_reused() {
+    var index = new IncludeIndex();
+    var file = new File(root, "sys/sys.h");
+
+    assertThat(index.get(file, codeProvider, StandardCharsets.UTF_8))
+      .isSameAs(index.get(file, codeProvider, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void missing_file_is_empty() {
+    var entry = new IncludeIndex().get(new File(root, "missing.h"), codeProvider, StandardCharsets.UTF_8);
+
+    assertThat(entry.isComplete()).isTrue();
+    assertThat(entry.getMacros()).isEmpty();
+    assertThat(entry.getIncludes()).isEmpty();
+  }
+
+}
@@ -66,6 +66,52 @@ public class IncludeLexerTest {
       .matches(tokens)).isTrue();
   }
 
+  @Test
+  public void directive_after_multiline_comment_is_found() {
+    List<Token> tokens = LEXER.lex("/* comment */ #include <a.h>\n/* comment\n */#include <b.h>\n");
+    assertThat(tokens).hasSize(3);
+    assertThat(hasToken("#include <a.h>", CxxTokenType.PREPROCESSOR)
+      .matches(tokens)).isTrue();
+    assertThat(hasToken("#include <b.h>", CxxTokenType.PREPROCESSOR)
+      .matches(tokens)).isTrue();
+  }
+
+  @Test
+  public void hash_inside_of_line_is_swallowed() {
+    List<Token> tokens = LEXER.lex("char c = '#'; int i = 1'000 # 2;\n  #include <b.h>\n");
+    assertThat(tokens).hasSize(2);
+    assertThat(hasToken("#include <b.h>", CxxTokenType.PREPROCESSOR)
+      .matches(tokens)).isTrue();
+  }
+
+  @Test
+  public void unclosed_multiline_comment_is_swallowed_up_to_the_end() {
+    List<Token> tokens = LEXER.lex("int i; /* unclosed #include <a.h>\n  #include <b.h>\n");
+    assertThat(tokens).hasSize(1);
+    assertThat(hasToken("EOF", EOF)
+      .matches(tokens)).isTrue();
+  }
+
+  @Test
+  public void literals_are_swallowed() {
+    List<Token> tokens = LEXER.lex("auto s = R\"x(\n#include <a.h>\n)x\";\n"
+                                     + "auto t = \"/*\"; char c = '\\''; char d = '\"';\n"
+                                     + "#include <b.h>\n"
+                                     + "auto u = u8R\"(\n#include <c.h>\n)\";\n");
+    assertThat(tokens).hasSize(2);
+    assertThat(hasToken("#include <b.h>", CxxTokenType.PREPROCESSOR)
+      .matches(tokens)).isTrue();
+  }
+
+  @Test
+  public void continued_line_is_no_directive() {
+    List<Token> tokens = LEXER.lex("int i = 1 + \\\n#include <a.h>\n// comment \\\r\n#include <b.h>\n"
+                                     + "  \\\n#include <c.h>\n");
+    assertThat(tokens).hasSize(2);
+    assertThat(hasToken("#include <c.h>", CxxTokenType.PREPROCESSOR)
+      .matches(tokens)).isTrue();
+  }
+
   @Test
   public void all_but_preprocessor_stuff_is_swallowed() {
     // all the other stuff should be consumed by the lexer without
@@ -0,0 +1,162 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxLexer;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+public class MacroSnapshotTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  public void macros_are_restored() throws IOException {
+    var header = tempFolder.newFile("config.h");
+    Files.writeString(header.toPath(), "#define A 1\n");
+    var snapshot = tempFolder.getRoot().toPath().resolve("cache/snapshot.bin");
+    var key = MacroSnapshot.configurationKey(List.of("setting"));
+    var objectLike = new Macro("OBJECT", null, tokens("\"text\" + 1"), false);
+    var functionLike = new Macro("FUNCTION", tokens("a, ..."), tokens("a ## __VA_ARGS__"), true);
+
+    assertThat(MacroSnapshot.save(snapshot, key, List.of(header), List.of(), List.of(objectLike, functionLike)))
+      .isTrue();
+    var macros = MacroSnapshot.load(snapshot, key, lookup -> null);
+
+    assertThat(macros).containsOnlyKeys("OBJECT", "FUNCTION");
+    assertThat(macros.get("OBJECT")).hasToString(objectLike.toString());
+    assertThat(macros.get("FUNCTION")).hasToString(functionLike.toString());
+    assertThat(macros.get("FUNCTION").isVariadic).isTrue();
+    assertThat(macros.get("FUNCTION").body).extracting(Token::getType)
+      .containsExactlyElementsOf(functionLike.body.stream().map(Token::getType).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void snapshot_of_other_configuration_or_changed_file_is_ignored() throws IOException {
+    var header = tempFolder.newFile("config.h");
+    Files.writeString(header.toPath(), "#define A 1\n");
+    var snapshot = tempFolder.getRoot().toPath().resolve("snapshot.bin");
+    var key = MacroSnapshot.configurationKey(List.of("setting"));
+    var lookup = new MacroSnapshot.IncludeLookup(List.of(), "config.h", true, header);
+    MacroSnapshot.save(snapshot, key, List.of(header), List.of(lookup),
+                       List.of(new Macro("A", null, tokens("1"), false)));
+
+    assertThat(MacroSnapshot.load(snapshot, key, l -> header)).isNotNull();
+    assertThat(MacroSnapshot.load(snapshot, MacroSnapshot.configurationKey(List.of("other")), l -> header)).isNull();
+    assertThat(MacroSnapshot.load(snapshot, key, l -> null)).as("include lookup changed").isNull();
+    Files.writeString(header.toPath(), "#define A 2\n");
+    assertThat(MacroSnapshot.load(snapshot, key, l -> header)).isNull();
+    assertThat(MacroSnapshot.load(tempFolder.getRoot().toPath().resolve("missing.bin"), key, l -> header)).isNull();
+  }
+
+  @Test
+  public void forced_includes_are_preprocessed_once() throws IOException {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    var dir = tempFolder.newFolder("project").toPath();
+    Files.writeString(dir.resolve("config.h"), "#include \"square.h\"\n#define VALUE SQUARE(2) /* four */\n");
+    Files.writeString(dir.resolve("square.h"), "#define SQUARE(x) ((x) * (x))\n");
+
+    assertThat(lex(dir, "VALUE")).isEqualTo("( ( 2 ) * ( 2 ) ) EOF");
+    assertThat(loadedFromSnapshot()).isFalse();
+    List<Path> snapshots;
+    try (var files = Files.list(dir.resolve("cache"))) {
+      snapshots = files.collect(Collectors.toList());
+    }
+    assertThat(snapshots).hasSize(1);
+
+    assertThat(lex(dir, "VALUE")).as("from snapshot").isEqualTo("( ( 2 ) * ( 2 ) ) EOF");
+    assertThat(loadedFromSnapshot()).isTrue();
+
+    Files.writeString(dir.resolve("square.h"), "#define SQUARE(x) x\n");
+    assertThat(lex(dir, "VALUE")).as("included file changed").isEqualTo("2 EOF");
+    assertThat(loadedFromSnapshot()).isFalse();
+  }
+
+  @Test
+  public void snapshot_is_not_used_if_an_include_lookup_changes() throws IOException {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    var dir = tempFolder.newFolder("project").toPath();
+    Files.createDirectories(dir.resolve("first"));
+    Files.createDirectories(dir.resolve("second"));
+    Files.writeString(dir.resolve("config.h"), "#include \"generated.h\"\n#include <value.h>\n");
+    Files.writeString(dir.resolve("second/value.h"), "#define VALUE 2\n");
+
+    assertThat(lex(dir, "GENERATED VALUE")).isEqualTo("GENERATED 2 EOF");
+    assertThat(lex(dir, "GENERATED VALUE")).as("from snapshot").isEqualTo("GENERATED 2 EOF");
+    assertThat(loadedFromSnapshot()).isTrue();
+
+    Files.writeString(dir.resolve("generated.h"), "#define GENERATED 1\n");
+    assertThat(lex(dir, "GENERATED VALUE")).as("missing file created").isEqualTo("1 2 EOF");
+    assertThat(loadedFromSnapshot()).isFalse();
+
+    Files.writeString(dir.resolve("first/value.h"), "#define VALUE 1\n");
+    assertThat(lex(dir, "GENERATED VALUE")).as("file shadowed").isEqualTo("1 1 EOF");
+    assertThat(loadedFromSnapshot()).isFalse();
+  }
+
+  private boolean loadedFromSnapshot() {
+    var loaded = logTester.logs(LoggerLevel.DEBUG).stream().anyMatch(log -> log.startsWith("global macros loaded"));
+    logTester.clear();
+    return loaded;
+  }
+
+  private static String lex(Path dir, String source) {
+    var squidConfig = new CxxSquidConfiguration(dir.toString());
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.FORCE_INCLUDES,
+                    dir.resolve("config.h").toString());
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
+                    List.of(dir.resolve("first").toString(), dir.resolve("second").toString()));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+                    CxxSquidConfiguration.PREPROCESSOR_CACHE_DIRECTORY, "cache");
+
+    SquidAstVisitorContext<Grammar> context = mock(SquidAstVisitorContext.class);
+    when(context.getFile()).thenReturn(new File(dir.toFile(), "main.cpp"));
+    var pp = new CxxPreprocessor(context, squidConfig);
+    return CxxLexer.create(squidConfig.getCharset(), pp).lex(source).stream()
+      .map(Token::getValue).collect(Collectors.joining(" "));
+  }
+
+  private static List<Token> tokens(String source) {
+    return CppLexer.create().lex(source).stream()
+      .filter(token -> !token.getType().equals(GenericTokenType.EOF))
+      .collect(Collectors.toList());
+  }
+
+}
@@ -21,7 +21,7 @@ package org.sonar.cxx.visitors;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.List;
+import java.util.HashMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,8 +49,19 @@ public class CxxCpdVisitorTest {
 
   @Test
   public void testCpdTokens() throws Exception {
-    List<CxxCpdVisitor.CpdToken> data = (List<CxxCpdVisitor.CpdToken>) sourceFile.getData(CxxMetric.CPD_TOKENS_DATA);
-    assertThat(data).hasSize(391);
+    var data = (CxxCpdVisitor.CpdTokens) sourceFile.getData(CxxMetric.CPD_TOKENS_DATA);
+    assertThat(data.size()).isEqualTo(391);
+  }
+
+  @Test
+  public void testTextsAreShared() {
+    var data = (CxxCpdVisitor.CpdTokens) sourceFile.getData(CxxMetric.CPD_TOKENS_DATA);
+    var texts = new HashMap<String, String>();
+    for (int i = 0; i < data.size(); i++) {
+      assertThat(data.text(i)).isSameAs(texts.computeIfAbsent(data.text(i), t -> t));
+      assertThat(data.endCol(i)).isGreaterThan(data.startCol(i));
+    }
+    assertThat(texts.size()).isLessThan(data.size());
   }
 
 }
@@ -21,8 +21,8 @@ package org.sonar.cxx.visitors;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,6 +33,7 @@ import org.junit.Test;
 import org.sonar.cxx.CxxAstScanner;
 import org.sonar.cxx.CxxFileTesterHelper;
 import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.squidbridge.api.SourceFile;
 
 public class CxxFileLinesVisitorTest {
@@ -52,18 +53,34 @@ public class CxxFileLinesVisitorTest {
       58, 59, 63, 65, 67, 68, 69, 70, 71, 72, 73, 74, 75, 76, 79, 82, 84, 86, 87, 89,
       90, 95, 98, 99, 100, 102, 107, 108, 109, 110, 111, 113, 115, 118, 119, 124, 126)
       .collect(Collectors.toCollection(HashSet::new));
-    List<Integer> linesOfCode = (List<Integer>) sourceFile.getData(CxxMetric.NCLOC_DATA);
+    var linesOfCode = (BitSet) sourceFile.getData(CxxMetric.NCLOC_DATA);
     var softly = new SoftAssertions();
-    softly.assertThat(linesOfCode).containsExactlyInAnyOrderElementsOf(testLines);
+    softly.assertThat(linesOfCode.stream().boxed()).containsExactlyInAnyOrderElementsOf(testLines);
     softly.assertAll();
   }
 
   @Test
   public void testExecutableLinesOfCode() throws UnsupportedEncodingException, IOException {
-    List<Integer> executableLines = (List<Integer>) sourceFile.getData(CxxMetric.EXECUTABLE_LINES_DATA);
-    assertThat(executableLines).containsExactlyInAnyOrder(
+    var executableLines = (BitSet) sourceFile.getData(CxxMetric.EXECUTABLE_LINES_DATA);
+    assertThat(executableLines.stream().boxed()).containsExactlyInAnyOrder(
       10, 26, 34, 35, 56, 59, 69, 70, 72, 73,
       75, 76, 79, 87, 90, 98, 102, 118, 119, 126);
   }
 
+  @Test
+  public void testTokenOnlyFile() throws UnsupportedEncodingException, IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/visitors/ncloc.cc", ".", "");
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.TOKEN_ONLY_FILES,
+                    "**/visitors/ncloc.cc");
+    var file = CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig, new CxxFileLinesVisitor());
+
+    // without an AST there are no function bodies: no line is counted as code or executable line of a function
+    var softly = new SoftAssertions();
+    softly.assertThat(file.isTokenOnly()).isTrue();
+    softly.assertThat(((BitSet) file.getData(CxxMetric.NCLOC_DATA)).cardinality()).isZero();
+    softly.assertThat(((BitSet) file.getData(CxxMetric.EXECUTABLE_LINES_DATA)).cardinality()).isZero();
+    softly.assertAll();
+  }
+
 }
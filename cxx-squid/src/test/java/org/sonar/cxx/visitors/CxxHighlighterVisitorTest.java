@@ -0,0 +1,56 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+public class CxxHighlighterVisitorTest {
+
+  @Test
+  public void adjacentRangesOfSameTypeAreMerged() {
+    var highlighting = new CxxHighlighterVisitor.Highlighting();
+    highlighting.add(1, 0, 1, 4, CxxHighlighterVisitor.Highlighting.COMMENT);
+    highlighting.add(1, 4, 2, 3, CxxHighlighterVisitor.Highlighting.COMMENT);
+    highlighting.add(2, 3, 2, 8, CxxHighlighterVisitor.Highlighting.KEYWORD);
+    highlighting.add(2, 9, 2, 12, CxxHighlighterVisitor.Highlighting.KEYWORD);
+
+    assertThat(highlighting.size()).isEqualTo(3);
+    assertThat(highlighting.startLine(0)).isEqualTo(1);
+    assertThat(highlighting.startLineOffset(0)).isZero();
+    assertThat(highlighting.endLine(0)).isEqualTo(2);
+    assertThat(highlighting.endLineOffset(0)).isEqualTo(3);
+    assertThat(highlighting.typeOfText(0)).isEqualTo("cd");
+    assertThat(highlighting.typeOfText(1)).isEqualTo("k");
+    assertThat(highlighting.startLineOffset(2)).isEqualTo(9);
+  }
+
+  @Test
+  public void growsBeyondInitialCapacity() {
+    var highlighting = new CxxHighlighterVisitor.Highlighting();
+    for (int i = 0; i < 1000; i++) {
+      highlighting.add(i + 1, 0, i + 1, 5, CxxHighlighterVisitor.Highlighting.STRING);
+    }
+    assertThat(highlighting.size()).isEqualTo(1000);
+    assertThat(highlighting.startLine(999)).isEqualTo(1000);
+    assertThat(highlighting.typeOfText(999)).isEqualTo("s");
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.sonar.cxx.CxxAstScanner;
+import org.sonar.cxx.CxxFileTesterHelper;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.SourceFile;
+
+public class CxxLazyFunctionBodyVisitorTest {
+
+  private static CxxSquidConfiguration lazyConfig() {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.LAZY_FUNCTION_BODY_FILES,
+                    "**/metrics/**");
+    return squidConfig;
+  }
+
+  private static SourceFile scan(String fileName, CxxSquidConfiguration squidConfig,
+                                 SquidAstVisitor<Grammar>... visitors) throws IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/" + fileName, ".", "");
+    return CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig, visitors);
+  }
+
+  @Test
+  public void sameMetricsAsParser() throws IOException {
+    var softly = new SoftAssertions();
+    for (var fileName : List.of("statements.cc", "complexity.cc", "FunctionComplexity.cc", "functions.cc", "loops.cc",
+                                "local_class.cc")) {
+      var parsed = scan(fileName, new CxxSquidConfiguration());
+      var lazy = scan(fileName, lazyConfig());
+      softly.assertThat(lazy.getInt(CxxMetric.FUNCTIONS)).as(fileName).isEqualTo(parsed.getInt(CxxMetric.FUNCTIONS));
+      softly.assertThat(lazy.getInt(CxxMetric.CLASSES)).as(fileName).isEqualTo(parsed.getInt(CxxMetric.CLASSES));
+      softly.assertThat(lazy.getInt(CxxMetric.STATEMENTS)).as(fileName).isEqualTo(parsed.getInt(CxxMetric.STATEMENTS));
+      softly.assertThat(lazy.getInt(CxxMetric.COMPLEXITY)).as(fileName).isEqualTo(parsed.getInt(CxxMetric.COMPLEXITY));
+      softly.assertThat(lazy.getInt(CxxMetric.LINES_OF_CODE)).as(fileName)
+        .isEqualTo(parsed.getInt(CxxMetric.LINES_OF_CODE));
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  public void bodiesAreNotParsed() throws IOException {
+    var lazyBodies = new NodeCounter(CxxGrammarImpl.lazyFunctionBody);
+    scan("statements.cc", lazyConfig(), lazyBodies);
+    assertThat(lazyBodies.nodes).hasSize(1);
+
+    // a visitor of body nodes forces parsing
+    var statements = new NodeCounter(CxxGrammarImpl.compoundStatement);
+    lazyBodies = new NodeCounter(CxxGrammarImpl.lazyFunctionBody);
+    scan("statements.cc", lazyConfig(), statements, lazyBodies);
+    assertThat(statements.nodes).hasSize(1);
+    assertThat(lazyBodies.nodes).isEmpty();
+  }
+
+  @Test
+  public void bodiesWithLocalClassesAreParsed() throws IOException {
+    var lazyBodies = new NodeCounter(CxxGrammarImpl.lazyFunctionBody);
+    scan("local_class.cc", lazyConfig(), lazyBodies);
+    // the body of 'local' is parsed, the bodies of its member functions and of 'plain' are not
+    assertThat(lazyBodies.nodes).extracting(AstNode::getTokenLine).containsExactly(11, 12, 27);
+
+    // a visitor of declarations forces parsing, they also occur in function bodies
+    for (var type : List.of(CxxGrammarImpl.simpleDeclaration, CxxGrammarImpl.classSpecifier,
+                            CxxGrammarImpl.functionDefinition, CxxGrammarImpl.enumSpecifier,
+                            CxxGrammarImpl.lambdaExpression)) {
+      var declarations = new NodeCounter(type);
+      lazyBodies = new NodeCounter(CxxGrammarImpl.lazyFunctionBody);
+      scan("local_class.cc", lazyConfig(), declarations, lazyBodies);
+      assertThat(lazyBodies.nodes).as(type.toString()).isEmpty();
+    }
+  }
+
+  private static class NodeCounter extends SquidAstVisitor<Grammar> {
+
+    private final CxxGrammarImpl type;
+    private final List<AstNode> nodes = new ArrayList<>();
+
+    NodeCounter(CxxGrammarImpl type) {
+      this.type = type;
+    }
+
+    @Override
+    public void init() {
+      subscribeTo(type);
+    }
+
+    @Override
+    public void visitNode(AstNode node) {
+      nodes.add(node);
+    }
+  }
+
+}
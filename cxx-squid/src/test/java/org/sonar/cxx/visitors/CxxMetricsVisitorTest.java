@@ -0,0 +1,108 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) 2010-2021 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import com.sonar.sslr.api.Grammar;
+import java.io.IOException;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.sonar.cxx.CxxAstScanner;
+import org.sonar.cxx.CxxComplexityConstants;
+import org.sonar.cxx.CxxFileTesterHelper;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.SourceFile;
+import org.sonar.cxx.squidbridge.metrics.CommentsVisitor;
+import org.sonar.cxx.squidbridge.metrics.ComplexityVisitor;
+import org.sonar.cxx.squidbridge.metrics.CounterVisitor;
+
+public class CxxMetricsVisitorTest {
+
+  private static final List<CxxMetric> ADDITIVE_METRICS = List.of(
+    CxxMetric.FUNCTIONS, CxxMetric.CLASSES, CxxMetric.STATEMENTS, CxxMetric.COMPLEXITY, CxxMetric.LINES_OF_CODE,
+    CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY, CxxMetric.COMMENT_LINES);
+
+  private static SourceFile scan(String fileName, CxxSquidConfiguration squidConfig,
+                                 SquidAstVisitor<Grammar>... visitors) throws IOException {
+    var tester = CxxFileTesterHelper.create("src/test/resources/metrics/" + fileName, ".", "");
+    return CxxAstScanner.scanSingleInputFileConfig(tester.asInputFile(), squidConfig, visitors);
+  }
+
+  private static SquidAstVisitor<Grammar>[] separateVisitors() {
+    return new SquidAstVisitor[]{
+      CounterVisitor.<Grammar>builder().setMetricDef(CxxMetric.FUNCTIONS)
+        .subscribeTo(CxxGrammarImpl.functionDefinition).build(),
+      CounterVisitor.<Grammar>builder().setMetricDef(CxxMetric.CLASSES)
+        .subscribeTo(CxxGrammarImpl.classSpecifier).build(),
+      CounterVisitor.<Grammar>builder().setMetricDef(CxxMetric.STATEMENTS)
+        .subscribeTo(CxxGrammarImpl.statement).build(),
+      new CxxLazyFunctionBodyVisitor<>(),
+      new CxxCyclomaticComplexityVisitor<>(ComplexityVisitor.<Grammar>builder().setMetricDef(CxxMetric.COMPLEXITY)
+        .subscribeTo(CxxComplexityConstants.getCyclomaticComplexityTypes()).build()),
+      new CxxLinesOfCodeVisitor<>(),
+      new CxxLinesOfCodeInFunctionBodyVisitor<>(),
+      CommentsVisitor.<Grammar>builder().withCommentMetric(CxxMetric.COMMENT_LINES).withNoSonar(true).build()
+    };
+  }
+
+  @Test
+  public void sameMetricsAsSeparateVisitors() throws IOException {
+    var lazyConfig = new CxxSquidConfiguration();
+    lazyConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.LAZY_FUNCTION_BODY_FILES,
+                   "**/metrics/**");
+    var softly = new SoftAssertions();
+    for (var squidConfig : List.of(new CxxSquidConfiguration(), lazyConfig)) {
+      for (var fileName : List.of("statements.cc", "complexity.cc", "complexity_macro.cc", "FunctionComplexity.cc",
+                                  "functions.cc", "classes.cc", "comments.cc", "nosonar.cc", "multiline.h")) {
+        var fused = scan(fileName, squidConfig);
+        // the separate visitors add their measures to the ones of the fused visitor: all sums must be doubled
+        var both = scan(fileName, squidConfig, separateVisitors());
+        for (var metric : ADDITIVE_METRICS) {
+          softly.assertThat(both.getInt(metric)).as(fileName + " " + metric).isEqualTo(2 * fused.getInt(metric));
+        }
+        softly.assertThat(both.getInt(CxxMetric.LINES)).as(fileName).isEqualTo(fused.getInt(CxxMetric.LINES));
+        softly.assertThat(both.getNoSonarTagLines()).as(fileName).isEqualTo(fused.getNoSonarTagLines());
+      }
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  public void noSonarLines() throws IOException {
+    var sourceFile = scan("nosonar.cc", new CxxSquidConfiguration());
+    assertThat(sourceFile.getNoSonarTagLines()).isNotEmpty();
+  }
+
+  @Test
+  public void lineCount() {
+    var softly = new SoftAssertions();
+    for (var value : List.of("", "a", "a\nb", "a\r\nb", "a\rb", "a\n\rb", "a\r\n\r\nb\n", "a\u000Bb\fc", "a\u0085b",
+                             "a\u2028b\u2029")) {
+      softly.assertThat(CxxMetricsVisitor.lineCount(value)).as(value)
+        .isEqualTo(CxxLinesOfCodeVisitor.EOL_PATTERN.split(value, -1).length);
+    }
+    softly.assertAll();
+  }
+
+}
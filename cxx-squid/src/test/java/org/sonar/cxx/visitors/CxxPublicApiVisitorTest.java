@@ -106,6 +106,11 @@ public class CxxPublicApiVisitorTest {
     assertThat(verifyPublicApiOfFile("src/test/resources/metrics/multiline.h")).isEqualTo(tuple(9, 0));
   }
 
+  @Test
+  public void access_specifiers() throws IOException {
+    assertThat(verifyPublicApiOfFile("src/test/resources/metrics/access_specifiers.h")).isEqualTo(tuple(14, 9));
+  }
+
   @Test
   public void public_api() throws UnsupportedEncodingException, IOException {
     var fileNme = "src/test/resources/metrics/public_api.h";
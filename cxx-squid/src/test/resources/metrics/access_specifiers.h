@@ -0,0 +1,41 @@
+/**
+ * Mixed access specifiers
+ */
+class Mixed {
+  int privateDefault;
+public:
+  /// public attribute
+  int publicA;
+  int publicB;
+private:
+  int privateA;
+protected:
+  void protectedMethod();
+  /// nested struct
+  struct Nested {
+    int nestedField; ///< nested field
+  };
+private:
+  struct Hidden {
+    int hiddenField;
+  };
+public:
+  void inlineMethod() {
+    int local;
+  }
+};
+
+/// plain struct
+struct Plain {
+  int plainField;
+  class Inner {
+    int innerPrivate;
+  public:
+    int innerPublic;
+  };
+};
+
+union Value {
+  int intValue;
+  float floatValue;
+};
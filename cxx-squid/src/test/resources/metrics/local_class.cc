@@ -0,0 +1,31 @@
+struct Point {
+    int x;
+    int y;
+};
+
+int local(int n) {
+    struct Point p = {n, n};
+    struct Point *q = &p;
+    class Counter : public Base {
+    public:
+        Counter() : value(0) {}
+        int next() {
+            if (value > 10) {
+                return 0;
+            }
+            return ++value;
+        }
+    private:
+        int value;
+    };
+    enum class Color { red, green };
+    auto add = [](struct Point a) { return a.x + a.y; };
+    Counter c;
+    return c.next() + add(*q);
+}
+
+int plain(int n) {
+    struct Point p;
+    p.x = n;
+    return p.x;
+}
@@ -0,0 +1,16 @@
+void loops(int n) {
+    do {
+        n--;
+    } while (n > 10);
+    do n--; while (n > 5);
+    do while (n > 3) n--; while (n > 2);
+    do do n--; while (n > 1); while (n > 0);
+    do {
+        while (n < 3) {
+            n++;
+        }
+    } while (n < 5);
+    for (;;) {
+        do { break; } while (true);
+    }
+}
@@ -0,0 +1,8 @@
+// comment with #define NO_MACRO
+#  define  FIRST(a) a
+/* #include <no.h> */ #define SECOND
+#include_next <next.h>
+#import "imported.h"
+import module;
+#undef FIRST
+int i; # define NOT_A_DIRECTIVE
@@ -0,0 +1,3 @@
+#define SYS_HEADER <sys.h>
+#include SYS_HEADER
+#define COMPUTED_VALUE SYS_VALUE
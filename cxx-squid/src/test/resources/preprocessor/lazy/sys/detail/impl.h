@@ -0,0 +1,2 @@
+#define IMPL_VALUE 2
+#define SYS_FUNC(x) (x + IMPL_VALUE)
@@ -0,0 +1,8 @@
+#ifndef SYS_H
+#define SYS_H
+
+#include "detail/impl.h"
+
+#define SYS_VALUE 1
+
+#endif
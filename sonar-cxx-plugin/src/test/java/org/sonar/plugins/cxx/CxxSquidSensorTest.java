@@ -25,7 +25,9 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -39,10 +41,19 @@ import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.cxx.CxxMetrics;
+import org.sonar.cxx.squidbridge.AnalysisProfile;
+import org.sonar.cxx.squidbridge.AnalysisProfile.Phase;
 
 public class CxxSquidSensorTest {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+  @Rule
+  public LogTester logTester = new LogTester();
+
   private CxxSquidSensor sensor;
   private final MapSettings settings = new MapSettings();
 
@@ -209,6 +220,91 @@ public class CxxSquidSensorTest {
 
   }
 
+  @Test
+  public void testAnalysisProfile() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/include-directories-project");
+    var context = SensorContextTester.create(baseDir);
+    var workDir = tempFolder.newFolder().toPath();
+    context.fileSystem().setWorkDir(workDir);
+    settings.setProperty(CxxSquidSensor.INCLUDE_DIRECTORIES_KEY, "include");
+    settings.setProperty(CxxSquidSensor.ANALYSIS_PROFILE_KEY, "true");
+    context.setSettings(settings);
+
+    var inputFile = TestUtils.buildInputFile(baseDir, "src/main.cc");
+    context.fileSystem().add(inputFile);
+    AnalysisProfile.resetReport();
+    sensor.execute(context);
+
+    var files = AnalysisProfile.getFiles();
+    AnalysisProfile.setEnabled(false);
+    AnalysisProfile.resetReport();
+
+    assertThat(files).hasSize(1);
+    assertThat(files.get(0).get(Phase.INCLUDES)).isPositive();
+    assertThat(files.get(0).get(Phase.LEXING)).isGreaterThanOrEqualTo(files.get(0).get(Phase.INCLUDES));
+    assertThat(files.get(0).getTokens()).isPositive();
+    assertThat(workDir.resolve(AnalysisProfile.JSON_FILE)).exists();
+    assertThat(workDir.resolve(AnalysisProfile.CSV_FILE)).exists();
+  }
+
+  @Test
+  public void testTokenOnly() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var inputFile0 = TestUtils.buildInputFile(baseDir, "code_chunks.cc");
+
+    var context = SensorContextTester.create(baseDir);
+    settings.setProperty(CxxSquidSensor.TOKEN_ONLY_FILES_KEY, "**/code_chunks.cc");
+    context.setSettings(settings);
+    context.fileSystem().add(inputFile0);
+    sensor.execute(context);
+
+    var softly = new SoftAssertions();
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.NCLOC).value()).isEqualTo(54);
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.COMMENT_LINES).value()).isEqualTo(15);
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.STATEMENTS)).isNull();
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.FUNCTIONS)).isNull();
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.COMPLEXITY)).isNull();
+    softly.assertThat(context.cpdTokens(inputFile0.key())).isNotEmpty();
+    softly.assertThat(logTester.logs(LoggerLevel.INFO))
+      .contains("1 file(s) analyzed on token level only, AST based metrics are not computed");
+    softly.assertAll();
+  }
+
+  @Test
+  public void testParseBudget() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var inputFile0 = TestUtils.buildInputFile(baseDir, "code_chunks.cc");
+
+    var context = SensorContextTester.create(baseDir);
+    settings.setProperty(CxxSquidSensor.PARSE_BUDGET_STEPS_KEY, "10");
+    context.setSettings(settings);
+    context.fileSystem().add(inputFile0);
+    sensor.execute(context);
+
+    var softly = new SoftAssertions();
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.NCLOC).value()).isEqualTo(54);
+    softly.assertThat(context.measure(inputFile0.key(), CoreMetrics.FUNCTIONS)).isNull();
+    softly.assertThat(logTester.logs(LoggerLevel.WARN))
+      .contains("Parse budget exceeded for 1 file(s), analyzed on token level only:");
+    softly.assertAll();
+  }
+
+  @Test
+  public void testVisitorCosts() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var context = SensorContextTester.create(baseDir);
+    settings.setProperty(CxxSquidSensor.VISITOR_COSTS_KEY, "true");
+    context.setSettings(settings);
+
+    var inputFile = TestUtils.buildInputFile(baseDir, "code_chunks.cc");
+    context.fileSystem().add(inputFile);
+    sensor.execute(context);
+
+    assertThat(logTester.logs(LoggerLevel.INFO))
+      .anyMatch(log -> log.startsWith("Analysis profile: top "))
+      .anyMatch(log -> log.contains(" calls: org.sonar.cxx."));
+  }
+
   @Test
   public void testForceIncludedFiles() throws IOException {
     File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/force-include-project");